@@ -135,6 +135,7 @@ public class CLI {
 
         boolean strictHostKey = false;
         boolean noCertificateCheck = false;
+        boolean compress = false;
 
         while (!args.isEmpty()) {
             String head = args.get(0);
@@ -184,6 +185,11 @@ public class CLI {
                 args = args.subList(1, args.size());
                 continue;
             }
+            if (head.equals("-compress")) {
+                compress = true;
+                args = args.subList(1, args.size());
+                continue;
+            }
             if (head.equals("-noKeyAuth")) {
                 noKeyAuth = true;
                 args = args.subList(1, args.size());
@@ -296,7 +302,7 @@ public class CLI {
             LOGGER.warning("Warning: -user ignored unless using -ssh");
         }
 
-        CLIConnectionFactory factory = new CLIConnectionFactory().noCertificateCheck(noCertificateCheck);
+        CLIConnectionFactory factory = new CLIConnectionFactory().noCertificateCheck(noCertificateCheck).compress(compress);
         String userInfo = new URL(url).getUserInfo();
         if (userInfo != null) {
             factory = factory.basicAuth(userInfo);
@@ -367,7 +373,7 @@ public class CLI {
         }
         Session session;
         try {
-            session = client.connectToServer(new CLIEndpoint(), ClientEndpointConfig.Builder.create().configurator(authenticator).build(), URI.create(url.replaceFirst("^http", "ws") + "cli/ws"));
+            session = client.connectToServer(new CLIEndpoint(), ClientEndpointConfig.Builder.create().configurator(authenticator).build(), URI.create(url.replaceFirst("^http", "ws") + "cli/ws?" + protocolParameters(factory)));
         } catch (DeploymentHandshakeException x) {
             System.err.println("CLI handshake failed with status code " + x.getHttpStatusCode());
             if (authenticator.hr != null) {
@@ -392,6 +398,7 @@ public class CLI {
             }
         };
         try (ClientSideImpl connection = new ClientSideImpl(out)) {
+            connection.acceptHello(helloHeader(authenticator.hr));
             session.addMessageHandler(InputStream.class, is -> {
                 try {
                     connection.handle(new DataInputStream(is));
@@ -413,8 +420,9 @@ public class CLI {
             HttpsURLConnection.setDefaultSSLSocketFactory(sslContext.getSocketFactory());
             HttpsURLConnection.setDefaultHostnameVerifier((s, sslSession) -> true);
         }
-        FullDuplexHttpStream streams = new FullDuplexHttpStream(new URL(url), "cli?remoting=false", factory.authorization);
+        FullDuplexHttpStream streams = new FullDuplexHttpStream(new URL(url), "cli?remoting=false&" + protocolParameters(factory), factory.authorization);
         try (ClientSideImpl connection = new ClientSideImpl(new PlainCLIProtocol.FramedOutput(streams.getOutputStream()))) {
+            connection.acceptHello(streams.getDownloadHeader(PlainCLIProtocol.HELLO_HEADER));
             connection.start(args);
             InputStream is = streams.getInputStream();
             if (is.read() != 0) { // cf. FullDuplexHttpService
@@ -441,6 +449,27 @@ public class CLI {
         }
     }
 
+    /**
+     * @return the value of {@link PlainCLIProtocol#HELLO_HEADER} in a WebSocket handshake response, if any
+     */
+    private static String helloHeader(HandshakeResponse hr) {
+        if (hr != null) {
+            for (var entry : hr.getHeaders().entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(PlainCLIProtocol.HELLO_HEADER) && !entry.getValue().isEmpty()) {
+                    return entry.getValue().get(0);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Asks for the latest revision of {@link PlainCLIProtocol}, which older servers ignore.
+     */
+    private static String protocolParameters(CLIConnectionFactory factory) {
+        return PlainCLIProtocol.VERSION_PARAMETER + "=" + PlainCLIProtocol.VERSION + (factory.compress ? "&" + PlainCLIProtocol.COMPRESS_PARAMETER + "=true" : "");
+    }
+
     private static final class ClientSideImpl extends PlainCLIProtocol.ClientSide {
 
         volatile boolean complete;
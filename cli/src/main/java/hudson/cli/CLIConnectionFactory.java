@@ -11,6 +11,7 @@ import java.util.Base64;
 public class CLIConnectionFactory {
     String authorization;
     boolean noCertificateCheck;
+    boolean compress;
 
     /**
      * For CLI connection that goes through HTTP, sometimes you need
@@ -32,6 +33,16 @@ public class CLIConnectionFactory {
         return this;
     }
 
+    /**
+     * Ask the server to compress data sent either way, if it supports that.
+     *
+     * @since TODO
+     */
+    public CLIConnectionFactory compress(boolean value) {
+        this.compress = value;
+        return this;
+    }
+
     /**
      * Convenience method to call {@link #authorization} with the HTTP basic authentication.
      * Currently unused.
@@ -21,6 +21,7 @@ public class FullDuplexHttpStream {
 
     private final OutputStream output;
     private final InputStream input;
+    private final HttpURLConnection download;
 
     /**
      * Get data from the server.
@@ -38,6 +39,15 @@ public class FullDuplexHttpStream {
         return output;
     }
 
+    /**
+     * Get a header of the response to the download side, which the server sends before any data.
+     * @return the value of the header, or null if not sent
+     * @since TODO
+     */
+    public String getDownloadHeader(String name) {
+        return download.getHeaderField(name);
+    }
+
     /**
      * @param base the base URL of Jenkins.
      * @param relativeTarget
@@ -76,6 +86,7 @@ public class FullDuplexHttpStream {
             throw new CLI.NotTalkingToJenkinsException("There's no Jenkins running at " + target + ", or is not serving the HTTP Duplex transport");
         }
         LOGGER.fine("established download side"); // calling getResponseCode or getHeaderFields fails
+        download = con;
 
         // client->server uses chunked encoded POST for unlimited capacity.
         LOGGER.fine("establishing upload side");
@@ -24,6 +24,7 @@
 
 package hudson.cli;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
@@ -32,11 +33,20 @@ import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ReadPendingException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.io.input.CountingInputStream;
@@ -46,11 +56,37 @@ import org.apache.commons.io.input.CountingInputStream;
  * Each side consists of frames starting with an {@code int} length,
  * then a {@code byte} opcode, then any opcode-specific data.
  * The length does not count the length field itself nor the opcode, so it is nonnegative.
+ *
+ * <p>
+ * Revision 2 is negotiated by the client passing {@link #VERSION_PARAMETER} when connecting,
+ * which older servers ignore. A server supporting it announces so in the {@link #HELLO_HEADER} response header,
+ * which the client reads before sending any stdin, and then starts by sending {@link Op#HELLO} with the same parameters.
+ * The client limits unconsumed stdin to the announced window,
+ * and both sides may deflate stdin, stdout and stderr if the client asked for it with {@link #COMPRESS_PARAMETER}.
+ * Either revision of the server may coalesce output into frames of up to {@link #MAX_FRAME} bytes.
  */
 class PlainCLIProtocol {
 
     static final Logger LOGGER = Logger.getLogger(PlainCLIProtocol.class.getName());
 
+    /** Latest revision of the protocol. */
+    static final int VERSION = 2;
+
+    /** Request parameter with the revision supported by the client. */
+    static final String VERSION_PARAMETER = "protocol";
+
+    /** Request parameter set to {@code true} if the client wants data to be deflated. */
+    static final String COMPRESS_PARAMETER = "compress";
+
+    /** Response header with the parameters of {@link Op#HELLO}, as built by {@link #hello}. */
+    static final String HELLO_HEADER = "X-Jenkins-CLI-Hello";
+
+    /** Largest frame built from coalesced data, kept under the common 64KiB limit for WebSocket messages. */
+    static final int MAX_FRAME = 60_000;
+
+    /** How long coalesced data may wait for more to fill a frame. */
+    static final long LINGER_MILLIS = 50;
+
     /** One-byte operation to send to the other side. */
     private enum Op {
         /** UTF-8 command name or argument. */
@@ -70,13 +106,37 @@ class PlainCLIProtocol {
         /** Chunk of stdout. */
         STDOUT(false),
         /** Chunk of stderr. */
-        STDERR(false);
+        STDERR(false),
+        /** Revision 2 accepted, as int version, then int stdin window in bytes, then boolean whether to deflate. */
+        HELLO(false),
+        /** Number of stdin bytes consumed, as int, which the client may now send more of. */
+        WINDOW(false),
+        /** Chunk of stdin, deflated as part of one stream with all deflated stdin. */
+        DEFLATED_STDIN(true),
+        /** Chunk of stdout, deflated as part of one stream with all deflated stdout and stderr. */
+        DEFLATED_STDOUT(false),
+        /** Chunk of stderr, deflated as part of one stream with all deflated stdout and stderr. */
+        DEFLATED_STDERR(false);
         /** True if sent from the client to the server; false if sent from the server to the client. */
         final boolean clientSide;
 
         Op(boolean clientSide) {
             this.clientSide = clientSide;
         }
+
+        /** The operation sending the same data deflated, if any. */
+        Op deflated() {
+            switch (this) {
+            case STDIN:
+                return DEFLATED_STDIN;
+            case STDOUT:
+                return DEFLATED_STDOUT;
+            case STDERR:
+                return DEFLATED_STDERR;
+            default:
+                return null;
+            }
+        }
     }
 
     interface Output extends Closeable {
@@ -178,6 +238,12 @@ class PlainCLIProtocol {
 
         private final Output out;
 
+        /** Deflates data sent, once negotiated. */
+        private Deflater deflater;
+
+        /** Inflates data received, once the other side started deflating. */
+        private Inflater inflater;
+
         protected EitherSide(Output out) {
             this.out = out;
         }
@@ -212,12 +278,74 @@ class PlainCLIProtocol {
         }
 
         protected final synchronized void send(Op op, byte[] chunk, int off, int len) throws IOException {
+            if (deflater != null && op.deflated() != null) {
+                sendDeflated(op.deflated(), chunk, off, len);
+                return;
+            }
             byte[] data = new byte[len + 1];
             data[0] = (byte) op.ordinal();
             System.arraycopy(chunk, off, data, 1, len);
             out.send(data);
         }
 
+        /**
+         * Sends a frame whose first byte is reserved for the operation, without copying it if it is full.
+         * The frame must not be used afterwards.
+         */
+        private synchronized void sendFrame(Op op, byte[] frame, int len) throws IOException {
+            if (deflater == null && len == frame.length) {
+                frame[0] = (byte) op.ordinal();
+                out.send(frame);
+            } else {
+                send(op, frame, 1, len - 1);
+            }
+        }
+
+        private void sendDeflated(Op op, byte[] chunk, int off, int len) throws IOException {
+            deflater.setInput(chunk, off, len);
+            // slightly larger than the input, in case it is incompressible
+            byte[] data = new byte[1 + len + len / 1000 + 64];
+            int count = 1;
+            while (true) {
+                count += deflater.deflate(data, count, data.length - count, Deflater.SYNC_FLUSH);
+                if (count < data.length) {
+                    break;
+                }
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[0] = (byte) op.ordinal();
+            out.send(count == data.length ? data : Arrays.copyOf(data, count));
+        }
+
+        /** Starts deflating stdin, stdout and stderr sent from now on. */
+        protected final synchronized void deflate() {
+            if (deflater == null) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+            }
+        }
+
+        /** Receives a chunk inflated from a deflated frame. */
+        protected interface ChunkHandler {
+            void onChunk(byte[] chunk) throws IOException;
+        }
+
+        /** Inflates a deflated frame, in chunks of at most {@link #MAX_FRAME} bytes. */
+        protected final void inflate(DataInputStream dis, ChunkHandler handler) throws IOException {
+            if (inflater == null) {
+                inflater = new Inflater();
+            }
+            inflater.setInput(dis.readAllBytes());
+            byte[] buf = new byte[MAX_FRAME];
+            try {
+                int len;
+                while ((len = inflater.inflate(buf)) > 0) {
+                    handler.onChunk(Arrays.copyOf(buf, len));
+                }
+            } catch (DataFormatException x) {
+                throw new IOException(x);
+            }
+        }
+
         protected final void send(Op op, byte[] chunk) throws IOException {
             send(op, chunk, 0, chunk.length);
         }
@@ -247,6 +375,97 @@ class PlainCLIProtocol {
             };
         }
 
+        /**
+         * Like {@link #stream} but coalescing writes into frames of up to {@link #MAX_FRAME} bytes,
+         * sent once full, when flushed, or after {@link #LINGER_MILLIS}.
+         * @param timer schedules sending data which has lingered
+         * @param executor sends data which has lingered, as that may block
+         */
+        protected final OutputStream coalescedStream(Op op, ScheduledExecutorService timer, Executor executor) {
+            return new CoalescingOutputStream(op, timer, executor);
+        }
+
+        private final class CoalescingOutputStream extends OutputStream {
+            private final Op op;
+            private final ScheduledExecutorService timer;
+            private final Executor executor;
+            /** First byte reserved for the operation. */
+            private byte[] frame = new byte[MAX_FRAME + 1];
+            private int count = 1;
+            private ScheduledFuture<?> linger;
+
+            CoalescingOutputStream(Op op, ScheduledExecutorService timer, Executor executor) {
+                this.op = op;
+                this.timer = timer;
+                this.executor = executor;
+            }
+
+            @Override
+            public synchronized void write(int b) throws IOException {
+                frame[count++] = (byte) b;
+                written();
+            }
+
+            @Override
+            public synchronized void write(@NonNull byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    int n = Math.min(len, frame.length - count);
+                    System.arraycopy(b, off, frame, count, n);
+                    count += n;
+                    off += n;
+                    len -= n;
+                    if (len > 0) {
+                        sendFrame();
+                    }
+                }
+                written();
+            }
+
+            private void written() throws IOException {
+                if (count == frame.length) {
+                    sendFrame();
+                } else if (linger == null) {
+                    linger = timer.schedule(() -> executor.execute(this::lingered), LINGER_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            private synchronized void lingered() {
+                linger = null;
+                try {
+                    sendFrame();
+                } catch (IOException x) {
+                    LOGGER.log(Level.FINE, null, x);
+                }
+            }
+
+            @Override
+            public synchronized void flush() throws IOException {
+                sendFrame();
+            }
+
+            @Override
+            public synchronized void close() throws IOException {
+                sendFrame();
+            }
+
+            private void sendFrame() throws IOException {
+                if (linger != null) {
+                    linger.cancel(false);
+                    linger = null;
+                }
+                if (count > 1) {
+                    byte[] full = frame;
+                    int len = count;
+                    if (len == full.length) {
+                        // handed over
+                        frame = new byte[MAX_FRAME + 1];
+                    }
+                    count = 1;
+                    EitherSide.this.sendFrame(op, full, len);
+                }
+            }
+        }
+
         @Override
         public synchronized void close() throws IOException {
             out.close();
@@ -279,6 +498,9 @@ class PlainCLIProtocol {
             case STDIN:
                 onStdin(dis.readAllBytes());
                 return true;
+            case DEFLATED_STDIN:
+                inflate(dis, this::onStdin);
+                return true;
             case END_STDIN:
                 onEndStdin();
                 return true;
@@ -303,6 +525,31 @@ class PlainCLIProtocol {
             send(Op.EXIT, code);
         }
 
+        /**
+         * Accepts revision 2 of the protocol, which the client must have asked for.
+         * To be called before sending anything else.
+         * @param window how many bytes of stdin the client may send before they are reported as consumed by {@link #sendWindow}, or 0 for no limit
+         * @param deflate whether to deflate stdin, stdout and stderr
+         */
+        public final synchronized void sendHello(int window, boolean deflate) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(9);
+            DataOutputStream dos = new DataOutputStream(baos);
+            dos.writeInt(VERSION);
+            dos.writeInt(window);
+            dos.writeBoolean(deflate);
+            send(Op.HELLO, baos.toByteArray());
+            if (deflate) {
+                deflate();
+            }
+        }
+
+        /**
+         * Reports stdin as consumed, so that the client may send more.
+         */
+        public final void sendWindow(int consumed) throws IOException {
+            send(Op.WINDOW, consumed);
+        }
+
         public final OutputStream streamStdout() {
             return stream(Op.STDOUT);
         }
@@ -311,10 +558,32 @@ class PlainCLIProtocol {
             return stream(Op.STDERR);
         }
 
+        /**
+         * @see #coalescedStream
+         */
+        public final OutputStream streamStdout(ScheduledExecutorService timer, Executor executor) {
+            return coalescedStream(Op.STDOUT, timer, executor);
+        }
+
+        /**
+         * @see #coalescedStream
+         */
+        public final OutputStream streamStderr(ScheduledExecutorService timer, Executor executor) {
+            return coalescedStream(Op.STDERR, timer, executor);
+        }
+
     }
 
     abstract static class ClientSide extends EitherSide {
 
+        private final Object windowLock = new Object();
+
+        /** Stdin window announced by the server, or 0 for none. */
+        private int window;
+
+        /** Bytes of stdin sent but not yet reported as consumed. */
+        private long unconsumed;
+
         ClientSide(Output out) {
             super(out);
         }
@@ -332,11 +601,80 @@ class PlainCLIProtocol {
             case STDERR:
                 onStderr(dis.readAllBytes());
                 return true;
+            case HELLO:
+                onHello(dis.readInt(), dis.readInt(), dis.readBoolean());
+                return true;
+            case WINDOW:
+                onWindow(dis.readInt());
+                return true;
+            case DEFLATED_STDOUT:
+                inflate(dis, this::onStdout);
+                return true;
+            case DEFLATED_STDERR:
+                inflate(dis, this::onStderr);
+                return true;
             default:
                 return false;
             }
         }
 
+        private void onHello(int version, int window, boolean deflate) {
+            LOGGER.fine(() -> "server accepted protocol revision " + version + " with stdin window " + window + (deflate ? " and deflate" : ""));
+            synchronized (windowLock) {
+                this.window = window;
+                windowLock.notifyAll();
+            }
+            if (deflate) {
+                deflate();
+            }
+        }
+
+        /**
+         * Applies the parameters of {@link Op#HELLO} announced in {@link #HELLO_HEADER}, so that they hold from the first byte of stdin.
+         * @param header the value of the header, or null if the server did not send it, as older servers do not
+         */
+        public final void acceptHello(@CheckForNull String header) {
+            if (header == null) {
+                return;
+            }
+            String[] fields = header.trim().split(" ");
+            try {
+                if (fields.length == 3 && Integer.parseInt(fields[0]) >= VERSION) {
+                    onHello(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Boolean.parseBoolean(fields[2]));
+                    return;
+                }
+            } catch (NumberFormatException x) {
+                // ignored as below
+            }
+            LOGGER.fine(() -> "ignoring " + HELLO_HEADER + ": " + header);
+        }
+
+        private void onWindow(int consumed) {
+            synchronized (windowLock) {
+                unconsumed -= consumed;
+                windowLock.notifyAll();
+            }
+        }
+
+        /**
+         * Waits until the window allows sending some stdin.
+         * @return how many bytes may be sent
+         */
+        private int awaitWindow(int len) throws IOException {
+            synchronized (windowLock) {
+                try {
+                    while (window > 0 && unconsumed >= window) {
+                        windowLock.wait();
+                    }
+                } catch (InterruptedException x) {
+                    throw (IOException) new InterruptedIOException().initCause(x);
+                }
+                int n = window > 0 ? (int) Math.min(len, window - unconsumed) : len;
+                unconsumed += n;
+                return n;
+            }
+        }
+
         protected abstract void onExit(int code);
 
         // TODO more efficient to change signature to InputStream, then use IOUtils.copy
@@ -360,8 +698,26 @@ class PlainCLIProtocol {
             send(Op.START);
         }
 
+        /**
+         * Streams stdin, in frames of up to {@link #MAX_FRAME} bytes, within the window announced by the server if any.
+         */
         public final OutputStream streamStdin() {
-            return stream(Op.STDIN);
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] {(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                    while (len > 0) {
+                        int n = awaitWindow(Math.min(len, MAX_FRAME));
+                        send(Op.STDIN, b, off, n);
+                        off += n;
+                        len -= n;
+                    }
+                }
+            };
         }
 
         public final void sendEndStdin() throws IOException {
@@ -370,6 +726,13 @@ class PlainCLIProtocol {
 
     }
 
+    /**
+     * @return the value of {@link #HELLO_HEADER} accepting revision 2, with the same parameters as {@link ServerSide#sendHello}
+     */
+    static String hello(int window, boolean deflate) {
+        return VERSION + " " + window + " " + deflate;
+    }
+
     private PlainCLIProtocol() {}
 
 }
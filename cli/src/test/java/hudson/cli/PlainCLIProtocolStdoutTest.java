@@ -0,0 +1,161 @@
+package hudson.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks what goes over the wire for stdout written line by line by a command such as {@code console},
+ * in frames per write as originally, coalesced, and coalesced then deflated.
+ */
+public class PlainCLIProtocolStdoutTest {
+
+    private static final int LINES = 20_000;
+    private static final byte[] LINE = ("[Pipeline] sh: + ./gradlew build --info --stacktrace --no-daemon\n").getBytes(StandardCharsets.US_ASCII);
+    private static final long PAYLOAD = (long) LINES * LINE.length;
+
+    @Test
+    public void framedPerWrite() throws Exception {
+        Wire wire = stdout(false, false);
+        assertTrue(wire.frames > LINES, "one frame per write");
+    }
+
+    @Test
+    public void coalesced() throws Exception {
+        Wire wire = stdout(true, false);
+        assertTrue(wire.frames < LINES / 100, "lines are coalesced, but got " + wire.frames + " frames");
+        assertTrue(wire.bytes < PAYLOAD + PAYLOAD / 100, "little framing overhead, but sent " + wire.bytes + " bytes");
+    }
+
+    @Test
+    public void deflated() throws Exception {
+        Wire wire = stdout(true, true);
+        assertTrue(wire.bytes < PAYLOAD / 10, "repeated lines compress well, but sent " + wire.bytes + " bytes");
+    }
+
+    /**
+     * Counts the bytes and frames sent by the server, as {@link PlainCLIProtocol.FramedOutput} flushes each frame.
+     */
+    private static final class Wire extends FilterOutputStream {
+        long bytes;
+        int frames;
+
+        Wire(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            frames++;
+        }
+    }
+
+    private static Wire stdout(boolean coalesce, boolean deflate) throws Exception {
+        class Client extends PlainCLIProtocol.ClientSide {
+            long received;
+            int code = -1;
+
+            Client(OutputStream os) {
+                super(new PlainCLIProtocol.FramedOutput(os));
+            }
+
+            @Override
+            protected synchronized void onExit(int code) {
+                this.code = code;
+                notifyAll();
+            }
+
+            @Override
+            protected void onStdout(byte[] chunk) {
+                received += chunk.length;
+            }
+
+            @Override
+            protected void onStderr(byte[] chunk) {}
+
+            @Override
+            protected void handleClose() {}
+        }
+
+        class Server extends PlainCLIProtocol.ServerSide {
+            Server(OutputStream os) {
+                super(new PlainCLIProtocol.FramedOutput(os));
+            }
+
+            @Override
+            protected void onArg(String text) {}
+
+            @Override
+            protected void onLocale(String text) {}
+
+            @Override
+            protected void onEncoding(String text) {}
+
+            @Override
+            protected void onStart() {}
+
+            @Override
+            protected void onStdin(byte[] chunk) {}
+
+            @Override
+            protected void onEndStdin() {}
+
+            @Override
+            protected void handleClose() {}
+        }
+
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try (ServerSocket ss = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket clientSocket = new Socket(InetAddress.getLoopbackAddress(), ss.getLocalPort());
+             Socket serverSocket = ss.accept()) {
+            Wire wire = new Wire(serverSocket.getOutputStream());
+            Client client = new Client(clientSocket.getOutputStream());
+            Server server = new Server(wire);
+            PlainCLIProtocol.FramedReader reader = new PlainCLIProtocol.FramedReader(client, clientSocket.getInputStream());
+            reader.start();
+            if (deflate) {
+                server.sendHello(0, true);
+            }
+            OutputStream stdout = coalesce ? server.streamStdout(timer, Runnable::run) : server.streamStdout();
+            for (int i = 0; i < LINES; i++) {
+                stdout.write(LINE);
+            }
+            stdout.flush();
+            server.sendExit(0);
+            synchronized (client) {
+                while (client.code == -1) {
+                    client.wait();
+                }
+            }
+            serverSocket.shutdownOutput();
+            reader.join();
+            assertEquals(PAYLOAD, client.received);
+            return wire;
+        } finally {
+            timer.shutdown();
+        }
+    }
+}
@@ -25,13 +25,19 @@
 package hudson.cli;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import org.junit.jupiter.api.Test;
 
 public class PlainCLIProtocolTest {
@@ -163,4 +169,200 @@ public class PlainCLIProtocolTest {
         assertEquals(2, client.code);
     }
 
+    @Test
+    public void revision2() throws Exception {
+        final PipedOutputStream upload = new PipedOutputStream();
+        final PipedOutputStream download = new PipedOutputStream();
+        class Client extends PlainCLIProtocol.ClientSide {
+            int code = -1;
+            final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+
+            Client() throws IOException {
+                super(new PlainCLIProtocol.FramedOutput(upload));
+            }
+
+            @Override
+            protected synchronized void onExit(int code) {
+                this.code = code;
+                notifyAll();
+            }
+
+            @Override
+            protected synchronized void onStdout(byte[] chunk) throws IOException {
+                stdout.write(chunk);
+            }
+
+            @Override
+            protected void onStderr(byte[] chunk) throws IOException {}
+
+            @Override
+            protected void handleClose() {}
+        }
+
+        class Server extends PlainCLIProtocol.ServerSide {
+            final ByteArrayOutputStream stdin = new ByteArrayOutputStream();
+            boolean endStdin;
+
+            Server() throws IOException {
+                super(new PlainCLIProtocol.FramedOutput(download));
+            }
+
+            @Override
+            protected void onArg(String text) {}
+
+            @Override
+            protected void onLocale(String text) {}
+
+            @Override
+            protected void onEncoding(String text) {}
+
+            @Override
+            protected void onStart() {}
+
+            @Override
+            protected synchronized void onStdin(byte[] chunk) throws IOException {
+                stdin.write(chunk);
+                sendWindow(chunk.length);
+            }
+
+            @Override
+            protected synchronized void onEndStdin() {
+                endStdin = true;
+                notifyAll();
+            }
+
+            @Override
+            protected void handleClose() {}
+        }
+
+        byte[] input = new byte[100_000];
+        Arrays.fill(input, (byte) 'x');
+        Client client = new Client();
+        Server server = new Server();
+        new PlainCLIProtocol.FramedReader(client, new PipedInputStream(download)).start();
+        new PlainCLIProtocol.FramedReader(server, new PipedInputStream(upload)).start();
+        server.sendHello(1000, true);
+        client.sendStart();
+        client.streamStdin().write(input);
+        client.sendEndStdin();
+        synchronized (server) {
+            while (!server.endStdin) {
+                server.wait();
+            }
+        }
+        assertEquals(input.length, server.stdin.size());
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            OutputStream stdout = server.streamStdout(timer, Runnable::run);
+            for (int i = 0; i < 1000; i++) {
+                stdout.write("line\n".getBytes(Charset.defaultCharset()));
+            }
+            stdout.flush();
+            server.sendExit(0);
+        } finally {
+            timer.shutdown();
+        }
+        synchronized (client) {
+            while (client.code == -1) {
+                client.wait();
+            }
+        }
+        assertEquals("line\n".repeat(1000), client.stdout.toString(Charset.defaultCharset()));
+    }
+
+    @Test
+    public void stdinIsLimitedBeforeHello() throws Exception {
+        final PipedOutputStream upload = new PipedOutputStream();
+        final PipedOutputStream download = new PipedOutputStream();
+        class Client extends PlainCLIProtocol.ClientSide {
+            Client() throws IOException {
+                super(new PlainCLIProtocol.FramedOutput(upload));
+            }
+
+            @Override
+            protected void onExit(int code) {}
+
+            @Override
+            protected void onStdout(byte[] chunk) {}
+
+            @Override
+            protected void onStderr(byte[] chunk) {}
+
+            @Override
+            protected void handleClose() {}
+        }
+
+        class Server extends PlainCLIProtocol.ServerSide {
+            final ByteArrayOutputStream stdin = new ByteArrayOutputStream();
+            boolean endStdin;
+
+            Server() throws IOException {
+                // never sends HELLO, as if it had not been received yet
+                super(new PlainCLIProtocol.FramedOutput(download));
+            }
+
+            @Override
+            protected void onArg(String text) {}
+
+            @Override
+            protected void onLocale(String text) {}
+
+            @Override
+            protected void onEncoding(String text) {}
+
+            @Override
+            protected void onStart() {}
+
+            @Override
+            protected synchronized void onStdin(byte[] chunk) throws IOException {
+                stdin.write(chunk);
+                notifyAll();
+            }
+
+            @Override
+            protected synchronized void onEndStdin() {
+                endStdin = true;
+                notifyAll();
+            }
+
+            @Override
+            protected void handleClose() {}
+        }
+
+        int window = 1000;
+        Client client = new Client();
+        Server server = new Server();
+        new PlainCLIProtocol.FramedReader(client, new PipedInputStream(download)).start();
+        new PlainCLIProtocol.FramedReader(server, new PipedInputStream(upload, 1_000_000)).start();
+        client.acceptHello(PlainCLIProtocol.hello(window, true));
+        byte[] input = new byte[10 * window];
+        Arrays.fill(input, (byte) 'x');
+        Thread writer = new Thread(() -> {
+            try {
+                client.streamStdin().write(input);
+                client.sendEndStdin();
+            } catch (IOException x) {
+                throw new UncheckedIOException(x);
+            }
+        }, "stdin writer");
+        writer.start();
+        synchronized (server) {
+            while (server.stdin.size() < window) {
+                server.wait();
+            }
+        }
+        writer.join(500);
+        assertTrue(writer.isAlive(), "waits for the window even though HELLO was not received");
+        assertEquals(window, server.stdin.size());
+
+        server.sendWindow(input.length);
+        writer.join(60_000);
+        synchronized (server) {
+            while (!server.endStdin) {
+                server.wait();
+            }
+        }
+        assertEquals(input.length, server.stdin.size());
+    }
+
 }
@@ -33,8 +33,10 @@ import hudson.PluginWrapper.Dependency;
 import hudson.model.Hudson;
 import hudson.util.CyclicGraphDetector;
 import hudson.util.CyclicGraphDetector.CycleDetectedException;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.IOUtils;
 import hudson.util.MaskingClassLoader;
+import hudson.util.NamingThreadFactory;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
@@ -47,12 +49,18 @@ import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -61,6 +69,7 @@ import java.util.logging.Logger;
 import jenkins.ClassLoaderReflectionToolkit;
 import jenkins.ExtensionFilter;
 import jenkins.plugins.DetachedPluginsUtil;
+import jenkins.util.SystemProperties;
 import jenkins.util.URLClassLoader2;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
@@ -159,8 +168,7 @@ public class ClassicPluginStrategy implements PluginStrategy {
             if (archive.isDirectory()) { // already expanded
                 expandDir = archive;
             } else {
-                File f = pluginManager.getWorkDir();
-                expandDir =  new File(f == null ? archive.getParentFile() : f, getBaseName(archive.getName()));
+                expandDir = getExpandDir(archive);
                 explode(archive, expandDir);
             }
 
@@ -461,6 +469,65 @@ public class ClassicPluginStrategy implements PluginStrategy {
         }
     }
 
+    /**
+     * Directory into which the given plugin archive is expanded: under the plugin manager's work directory
+     * if one is configured, otherwise next to the archive, named after the archive without its extension.
+     */
+    private File getExpandDir(File archive) {
+        File f = pluginManager.getWorkDir();
+        return new File(f == null ? archive.getParentFile() : f, getBaseName(archive.getName()));
+    }
+
+    /**
+     * Expands the given plugin archives in parallel, ahead of {@link #createPluginWrapper(File)}
+     * which then finds them up to date.
+     * Failures are only logged, as {@link #createPluginWrapper(File)} will try again and report them.
+     */
+    void explodeAll(Collection<File> archives) throws InterruptedException {
+        Map<File, File> toExpand = new LinkedHashMap<>();
+        Set<File> clashing = new HashSet<>();
+        for (File archive : archives) {
+            if (isLinked(archive) || archive.isDirectory()) {
+                continue;
+            }
+            File expandDir = getExpandDir(archive);
+            if (toExpand.putIfAbsent(expandDir, archive) != null) {
+                // e.g. foo.hpi and foo.jpi; leave it to createPluginWrapper to process them in order
+                clashing.add(expandDir);
+            }
+        }
+        toExpand.keySet().removeAll(clashing);
+        int threads = Math.min(EXPAND_THREADS, toExpand.size());
+        if (threads <= 1) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new NamingThreadFactory(new DaemonThreadFactory(), "ClassicPluginStrategy.explode"));
+        try {
+            for (Map.Entry<File, File> e : toExpand.entrySet()) {
+                executor.submit(() -> {
+                    try {
+                        explode(e.getValue(), e.getKey());
+                    } catch (IOException | RuntimeException x) {
+                        LOGGER.log(Level.FINE, "Failed to expand " + e.getValue() + " in advance", x);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (!executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+            LOGGER.warning("Plugin expansion did not complete");
+        }
+    }
+
+    /**
+     * Number of threads used by {@link #explodeAll(Collection)}. Values of 1 or less expand plugins
+     * one at a time while inspecting them.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ int EXPAND_THREADS = SystemProperties.getInteger(ClassicPluginStrategy.class.getName() + ".expandThreads",
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     /**
      * Explodes the plugin into a directory, if necessary.
      */
@@ -630,6 +697,9 @@ public class ClassicPluginStrategy implements PluginStrategy {
         protected Class<?> findClass(String name) throws ClassNotFoundException {
             if (PluginManager.FAST_LOOKUP) {
                 for (PluginWrapper pw : getTransitiveDependencies()) {
+                    if (!pw.mayDefineClass(name)) {
+                        continue;
+                    }
                     try {
                         return ClassLoaderReflectionToolkit.loadClass(pw.classLoader, name);
                     } catch (ClassNotFoundException ignored) {
@@ -660,6 +730,9 @@ public class ClassicPluginStrategy implements PluginStrategy {
 
             if (PluginManager.FAST_LOOKUP) {
                     for (PluginWrapper pw : getTransitiveDependencies()) {
+                        if (!pw.mayDefineResource(name)) {
+                            continue;
+                        }
                         Enumeration<URL> urls = ClassLoaderReflectionToolkit._findResources(pw.classLoader, name);
                         while (urls != null && urls.hasMoreElements())
                             result.add(urls.nextElement());
@@ -682,6 +755,9 @@ public class ClassicPluginStrategy implements PluginStrategy {
         protected URL findResource(String name) {
             if (PluginManager.FAST_LOOKUP) {
                     for (PluginWrapper pw : getTransitiveDependencies()) {
+                        if (!pw.mayDefineResource(name)) {
+                            continue;
+                        }
                         URL url = ClassLoaderReflectionToolkit._findResource(pw.classLoader, name);
                         if (url != null)    return url;
                     }
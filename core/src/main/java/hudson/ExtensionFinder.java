@@ -469,6 +469,12 @@ public abstract class ExtensionFinder implements ExtensionPoint {
         private class SezpozModule extends AbstractModule implements ProvisionListener {
             private final List<IndexItem<?, Object>> index;
             private final List<IndexItem<?, Object>> loadedIndex;
+            /**
+             * Classes (along with their superclasses) already checked by {@link #resolve(Class)}.
+             * Many extensions share deep hierarchies such as {@link Descriptor} subtypes,
+             * so this avoids repeating the reflection on common supertypes for each of them.
+             */
+            private final Set<Class<?>> resolved = new HashSet<>();
 
             SezpozModule(List<IndexItem<?, Object>> index) {
                 this.index = index;
@@ -495,8 +501,10 @@ public abstract class ExtensionFinder implements ExtensionPoint {
                 if (!encountered.add(c)) {
                     return;
                 }
+                List<Class<?>> checked = new ArrayList<>();
                 try {
-                    for (Class<?> cc = c; cc != Object.class && cc != null; cc = cc.getSuperclass()) {
+                    for (Class<?> cc = c; cc != Object.class && cc != null && !resolved.contains(cc); cc = cc.getSuperclass()) {
+                        checked.add(cc);
                         /*
                          * See {@link com.google.inject.spi.InjectionPoint#getInjectionPoints(TypeLiteral, boolean, Errors)}
                          */
@@ -551,6 +559,7 @@ public abstract class ExtensionFinder implements ExtensionPoint {
                             }
                         }
                     }
+                    resolved.addAll(checked);
                     LOGGER.log(Level.FINER, "{0} looks OK", c);
                 } catch (RuntimeException x) {
                     throw new LinkageError("Failed to resolve " + c, x);
@@ -48,6 +48,8 @@ import java.util.logging.Logger;
 import jenkins.ExtensionComponentSet;
 import jenkins.model.Jenkins;
 import jenkins.util.io.OnMaster;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Retains the known extension instances for the given type 'T'.
@@ -325,6 +327,15 @@ public class ExtensionList<T> extends AbstractList<T> implements OnMaster {
         }
     }
 
+    /**
+     * Whether the extensions were already discovered.
+     * Until then, this list only shows the manually registered legacy instances.
+     */
+    @Restricted(NoExternalUse.class)
+    public boolean isLoaded() {
+        return extensions != null;
+    }
+
     /**
      * Chooses the object that locks the loading of the extension instances.
      */
@@ -54,7 +54,6 @@ import hudson.remoting.Which;
 import hudson.security.AccessControlled;
 import hudson.slaves.WorkspaceList;
 import hudson.tasks.ArtifactArchiver;
-import hudson.util.DaemonThreadFactory;
 import hudson.util.DirScanner;
 import hudson.util.ExceptionCatchingThreadFactory;
 import hudson.util.FileVisitor;
@@ -112,7 +111,6 @@ import java.util.Objects;
 import java.util.StringTokenizer;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -130,6 +128,7 @@ import jenkins.security.MasterToSlaveCallable;
 import jenkins.util.ContextResettingExecutorService;
 import jenkins.util.SystemProperties;
 import jenkins.util.VirtualFile;
+import jenkins.util.VirtualThreads;
 import org.apache.commons.fileupload2.core.FileItem;
 import org.apache.commons.io.input.CountingInputStream;
 import org.apache.tools.ant.BuildException;
@@ -3675,9 +3674,9 @@ public final class FilePath implements SerializableOnlyOverRemoting {
     }
 
     private static final ExecutorService threadPoolForRemoting = new ContextResettingExecutorService(
-            Executors.newCachedThreadPool(
+            VirtualThreads.newCachedThreadPool(
                     new ExceptionCatchingThreadFactory(
-                            new NamingThreadFactory(new DaemonThreadFactory(), "FilePath.localPool"))
+                            new NamingThreadFactory(VirtualThreads.daemonThreadFactory(), "FilePath.localPool"))
             ));
 
 
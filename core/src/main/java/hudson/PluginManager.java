@@ -463,6 +463,11 @@ public abstract class PluginManager extends AbstractModelObject implements OnMas
 
                             final Map<String, File> inspectedShortNames = new HashMap<>();
 
+                            if (strategy instanceof ClassicPluginStrategy) {
+                                // expanding archives dominates inspection after upgrades, and unlike inspection it can run in parallel
+                                ((ClassicPluginStrategy) strategy).explodeAll(archives);
+                            }
+
                             for (final File arc : archives) {
                                 g.followedBy().notFatal().attains(PLUGINS_LISTED).add("Inspecting plugin " + arc, new Executable() {
                                     @Override
@@ -2418,6 +2423,9 @@ public abstract class PluginManager extends AbstractModelObject implements OnMas
             for (PluginWrapper p : activePlugins) {
                 try {
                     if (FAST_LOOKUP) {
+                        if (!p.mayDefineClass(name)) {
+                            continue;
+                        }
                         return Optional.of(ClassLoaderReflectionToolkit.loadClass(p.classLoader, name));
                     } else {
                         return Optional.of(p.classLoader.loadClass(name));
@@ -2435,6 +2443,9 @@ public abstract class PluginManager extends AbstractModelObject implements OnMas
             for (PluginWrapper p : activePlugins) {
                 URL url;
                 if (FAST_LOOKUP) {
+                    if (!p.mayDefineResource(name)) {
+                        continue;
+                    }
                     url = ClassLoaderReflectionToolkit._findResource(p.classLoader, name);
                 } else {
                     url = p.classLoader.getResource(name);
@@ -2451,6 +2462,9 @@ public abstract class PluginManager extends AbstractModelObject implements OnMas
             List<URL> resources = new ArrayList<>();
             for (PluginWrapper p : activePlugins) {
                 if (FAST_LOOKUP) {
+                    if (!p.mayDefineResource(name)) {
+                        continue;
+                    }
                     resources.addAll(Collections.list(ClassLoaderReflectionToolkit._findResources(p.classLoader, name)));
                 } else {
                     resources.addAll(Collections.list(p.classLoader.getResources(name)));
@@ -36,6 +36,7 @@ import static org.apache.commons.io.FilenameUtils.getBaseName;
 import com.google.common.collect.Sets;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.PluginManager.PluginInstanceStore;
 import hudson.model.AdministrativeMonitor;
 import hudson.model.Api;
@@ -47,10 +48,12 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -61,17 +64,21 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import jenkins.YesNoMaybe;
 import jenkins.model.Jenkins;
 import jenkins.plugins.DetachedPluginsUtil;
 import jenkins.security.UpdateSiteWarningsMonitor;
+import jenkins.util.SystemProperties;
 import jenkins.util.URLClassLoader2;
 import org.apache.commons.logging.LogFactory;
 import org.kohsuke.accmod.Restricted;
@@ -134,6 +141,12 @@ public class PluginWrapper implements Comparable<PluginWrapper>, ModelObject {
      */
     public final ClassLoader classLoader;
 
+    /**
+     * Directories of all the entries in the jars and class directories of {@link #classLoader},
+     * or empty if they could not be determined. Lazily computed by {@link #mayDefineResource(String)}.
+     */
+    private volatile Optional<Set<String>> resourceDirectories;
+
     /**
      * Base URL for loading static resources from this plugin.
      * Null if disabled. The static resources are mapped under
@@ -417,6 +430,7 @@ public class PluginWrapper implements Comparable<PluginWrapper>, ModelObject {
                 LOGGER.log(Level.CONFIG, () -> "Inserting " + f + " into " + shortName + " plugin's classpath");
                 ((URLClassLoader2) classLoader).addURL(f.toURI().toURL());
             }
+            resourceDirectories = null;
         } else {
             throw new AssertionError("PluginWrapper classloader has changed type, but this code has not been updated accordingly");
         }
@@ -1405,6 +1419,96 @@ public class PluginWrapper implements Comparable<PluginWrapper>, ModelObject {
         return null;
     }
 
+    /**
+     * Whether {@link #classLoader} itself, disregarding its parents, may define the given class.
+     * Used to skip class loaders that cannot possibly have it.
+     */
+    boolean mayDefineClass(@NonNull String className) {
+        int idx = className.lastIndexOf('.');
+        return mayDefineIn(idx < 0 ? "" : className.substring(0, idx).replace('.', '/'));
+    }
+
+    /**
+     * Whether {@link #classLoader} itself, disregarding its parents, may find the given resource.
+     * Only returns false if the contents of its jars and class directories rule it out.
+     */
+    boolean mayDefineResource(@NonNull String name) {
+        int idx = name.lastIndexOf('/');
+        return mayDefineIn(idx < 0 ? "" : name.substring(0, idx));
+    }
+
+    private boolean mayDefineIn(String directory) {
+        if (!INDEX_RESOURCES) {
+            return true;
+        }
+        Optional<Set<String>> dirs = resourceDirectories;
+        if (dirs == null) {
+            resourceDirectories = dirs = listResourceDirectories(classLoader);
+        }
+        return dirs.isEmpty() || dirs.get().contains(directory);
+    }
+
+    private static Optional<Set<String>> listResourceDirectories(ClassLoader cl) {
+        if (!(cl instanceof URLClassLoader)) {
+            return Optional.empty();
+        }
+        Set<String> dirs = new HashSet<>();
+        for (URL url : ((URLClassLoader) cl).getURLs()) {
+            if (!"file".equals(url.getProtocol())) {
+                return Optional.empty();
+            }
+            try {
+                Path path = Path.of(url.toURI());
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> files = Files.walk(path)) {
+                        files.filter(Files::isRegularFile).forEach(f ->
+                            addDirectory(dirs, path.relativize(f).toString().replace(File.separatorChar, '/')));
+                    }
+                } else if (Files.isRegularFile(path)) {
+                    try (JarFile jar = new JarFile(path.toFile())) {
+                        Enumeration<JarEntry> entries = jar.entries();
+                        while (entries.hasMoreElements()) {
+                            String name = entries.nextElement().getName();
+                            if (name.startsWith("META-INF/versions/")) {
+                                // multi-release JAR: the versioned entry may be served under its unversioned name
+                                int versionEnd = name.indexOf('/', "META-INF/versions/".length());
+                                if (versionEnd > 0) {
+                                    addDirectory(dirs, name.substring(versionEnd + 1));
+                                }
+                            }
+                            addDirectory(dirs, name);
+                        }
+                    }
+                }
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Cannot index " + url + ", will not skip " + cl, e);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(dirs);
+    }
+
+    /**
+     * Records every ancestor directory of the given entry, since directories can themselves be looked up as resources,
+     * with or without a trailing slash, and jars need not contain explicit directory entries.
+     */
+    private static void addDirectory(Set<String> dirs, String entryName) {
+        String dir = entryName;
+        for (int idx = dir.lastIndexOf('/'); idx >= 0; idx = dir.lastIndexOf('/')) {
+            dir = dir.substring(0, idx);
+            if (!dirs.add(dir)) {
+                return; // its ancestors were recorded along with it
+            }
+        }
+        dirs.add("");
+    }
+
+    /**
+     * Set to true to disable skipping plugin class loaders based on the contents of their jars.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ boolean INDEX_RESOURCES = !SystemProperties.getBoolean(PluginWrapper.class.getName() + ".noResourceIndex");
+
     private static final Logger LOGGER = Logger.getLogger(PluginWrapper.class.getName());
 
     /**
@@ -27,6 +27,7 @@ package hudson;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.slaves.OfflineCause;
+import hudson.util.NamingThreadFactory;
 import hudson.util.VersionNumber;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
@@ -35,18 +36,38 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.SequenceInputStream;
 import java.net.BindException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.SocketException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.AgentProtocol;
@@ -55,7 +76,7 @@ import jenkins.model.identity.InstanceIdentityProvider;
 import jenkins.security.stapler.StaplerAccessibleType;
 import jenkins.slaves.RemotingVersionInfo;
 import jenkins.util.SystemProperties;
-import org.apache.commons.io.IOUtils;
+import jenkins.util.VirtualThreads;
 import org.jenkinsci.Symbol;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -72,6 +93,8 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
  * <p>
  * This class accepts the socket, then after a short handshaking, it dispatches to appropriate
  * {@link AgentProtocol}s.
+ * The handshake is read without blocking, by a single thread for all connections,
+ * and protocols are then run on a bounded pool of threads, so that mass reconnections do not create a thread each.
  *
  * @author Kohsuke Kawaguchi
  * @see AgentProtocol
@@ -84,6 +107,20 @@ public final class TcpSlaveAgentListener extends Thread {
 
     public final int configuredPort;
 
+    /**
+     * Runs the {@link AgentProtocol} of connections whose header has been read.
+     */
+    private final ThreadPoolExecutor handlers;
+
+    private final Handshakes handshakes;
+
+    private final RateLimiter rateLimiter = new RateLimiter();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
     /**
      * @param port
      *      Use 0 to choose a random port.
@@ -92,6 +129,11 @@ public final class TcpSlaveAgentListener extends Thread {
         super("TCP agent listener port=" + port);
         serverSocket = createSocket(port);
         this.configuredPort = port;
+        handlers = new ThreadPoolExecutor(HANDLER_THREADS, HANDLER_THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(HANDLER_QUEUE),
+                new NamingThreadFactory(VirtualThreads.daemonThreadFactory(), "TCP agent connection handler"));
+        handlers.allowCoreThreadTimeOut(true);
+        handshakes = new Handshakes();
+        handshakes.start();
         setUncaughtExceptionHandler((t, e) -> {
             LOGGER.log(Level.SEVERE, "Uncaught exception in TcpSlaveAgentListener " + t, e);
             shutdown();
@@ -176,7 +218,8 @@ public final class TcpSlaveAgentListener extends Thread {
         // the loop eventually terminates when the thread shuts down
         while (!shuttingDown) {
             try {
-                Socket s = serverSocket.accept().socket();
+                SocketChannel ch = serverSocket.accept();
+                Socket s = ch.socket();
 
                 // this prevents a connection from silently terminated by the router in between or the other peer
                 // and that goes without unnoticed. However, the time out is often very long (for example 2 hours
@@ -185,7 +228,14 @@ public final class TcpSlaveAgentListener extends Thread {
                 // we take care of buffering on our own
                 s.setTcpNoDelay(true);
 
-                new ConnectionHandler(s).start();
+                accepted.increment();
+                if (!rateLimiter.admit(s.getInetAddress())) {
+                    throttled.increment();
+                    LOGGER.log(Level.FINE, "Rejecting connection from {0}: too many connections from this address", s.getRemoteSocketAddress());
+                    s.close();
+                    continue;
+                }
+                handshakes.add(ch);
             } catch (Throwable e) {
                 if (!shuttingDown) {
                     LOGGER.log(Level.SEVERE, "Failed to accept TCP connections", e);
@@ -203,6 +253,60 @@ public final class TcpSlaveAgentListener extends Thread {
         }
     }
 
+    /**
+     * @return the number of connections accepted so far, including those rejected afterwards
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public long getAcceptedConnections() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return the number of connections closed because too many connections were waiting to be handled
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public long getRejectedConnections() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of connections closed because their address exceeded {@link #PER_SOURCE_RATE}
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public long getThrottledConnections() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return the number of connections closed because they did not send a header within {@link #HANDSHAKE_TIMEOUT}
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public long getTimedOutConnections() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return the number of connections whose header is being read
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public int getPendingHandshakes() {
+        return handshakes.pending.get();
+    }
+
+    /**
+     * @return the number of connections being handled or waiting for a handler thread
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    public int getQueuedConnections() {
+        return handlers.getActiveCount() + handlers.getQueue().size();
+    }
+
     /**
      * Initiates the shuts down of the listener.
      */
@@ -224,55 +328,337 @@ public final class TcpSlaveAgentListener extends Thread {
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Failed to close down TCP port", e);
         }
+        handshakes.shutdown();
+        handlers.shutdown();
     }
 
-    private final class ConnectionHandler extends Thread {
+    /**
+     * Reads the header of new connections on a single thread using a {@link Selector},
+     * then hands them over to {@link #handlers} to run the {@link AgentProtocol}.
+     * HTTP requests are answered on this thread, so that idle clients cannot hold up handlers.
+     */
+    private final class Handshakes extends Thread {
         private static final String DEFAULT_RESPONSE_404 = "HTTP/1.0 404 Not Found\r\n" +
                         "Content-Type: text/plain;charset=UTF-8\r\n" +
                         "\r\n" +
                         "Not Found\r\n";
+        private final Selector selector;
+        private final Queue<SocketChannel> incoming = new ConcurrentLinkedQueue<>();
+        /**
+         * Connections whose header is complete, to be handed over once their key is deregistered.
+         */
+        private final List<Handshake> complete = new ArrayList<>();
+        /**
+         * Receives what HTTP clients send after their request line.
+         */
+        private final ByteBuffer discard = ByteBuffer.allocate(4096);
+        final AtomicInteger pending = new AtomicInteger();
+        private long lastExpiry;
+
+        Handshakes() throws IOException {
+            super("TCP agent listener handshakes port=" + configuredPort);
+            setDaemon(true);
+            selector = Selector.open();
+        }
+
+        void add(SocketChannel ch) throws IOException {
+            if (pending.incrementAndGet() > MAX_PENDING_HANDSHAKES) {
+                pending.decrementAndGet();
+                rejected.increment();
+                LOGGER.log(Level.FINE, "Rejecting connection from {0}: too many pending handshakes", ch.getRemoteAddress());
+                ch.close();
+                return;
+            }
+            incoming.add(ch);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (selector.isOpen()) {
+                try {
+                    // a channel must be deregistered, which happens on the next selection, before it can block again
+                    if (complete.isEmpty()) {
+                        selector.select(1000);
+                    } else {
+                        selector.selectNow();
+                    }
+                    for (Handshake h : complete) {
+                        dispatch(h);
+                    }
+                    complete.clear();
+                    SocketChannel ch;
+                    while ((ch = incoming.poll()) != null) {
+                        register(ch);
+                    }
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Handshake h = (Handshake) key.attachment();
+                        if (h.response != null) {
+                            respondHello(h);
+                        } else {
+                            read(h);
+                        }
+                    }
+                    expire();
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Failure in TCP agent listener handshakes", e);
+                }
+            }
+        }
+
+        private void register(SocketChannel ch) {
+            try {
+                ch.configureBlocking(false);
+                Handshake h = new Handshake(ch);
+                h.key = ch.register(selector, SelectionKey.OP_READ, h);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to register connection", e);
+                close(ch);
+            }
+        }
+
+        /**
+         * Reads exactly the header, leaving the rest to the protocol.
+         */
+        private void read(Handshake h) {
+            try {
+                if (h.channel.read(h.buffer) < 0) {
+                    throw new EOFException("Connection closed before sending a header");
+                }
+                if (h.buffer.hasRemaining()) {
+                    return;
+                }
+                if (h.buffer.capacity() == HEADER_PEEK) {
+                    byte[] head = h.buffer.array();
+                    String header = new String(head, StandardCharsets.US_ASCII);
+                    if (header.startsWith("GET ")) {
+                        // this looks like an HTTP client
+                        h.response = ByteBuffer.wrap(hello(header, h.channel.socket()));
+                        h.key.interestOps(SelectionKey.OP_WRITE);
+                        return;
+                    } else {
+                        // length of the UTF string that follows
+                        int length = 2 + (((head[0] & 0xff) << 8) | (head[1] & 0xff));
+                        if (length > MAX_HEADER) {
+                            throw new IOException("Header of " + length + " bytes is too long");
+                        }
+                        if (length > HEADER_PEEK) {
+                            h.buffer = ByteBuffer.allocate(length).put(head);
+                            return;
+                        }
+                    }
+                }
+                h.key.cancel();
+                complete.add(h);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, e, () -> "Handshake with " + h.channel.socket().getRemoteSocketAddress() + " failed");
+                abort(h);
+            }
+        }
+
+        /**
+         * Respond to HTTP request with simple diagnostics.
+         * Primarily used to test the low-level connectivity.
+         */
+        private byte[] hello(String header, Socket s) {
+            String response;
+            if (header.startsWith("GET / ")) {
+                response = "HTTP/1.0 200 OK\r\n" +
+                        "Content-Type: text/plain;charset=UTF-8\r\n" +
+                        "X-Content-Type-Options: nosniff\r\n" +
+                        "\r\n" +
+                        "Jenkins-Agent-Protocols: " + getAgentProtocolNames() + "\r\n" +
+                        "Jenkins-Version: " + Jenkins.VERSION + "\r\n" +
+                        "Jenkins-Session: " + Jenkins.SESSION_HASH + "\r\n" +
+                        "Client: " + s.getInetAddress().getHostAddress() + "\r\n" +
+                        "Server: " + s.getLocalAddress().getHostAddress() + "\r\n" +
+                        "Remoting-Minimum-Version: " + getRemotingMinimumVersion() + "\r\n";
+            } else {
+                response = DEFAULT_RESPONSE_404;
+            }
+            return response.getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Writes the HTTP response, then discards what the client sends until it closes the connection,
+         * so that it is not reset before the client read the response.
+         */
+        private void respondHello(Handshake h) {
+            try {
+                if (h.response.hasRemaining()) {
+                    h.channel.write(h.response);
+                    if (h.response.hasRemaining()) {
+                        return;
+                    }
+                    h.channel.shutdownOutput();
+                    h.key.interestOps(SelectionKey.OP_READ);
+                }
+                int n;
+                while ((n = h.channel.read(discard.clear())) > 0) {
+                    h.discarded += n;
+                    if (h.discarded > MAX_HEADER) {
+                        throw new IOException("HTTP client sent more than " + MAX_HEADER + " bytes");
+                    }
+                }
+                if (n < 0) {
+                    abort(h);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, e, () -> "Responding to " + h.channel.socket().getRemoteSocketAddress() + " failed");
+                abort(h);
+            }
+        }
+
+        private void abort(Handshake h) {
+            h.key.cancel();
+            pending.decrementAndGet();
+            close(h.channel);
+        }
+
+        private void dispatch(Handshake h) {
+            pending.decrementAndGet();
+            try {
+                h.channel.configureBlocking(true);
+                handlers.execute(new ConnectionHandler(h.channel.socket(), h.buffer.array()));
+            } catch (IOException | RejectedExecutionException e) {
+                rejected.increment();
+                LOGGER.log(Level.FINE, e, () -> "Rejecting connection from " + h.channel.socket().getRemoteSocketAddress());
+                close(h.channel);
+            }
+        }
+
+        private void expire() {
+            long now = System.nanoTime();
+            if (now - lastExpiry < TimeUnit.SECONDS.toNanos(1)) {
+                return;
+            }
+            lastExpiry = now;
+            rateLimiter.prune();
+            for (SelectionKey key : selector.keys()) {
+                Handshake h = (Handshake) key.attachment();
+                if (key.isValid() && now - h.started > HANDSHAKE_TIMEOUT_NANOS) {
+                    if (h.response == null) {
+                        timedOut.increment();
+                        LOGGER.log(Level.FINE, "Connection from {0} did not send a header in time", h.channel.socket().getRemoteSocketAddress());
+                    }
+                    abort(h);
+                }
+            }
+        }
+
+        void shutdown() {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    close((SocketChannel) key.channel());
+                }
+                selector.close();
+            } catch (IOException | ClosedSelectorException | ConcurrentModificationException e) {
+                LOGGER.log(Level.FINE, "Failed to close handshake selector", e);
+            }
+        }
+
+        private static void close(SocketChannel ch) {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static final class Handshake {
+        final SocketChannel channel;
+        final long started = System.nanoTime();
+        SelectionKey key;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_PEEK);
+        /**
+         * The rest of the response to an HTTP client, if this is one.
+         */
+        ByteBuffer response;
+        int discarded;
+
+        Handshake(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Token bucket per source address.
+     */
+    private static final class RateLimiter {
+        private final Map<InetAddress, double[]> buckets = new HashMap<>();
+
+        synchronized boolean admit(InetAddress address) {
+            if (PER_SOURCE_RATE <= 0 || address == null) {
+                return true;
+            }
+            long now = System.nanoTime();
+            double burst = Math.max(1, PER_SOURCE_BURST);
+            // tokens, last refill
+            double[] b = buckets.computeIfAbsent(address, k -> new double[] {burst, now});
+            b[0] = Math.min(burst, b[0] + (now - b[1]) / 1e9 * PER_SOURCE_RATE);
+            b[1] = now;
+            if (b[0] < 1) {
+                return false;
+            }
+            b[0]--;
+            return true;
+        }
+
+        /**
+         * Forgets addresses whose bucket has refilled.
+         */
+        synchronized void prune() {
+            long now = System.nanoTime();
+            buckets.values().removeIf(b -> (now - b[1]) / 1e9 * PER_SOURCE_RATE >= Math.max(1, PER_SOURCE_BURST));
+        }
+    }
+
+    private final class ConnectionHandler implements Runnable {
         private final Socket s;
+        /**
+         * The header already read from {@link #s}.
+         */
+        private final byte[] head;
         /**
          * Unique number to identify this connection. Used in the log.
          */
         private final int id;
 
-        ConnectionHandler(Socket s) {
+        ConnectionHandler(Socket s, byte[] head) {
             this.s = s;
+            this.head = head;
             synchronized (getClass()) {
                 id = iotaGen++;
             }
-            setName("TCP agent connection handler #" + id + " with " + s.getRemoteSocketAddress());
         }
 
         @Override
         public void run() {
             String connectionInfo = "#" + id + " from " + s.getRemoteSocketAddress();
+            Thread t = Thread.currentThread();
+            String oldName = t.getName();
+            t.setName("TCP agent connection handler #" + id + " with " + s.getRemoteSocketAddress());
             try {
                 LOGGER.log(Level.FINE, () -> "Accepted connection " + connectionInfo);
 
-                DataInputStream in = new DataInputStream(s.getInputStream());
-
-                // peek the first few bytes to determine what to do with this client
-                byte[] head = new byte[10];
-                in.readFully(head);
-
-                String header = new String(head, StandardCharsets.US_ASCII);
-                if (header.startsWith("GET ")) {
-                    // this looks like an HTTP client
-                    respondHello(header, s);
-                    return;
-                }
-
-                // otherwise assume this is AgentProtocol and start from the beginning
-                String s = new DataInputStream(new SequenceInputStream(new ByteArrayInputStream(head), in)).readUTF();
+                // HTTP clients were answered by the handshake thread, so this is an AgentProtocol
+                String s = new DataInputStream(new ByteArrayInputStream(head)).readUTF();
 
                 if (s.startsWith("Protocol:")) {
                     String protocol = s.substring(9);
                     AgentProtocol p = AgentProtocol.of(protocol);
                     if (p != null) {
                         LOGGER.log(p instanceof PingAgentProtocol ? Level.FINE : Level.INFO, () -> "Accepted " + protocol + " connection " + connectionInfo);
+                        // a protocol blocked reading from a silent peer would otherwise hold this handler forever
+                        this.s.setSoTimeout(PROTOCOL_HANDLE_TIMEOUT_MILLIS);
                         p.handle(this.s);
+                        resetTimeout();
                     } else {
                         error("Unknown protocol:", this.s);
                     }
@@ -297,40 +683,21 @@ public final class TcpSlaveAgentListener extends Thread {
                 } catch (IOException ex) {
                     // try to clean up the socket
                 }
+            } finally {
+                t.setName(oldName);
             }
         }
 
         /**
-         * Respond to HTTP request with simple diagnostics.
-         * Primarily used to test the low-level connectivity.
+         * Lets the connection, which usually outlives {@link AgentProtocol#handle}, wait for data indefinitely.
          */
-        private void respondHello(String header, Socket s) throws IOException {
-            try (s) {
-                DataOutputStream out = new DataOutputStream(s.getOutputStream());
-                String response;
-                if (header.startsWith("GET / ")) {
-                    response = "HTTP/1.0 200 OK\r\n" +
-                            "Content-Type: text/plain;charset=UTF-8\r\n" +
-                            "X-Content-Type-Options: nosniff\r\n" +
-                            "\r\n" +
-                            "Jenkins-Agent-Protocols: " + getAgentProtocolNames() + "\r\n" +
-                            "Jenkins-Version: " + Jenkins.VERSION + "\r\n" +
-                            "Jenkins-Session: " + Jenkins.SESSION_HASH + "\r\n" +
-                            "Client: " + s.getInetAddress().getHostAddress() + "\r\n" +
-                            "Server: " + s.getLocalAddress().getHostAddress() + "\r\n" +
-                            "Remoting-Minimum-Version: " + getRemotingMinimumVersion() + "\r\n";
-                } else {
-                    response = DEFAULT_RESPONSE_404;
-                }
-                out.write(response.getBytes(StandardCharsets.UTF_8));
-                out.flush();
-                s.shutdownOutput();
-
-                InputStream i = s.getInputStream();
-                try (OutputStream o = OutputStream.nullOutputStream()) {
-                    IOUtils.copy(i, o);
+        private void resetTimeout() {
+            try {
+                if (!s.isClosed()) {
+                    s.setSoTimeout(0);
                 }
-                s.shutdownInput();
+            } catch (SocketException e) {
+                // closed in the meantime
             }
         }
 
@@ -444,4 +811,66 @@ public final class TcpSlaveAgentListener extends Thread {
     @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Accessible via System Groovy Scripts")
     @Restricted(NoExternalUse.class)
     public static Integer CLI_PORT = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".port");
+
+    /**
+     * Number of threads running {@link AgentProtocol#handle}.
+     */
+    private static final int HANDLER_THREADS = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".handlerThreads", 16);
+
+    /**
+     * Number of connections waiting for a handler thread, beyond which new connections are closed.
+     */
+    private static final int HANDLER_QUEUE = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".handlerQueue", 1000);
+
+    /**
+     * Number of connections whose header is being read, beyond which new connections are closed.
+     */
+    private static final int MAX_PENDING_HANDSHAKES = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".maxPendingHandshakes", 2000);
+
+    /**
+     * Time allowed to a connection to send its header.
+     */
+    private static final long HANDSHAKE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".handshakeTimeoutSeconds", 30));
+
+    /**
+     * Time {@link AgentProtocol#handle} may block reading from the connection.
+     */
+    private static final int PROTOCOL_HANDLE_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".protocolHandleTimeoutSeconds", 60));
+
+    /**
+     * Connections per second allowed from a single address, or 0 for no limit.
+     * Off by default as many agents may connect from behind the same NAT.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Accessible via System Groovy Scripts")
+    @Restricted(NoExternalUse.class)
+    public static double PER_SOURCE_RATE = getPerSourceRate();
+
+    /**
+     * Parses {@link #PER_SOURCE_RATE}, which may be below 1 per second.
+     */
+    private static double getPerSourceRate() {
+        String name = TcpSlaveAgentListener.class.getName() + ".perSourceRate";
+        String value = SystemProperties.getString(name, "0");
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            // LOGGER is not initialized yet
+            Logger.getLogger(TcpSlaveAgentListener.class.getName()).warning(() -> "Ignoring invalid " + name + "=" + value);
+            return 0;
+        }
+    }
+
+    /**
+     * Connections allowed in a burst from a single address when {@link #PER_SOURCE_RATE} is set.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Accessible via System Groovy Scripts")
+    @Restricted(NoExternalUse.class)
+    public static int PER_SOURCE_BURST = SystemProperties.getInteger(TcpSlaveAgentListener.class.getName() + ".perSourceBurst", 20);
+
+    /**
+     * Bytes read to tell HTTP requests from agent protocols.
+     */
+    private static final int HEADER_PEEK = 10;
+
+    private static final int MAX_HEADER = 1024;
 }
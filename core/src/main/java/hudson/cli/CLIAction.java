@@ -25,13 +25,16 @@
 package hudson.cli;
 
 import hudson.Extension;
+import hudson.model.Computer;
 import hudson.model.UnprotectedRootAction;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
@@ -45,11 +48,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 import jenkins.util.FullDuplexHttpService;
 import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 import jenkins.websocket.WebSocketSession;
 import jenkins.websocket.WebSockets;
 import org.jenkinsci.Symbol;
@@ -80,6 +86,11 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
      */
     /* package-private for testing */ static /* non-final for Script Console */ Boolean ALLOW_WEBSOCKET = SystemProperties.optBoolean(CLIAction.class.getName() + ".ALLOW_WEBSOCKET");
 
+    /**
+     * Size of the stdin buffer of each command, which clients supporting it do not send more than ahead of the command.
+     */
+    static final int STDIN_WINDOW = SystemProperties.getInteger(CLIAction.class.getName() + ".stdinWindow", 256 * 1024);
+
     private final transient Map<UUID, FullDuplexHttpService> duplexServices = new HashMap<>();
 
     @Override
@@ -161,13 +172,20 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
             return statusWithExplanation(HttpServletResponse.SC_FORBIDDEN, "WebSocket support for CLI disabled for this controller");
         }
         Authentication authentication = Jenkins.getAuthentication2();
-        return WebSockets.upgrade(new WebSocketSession() {
+        String version = req.getParameter(PlainCLIProtocol.VERSION_PARAMETER);
+        String compress = req.getParameter(PlainCLIProtocol.COMPRESS_PARAMETER);
+        HttpResponse upgrade = WebSockets.upgrade(new WebSocketSession() {
             ServerSideImpl connection;
             long sentBytes, sentCount, receivedBytes, receivedCount;
             class OutputImpl implements PlainCLIProtocol.Output {
                 @Override
                 public void send(byte[] data) throws IOException {
-                    sendBinary(ByteBuffer.wrap(data));
+                    try {
+                        awaitWritable(5, TimeUnit.MINUTES);
+                    } catch (InterruptedException x) {
+                        throw (IOException) new InterruptedIOException().initCause(x);
+                    }
+                    queueBinary(ByteBuffer.wrap(data));
                     sentBytes += data.length;
                     sentCount++;
                 }
@@ -186,6 +204,7 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
             protected void opened() {
                 try {
                     connection = new ServerSideImpl(new OutputImpl(), authentication);
+                    connection.negotiate(version, compress);
                 } catch (IOException x) {
                     error(x);
                     return;
@@ -226,6 +245,31 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
                 connection.handleClose();
             }
         });
+        return new HttpResponse() {
+            @Override
+            public void generateResponse(StaplerRequest2 req, StaplerResponse2 rsp, Object node) throws IOException, ServletException {
+                announce(version, compress, rsp);
+                upgrade.generateResponse(req, rsp, node);
+            }
+        };
+    }
+
+    /**
+     * Announces revision 2 of {@link PlainCLIProtocol} in the response headers if the client asked for it,
+     * so that the client knows the stdin window and whether to deflate before sending any stdin.
+     */
+    private static void announce(String version, String compress, HttpServletResponse rsp) {
+        if (isRevision2(version)) {
+            rsp.setHeader(PlainCLIProtocol.HELLO_HEADER, PlainCLIProtocol.hello(STDIN_WINDOW, "true".equals(compress)));
+        }
+    }
+
+    private static boolean isRevision2(String version) {
+        try {
+            return version != null && Integer.parseInt(version) >= 2;
+        } catch (NumberFormatException x) {
+            return false;
+        }
     }
 
     @Override
@@ -250,16 +294,67 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
         private final List<String> args = new ArrayList<>();
         private Locale locale = Locale.getDefault();
         private Charset encoding = Charset.defaultCharset();
-        private final PipedInputStream stdin = new PipedInputStream();
+        private final PipedInputStream stdinPipe = new PipedInputStream(STDIN_WINDOW);
+        /**
+         * The stdin of the command, which reports what it reads from {@link #stdinPipe}.
+         * Wraps rather than extends the pipe, whose bulk reads call {@link PipedInputStream#read()},
+         * so that each byte is counted once and reported without holding the lock of the pipe.
+         */
+        final InputStream stdin = new FilterInputStream(stdinPipe) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b != -1) {
+                    consumed(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = in.read(b, off, len);
+                if (n > 0) {
+                    consumed(n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = in.skip(n);
+                if (skipped > 0) {
+                    consumed((int) skipped);
+                }
+                return skipped;
+            }
+        };
         private final PipedOutputStream stdinMatch = new PipedOutputStream();
         private final Authentication authentication;
+        private volatile boolean windowed;
+        private final AtomicInteger consumed = new AtomicInteger();
 
         ServerSideImpl(PlainCLIProtocol.Output out, Authentication authentication) throws IOException {
             super(out);
-            stdinMatch.connect(stdin);
+            stdinMatch.connect(stdinPipe);
             this.authentication = authentication;
         }
 
+        /**
+         * Accepts the protocol revision requested by the client, if newer than the original one.
+         */
+        void negotiate(String version, String compress) throws IOException {
+            if (isRevision2(version)) {
+                sendHello(STDIN_WINDOW, "true".equals(compress));
+                windowed = true;
+            }
+        }
+
+        private void consumed(int n) throws IOException {
+            if (windowed && consumed.addAndGet(n) >= STDIN_WINDOW / 4) {
+                sendWindow(consumed.getAndSet(0));
+            }
+        }
+
         @Override
         protected void onArg(String text) {
             args.add(text);
@@ -319,8 +414,8 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
                     wait();
                 }
             }
-            PrintStream stdout = new PrintStream(streamStdout(), false, encoding);
-            PrintStream stderr = new PrintStream(streamStderr(), true, encoding);
+            PrintStream stdout = new PrintStream(streamStdout(Timer.get(), Computer.threadPoolForRemoting), false, encoding);
+            PrintStream stderr = new PrintStream(streamStderr(Timer.get(), Computer.threadPoolForRemoting), true, encoding);
             if (args.isEmpty()) {
                 stderr.println("Connection closed before arguments received");
                 sendExit(2);
@@ -340,6 +435,7 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
                 runningThread = Thread.currentThread();
                 int exit = command.main(args.subList(1, args.size()), locale, stdin, stdout, stderr);
                 stdout.flush();
+                stderr.flush();
                 sendExit(exit);
                 try { // seems to avoid ReadPendingException from Jetty
                     Thread.sleep(1000);
@@ -362,12 +458,21 @@ public class CLIAction implements UnprotectedRootAction, StaplerProxy {
             super(duplexServices);
         }
 
+        @Override
+        public void generateResponse(StaplerRequest2 req, StaplerResponse2 rsp, Object node) throws IOException, ServletException {
+            announce(req.getParameter(PlainCLIProtocol.VERSION_PARAMETER), req.getParameter(PlainCLIProtocol.COMPRESS_PARAMETER), rsp);
+            super.generateResponse(req, rsp, node);
+        }
+
         @Override
         protected FullDuplexHttpService createService(StaplerRequest2 req, UUID uuid) throws IOException {
+            String version = req.getParameter(PlainCLIProtocol.VERSION_PARAMETER);
+            String compress = req.getParameter(PlainCLIProtocol.COMPRESS_PARAMETER);
             return new FullDuplexHttpService(uuid) {
                 @Override
                 protected void run(InputStream upload, OutputStream download) throws IOException, InterruptedException {
                     try (ServerSideImpl connection = new ServerSideImpl(new PlainCLIProtocol.FramedOutput(download), Jenkins.getAuthentication2())) {
+                        connection.negotiate(version, compress);
                         new PlainCLIProtocol.FramedReader(connection, upload).start();
                         connection.run();
                     }
@@ -31,20 +31,25 @@ import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.security.AccessControlled;
-import hudson.slaves.ComputerListener;
 import hudson.slaves.RetentionStrategy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.agents.ComputerListenerDispatcher;
 import jenkins.model.Jenkins;
-import jenkins.util.Listeners;
 import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.StaplerFallback;
 import org.kohsuke.stapler.StaplerProxy;
 
@@ -136,6 +141,21 @@ public abstract class AbstractCIBase extends Node implements ItemGroup<TopLevelI
 
     protected abstract ConcurrentMap<Node, Computer> getComputerMap();
 
+    /**
+     * Computers waiting for their executors to finish which were taken out of {@link #getComputerMap()}
+     * to make room for the computer of a new node of the same name.
+     */
+    private final Set<Computer> evicted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return the computers of removed nodes which are still running builds
+     * but were taken out of {@link #getComputerMap()} for a new node of the same name
+     */
+    @Restricted(NoExternalUse.class)
+    protected final Collection<Computer> getEvictedComputers() {
+        return Collections.unmodifiableSet(evicted);
+    }
+
     /* =================================================================================================================
      * Computer API uses package protection heavily
      * ============================================================================================================== */
@@ -206,7 +226,7 @@ public abstract class AbstractCIBase extends Node implements ItemGroup<TopLevelI
     /*package*/ void removeComputer(final Computer computer) {
         ConcurrentMap<Node, Computer> computers = getComputerMap();
         Queue.withLock(() -> {
-            if (computers.values().remove(computer)) {
+            if (computers.values().remove(computer) || evicted.remove(computer)) {
                 computer.onRemoved();
             }
         });
@@ -222,7 +242,86 @@ public abstract class AbstractCIBase extends Node implements ItemGroup<TopLevelI
             return;
         }
         getQueue().scheduleMaintenance();
-        Listeners.notify(ComputerListener.class, false, ComputerListener::onConfigurationChange);
+        ComputerListenerDispatcher.get().fireConfigurationChange();
+    }
+
+    /**
+     * Updates the {@link Computer} of a single node after it was added, replaced or removed,
+     * rather than going through all nodes as {@link #updateComputerList(boolean)} does.
+     *
+     * <p>
+     * As there, the existing {@link Computer} is reused if the node is replaced by one of the same name,
+     * so that its {@link Executor}s are not upset.
+     * A computer killed along with a removed node is not reused by a node added later under the same name.
+     *
+     * @param oldNode the node previously registered, if any
+     * @param newNode the node now registered instead, if any
+     * @since TODO
+     */
+    protected void updateComputer(@CheckForNull final Node oldNode, @CheckForNull final Node newNode, boolean automaticAgentLaunch) {
+        final ConcurrentMap<Node, Computer> computers = getComputerMap();
+        final List<Computer> killed = new ArrayList<>(1);
+        Queue.withLock(() -> {
+            Map.Entry<Node, Computer> old = oldNode != null ? findComputer(computers, oldNode) : null;
+            if (old != null && (newNode == null || !newNode.getNodeName().equals(oldNode.getNodeName()))) {
+                old.getValue().inflictMortalWound();
+                killed.add(old.getValue());
+                old = null;
+            }
+            if (newNode == null) {
+                return;
+            }
+            if (old == null) {
+                // a computer of a node of the same name which was just removed may still be there
+                Computer c = computers.get(newNode);
+                old = c != null ? Map.entry(newNode, c) : null;
+            }
+            if (old != null && old.getValue().isMortallyWounded()) {
+                // killed, so the new node gets a computer of its own; the old one is still removed once its executors are done
+                if (computers.remove(old.getKey(), old.getValue())) {
+                    evicted.add(old.getValue());
+                }
+                old = null;
+            }
+            if (old == null) {
+                createNewComputerForNode(newNode, automaticAgentLaunch);
+                return;
+            }
+            Computer c = old.getValue();
+            try {
+                c.setNode(newNode); // reuse
+                if (!old.getKey().equals(newNode) && computers.remove(old.getKey(), c)) {
+                    computers.put(newNode, c);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error updating node " + newNode.getNodeName() + ", continuing", e);
+            }
+        });
+        for (Computer c : killed) {
+            // as in updateComputerList, outside of the Queue lock
+            killComputer(c);
+        }
+        getQueue().scheduleMaintenance();
+        ComputerListenerDispatcher.get().fireConfigurationChange();
+    }
+
+    /**
+     * @return the entry of the computer of a node, looked up by node, otherwise by name
+     */
+    @CheckForNull
+    private static Map.Entry<Node, Computer> findComputer(ConcurrentMap<Node, Computer> computers, Node node) {
+        Computer c = computers.get(node);
+        if (c != null) {
+            return Map.entry(node, c);
+        }
+        // the computer may still be registered under an earlier node of that name, which is not equal to it
+        String name = node.getNodeName();
+        for (Map.Entry<Node, Computer> e : computers.entrySet()) {
+            if (e.getValue().getName().equals(name)) {
+                return e;
+            }
+        }
+        return null;
     }
 
     /**
@@ -275,7 +374,7 @@ public abstract class AbstractCIBase extends Node implements ItemGroup<TopLevelI
             killComputer(c);
         }
         getQueue().scheduleMaintenance();
-        Listeners.notify(ComputerListener.class, false, ComputerListener::onConfigurationChange);
+        ComputerListenerDispatcher.get().fireConfigurationChange();
     }
 
 }
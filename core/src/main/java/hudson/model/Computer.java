@@ -63,7 +63,6 @@ import hudson.slaves.RetentionStrategy;
 import hudson.slaves.WorkspaceList;
 import hudson.triggers.SafeTimerTask;
 import hudson.util.ClassLoaderSanityThreadFactory;
-import hudson.util.DaemonThreadFactory;
 import hudson.util.EditDistance;
 import hudson.util.ExceptionCatchingThreadFactory;
 import hudson.util.FormApply;
@@ -99,7 +98,6 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -117,6 +115,7 @@ import jenkins.util.ContextResettingExecutorService;
 import jenkins.util.ErrorLoggingExecutorService;
 import jenkins.util.Listeners;
 import jenkins.util.SystemProperties;
+import jenkins.util.VirtualThreads;
 import jenkins.widgets.HasWidgets;
 import net.jcip.annotations.GuardedBy;
 import org.kohsuke.accmod.Restricted;
@@ -173,6 +172,12 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
 
     private int numExecutors;
 
+    /**
+     * Whether {@link #inflictMortalWound} was called, so that this computer only waits for its executors to finish.
+     */
+    @GuardedBy("hudson.model.Queue.lock")
+    private boolean mortallyWounded;
+
     /**
      * Contains info about reason behind computer being offline.
      */
@@ -823,9 +828,15 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
     @Restricted(NoExternalUse.class)
     @GuardedBy("hudson.model.Queue.lock")
     /*package*/ void inflictMortalWound() {
+        mortallyWounded = true;
         setNumExecutors(0);
     }
 
+    @GuardedBy("hudson.model.Queue.lock")
+    /*package*/ boolean isMortallyWounded() {
+        return mortallyWounded;
+    }
+
     /**
      * Called by {@link Jenkins} when this computer is removed.
      *
@@ -1347,10 +1358,10 @@ public /*transient*/ abstract class Computer extends Actionable implements Acces
     public static final ExecutorService threadPoolForRemoting = new ContextResettingExecutorService(
         new ImpersonatingExecutorService(
             new ErrorLoggingExecutorService(
-                Executors.newCachedThreadPool(
+                VirtualThreads.newCachedThreadPool(
                     new ExceptionCatchingThreadFactory(
                         new NamingThreadFactory(
-                            new ClassLoaderSanityThreadFactory(new DaemonThreadFactory()),
+                            new ClassLoaderSanityThreadFactory(VirtualThreads.daemonThreadFactory()),
                             "Computer.threadPoolForRemoting")))),
             ACL.SYSTEM2));
 
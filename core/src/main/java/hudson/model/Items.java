@@ -41,6 +41,9 @@ import hudson.util.EditDistance;
 import hudson.util.XStream2;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -50,10 +53,16 @@ import java.util.NoSuchElementException;
 import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.function.Predicate;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import jenkins.model.DirectlyModifiableTopLevelItemGroup;
 import jenkins.model.Jenkins;
 import jenkins.util.MemoryReductionUtil;
 import org.apache.commons.io.FileUtils;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.springframework.security.core.Authentication;
 
 /**
@@ -377,6 +386,56 @@ public class Items {
         return item;
     }
 
+    /**
+     * Used by {@link #isDisabled} for every item on startup, so looked up and configured only once.
+     * It is not modified afterwards, which makes creating readers from it thread-safe.
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXMLInputFactory();
+
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Checks whether the item configuration in the given directory is disabled
+     * (has a top-level {@code <disabled>true</disabled>} element) without unmarshalling it.
+     *
+     * @return false if the item is not disabled or the configuration cannot be read
+     */
+    @Restricted(NoExternalUse.class)
+    public static boolean isDisabled(File dir) {
+        File config = new File(dir, "config.xml");
+        try (InputStream is = Files.newInputStream(config.toPath())) {
+            XMLStreamReader r = XML_INPUT_FACTORY.createXMLStreamReader(is);
+            try {
+                int depth = 0;
+                while (r.hasNext()) {
+                    switch (r.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            depth++;
+                            if (depth == 2 && r.getLocalName().equals("disabled")) {
+                                return r.getElementText().trim().equals("true");
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            depth--;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                return false;
+            } finally {
+                r.close();
+            }
+        } catch (IOException | InvalidPathException | XMLStreamException e) {
+            return false;
+        }
+    }
+
     /**
      * The file we save our configuration.
      */
@@ -50,9 +50,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -106,6 +108,15 @@ public class ListView extends View implements DirectlyModifiableView {
      */
     private transient Pattern includePattern;
 
+    /**
+     * Results of matching {@link #includePattern} against relative item names, so that the regular expression
+     * is only evaluated for items that are new or were renamed. Replaced whenever the pattern changes;
+     * {@link Listener} only forgets the entries of renamed or deleted items.
+     */
+    private transient volatile IncludeMatches includeMatches;
+
+    private record IncludeMatches(Pattern pattern, Map<String, Boolean> matches) {}
+
     /**
      * Filter by enabled/disabled status of jobs.
      * Null for no filter, true for enabled-only, false for disabled-only.
@@ -232,10 +243,7 @@ public class ListView extends View implements DirectlyModifiableView {
                     if (names.contains(itemName)) {
                         return true;
                     }
-                    if (includePattern != null) {
-                        return includePattern.matcher(itemName).matches();
-                    }
-                    return false;
+                    return matchesIncludePattern(itemName);
                 }));
             }
         } else {
@@ -252,7 +260,7 @@ public class ListView extends View implements DirectlyModifiableView {
             if (includePattern != null) {
                 items.addAll(parent.getItems(item -> {
                     String itemName = item.getRelativeNameFrom(parent);
-                    return includePattern.matcher(itemName).matches();
+                    return matchesIncludePattern(itemName);
                 }));
             }
         }
@@ -271,6 +279,43 @@ public class ListView extends View implements DirectlyModifiableView {
         return items;
     }
 
+    private boolean matchesIncludePattern(String itemName) {
+        Pattern pattern = includePattern;
+        if (pattern == null) {
+            return false;
+        }
+        IncludeMatches m = includeMatches;
+        if (m == null || m.pattern != pattern) {
+            m = new IncludeMatches(pattern, new ConcurrentHashMap<>());
+            includeMatches = m;
+        }
+        return m.matches.computeIfAbsent(itemName, n -> pattern.matcher(n).matches());
+    }
+
+    /**
+     * Forgets whether {@link #includePattern} matches the given relative item name, and the names of its descendants.
+     */
+    private void forgetIncludeMatches(String itemName, boolean group) {
+        IncludeMatches m = includeMatches;
+        if (m == null) {
+            return;
+        }
+        m.matches.remove(itemName);
+        if (group) {
+            String prefix = itemName + '/';
+            m.matches.keySet().removeIf(n -> n.startsWith(prefix));
+        }
+    }
+
+    /**
+     * Relative item names whose match against {@link #includePattern} is currently memoized.
+     */
+    @Restricted(NoExternalUse.class)
+    Set<String> getMemoizedIncludeMatches() {
+        IncludeMatches m = includeMatches;
+        return m == null ? Set.of() : Set.copyOf(m.matches.keySet());
+    }
+
     @Override
     public SearchIndexBuilder makeSearchIndex() {
         SearchIndexBuilder sib = new SearchIndexBuilder().addAllAnnotations(this);
@@ -564,32 +609,33 @@ public class ListView extends View implements DirectlyModifiableView {
         @Override
         public void onLocationChanged(final Item item, final String oldFullName, final String newFullName) {
             try (ACLContext acl = ACL.as2(ACL.SYSTEM2)) {
-                locationChanged(oldFullName, newFullName);
+                locationChanged(item, oldFullName, newFullName);
             }
         }
 
-        private void locationChanged(String oldFullName, String newFullName) {
+        private void locationChanged(Item item, String oldFullName, String newFullName) {
             final Jenkins jenkins = Jenkins.get();
-            locationChanged(jenkins, oldFullName, newFullName);
+            locationChanged(jenkins, item, oldFullName, newFullName);
             for (Item g : jenkins.allItems()) {
                 if (g instanceof ViewGroup) {
-                    locationChanged((ViewGroup) g, oldFullName, newFullName);
+                    locationChanged((ViewGroup) g, item, oldFullName, newFullName);
                 }
             }
         }
 
-        private void locationChanged(ViewGroup vg, String oldFullName, String newFullName) {
+        private void locationChanged(ViewGroup vg, Item item, String oldFullName, String newFullName) {
             for (View v : vg.getViews()) {
                 if (v instanceof ListView) {
-                    renameViewItem(oldFullName, newFullName, vg, (ListView) v);
+                    renameViewItem(item, oldFullName, newFullName, vg, (ListView) v);
                 }
                 if (v instanceof ViewGroup) {
-                    locationChanged((ViewGroup) v, oldFullName, newFullName);
+                    locationChanged((ViewGroup) v, item, oldFullName, newFullName);
                 }
             }
         }
 
-        private void renameViewItem(String oldFullName, String newFullName, ViewGroup vg, ListView lv) {
+        private void renameViewItem(Item item, String oldFullName, String newFullName, ViewGroup vg, ListView lv) {
+            lv.forgetIncludeMatches(Items.getRelativeNameFrom(oldFullName, vg.getItemGroup().getFullName()), item instanceof ItemGroup);
             boolean needsSave;
             synchronized (lv) {
                 Set<String> oldJobNames = new HashSet<>(lv.jobNames);
@@ -637,9 +683,11 @@ public class ListView extends View implements DirectlyModifiableView {
         }
 
         private void deleteViewItem(Item item, ViewGroup vg, ListView lv) {
+            String itemName = item.getRelativeNameFrom(vg.getItemGroup());
+            lv.forgetIncludeMatches(itemName, item instanceof ItemGroup);
             boolean needsSave;
             synchronized (lv) {
-                needsSave = lv.jobNames.remove(item.getRelativeNameFrom(vg.getItemGroup()));
+                needsSave = lv.jobNames.remove(itemName);
             }
             if (needsSave) {
                 try {
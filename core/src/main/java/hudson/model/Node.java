@@ -46,7 +46,6 @@ import hudson.remoting.VirtualChannel;
 import hudson.security.ACL;
 import hudson.security.AccessControlled;
 import hudson.slaves.Cloud;
-import hudson.slaves.ComputerListener;
 import hudson.slaves.EphemeralNode;
 import hudson.slaves.NodeDescriptor;
 import hudson.slaves.NodeProperty;
@@ -66,9 +65,9 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.agents.ComputerListenerDispatcher;
 import jenkins.model.Jenkins;
 import jenkins.model.Nodes;
-import jenkins.util.Listeners;
 import jenkins.util.SystemProperties;
 import jenkins.util.io.OnMaster;
 import net.sf.json.JSONObject;
@@ -283,10 +282,11 @@ public abstract class Node extends AbstractModelObject implements Reconfigurable
                 temporaryOfflineCause = cause;
                 save();
             }
-            if (temporaryOfflineCause != null) {
-                Listeners.notify(ComputerListener.class, false, l -> l.onTemporarilyOffline(toComputer(), temporaryOfflineCause));
+            Computer c = toComputer();
+            if (cause != null) {
+                ComputerListenerDispatcher.get().fire(c, "onTemporarilyOffline", false, l -> l.onTemporarilyOffline(c, cause));
             } else {
-                Listeners.notify(ComputerListener.class, false, l -> l.onTemporarilyOnline(toComputer()));
+                ComputerListenerDispatcher.get().fire(c, "onTemporarilyOnline", false, l -> l.onTemporarilyOnline(c));
             }
         } catch (java.io.IOException e) {
             LOGGER.warning("Unable to complete save, temporary offline status will not be persisted: " + e.getMessage());
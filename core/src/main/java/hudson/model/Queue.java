@@ -1347,6 +1347,18 @@ public class Queue extends ResourceController implements Saveable {
             return queue._tryWithLock(runnable);
         }
     }
+
+    /**
+     * Checks whether the current thread holds the {@link Queue} lock, so as not to wait for work which may need it.
+     *
+     * @return {@code true} if the current thread holds the lock.
+     */
+    @Restricted(NoExternalUse.class)
+    public static boolean isLockHeldByCurrentThread() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        final Queue queue = jenkins == null ? null : jenkins.getQueue();
+        return queue != null && queue.lock.isHeldByCurrentThread();
+    }
     /**
      * Wraps a {@link Runnable} with the  {@link Queue} lock held.
      *
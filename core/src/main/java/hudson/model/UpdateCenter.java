@@ -64,6 +64,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
@@ -79,6 +80,7 @@ import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -101,6 +103,9 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Attributes;
@@ -119,6 +124,7 @@ import jenkins.security.stapler.StaplerNotDispatchable;
 import jenkins.util.SystemProperties;
 import jenkins.util.Timer;
 import jenkins.util.io.OnMaster;
+import net.jcip.annotations.GuardedBy;
 import net.sf.json.JSONObject;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CountingInputStream;
@@ -172,6 +178,22 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
      */
     private static final int PLUGIN_DOWNLOAD_READ_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(SystemProperties.getInteger(UpdateCenter.class.getName() + ".pluginDownloadReadTimeoutSeconds", 60));
 
+    /**
+     * Number of plugins downloaded concurrently ahead of their installation, or 0 to download
+     * each plugin only when its installation job runs.
+     */
+    private static final int DOWNLOAD_THREADS = SystemProperties.getInteger(UpdateCenter.class.getName() + ".downloadThreads", 4);
+
+    /**
+     * Maximum number of concurrent plugin downloads from a single host.
+     */
+    private static final int DOWNLOAD_THREADS_PER_HOST = SystemProperties.getInteger(UpdateCenter.class.getName() + ".downloadThreadsPerHost", 2);
+
+    /**
+     * How many times an interrupted HTTP download is resumed with a range request before giving up.
+     */
+    private static final int DOWNLOAD_RESUME_ATTEMPTS = SystemProperties.getInteger(UpdateCenter.class.getName() + ".downloadResumeAttempts", 3);
+
     public static final String PREDEFINED_UPDATE_SITE_ID = "default";
 
     /**
@@ -196,6 +218,28 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
     protected final ExecutorService updateService = Executors.newCachedThreadPool(
         new NamingThreadFactory(new DaemonThreadFactory(), "Update site data downloader"));
 
+    /**
+     * {@link ExecutorService} downloading plugins ahead of their {@link InstallationJob}, so that independent
+     * plugins are fetched concurrently while {@link #installerService} still installs them one at a time,
+     * in submission (and therefore dependency) order.
+     */
+    private final ExecutorService downloadService = createDownloadService();
+
+    /**
+     * Limits concurrent downloads per host, see {@link #DOWNLOAD_THREADS_PER_HOST}.
+     */
+    private final Map<String, Semaphore> downloadsPerHost = new ConcurrentHashMap<>();
+
+    /**
+     * Destinations of the downloads currently started ahead of their job.
+     */
+    private final Set<File> prefetching = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Set on {@link #downloadService} threads while they download a plugin ahead of its job.
+     */
+    private static final ThreadLocal<Boolean> PREFETCHING = new ThreadLocal<>();
+
     /**
      * List of created {@link UpdateCenterJob}s. Access needs to be synchronized.
      */
@@ -925,6 +969,17 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
 
     }
 
+    @CheckForNull
+    private static ExecutorService createDownloadService() {
+        if (DOWNLOAD_THREADS <= 0) {
+            return null;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DOWNLOAD_THREADS, DOWNLOAD_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Update center plugin downloader"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Restricted(NoExternalUse.class)
     public synchronized Future<UpdateCenterJob> addJob(UpdateCenterJob job) {
         if (job.site != null) {
@@ -1340,23 +1395,60 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
                 Thread t = Thread.currentThread();
                 String oldName = t.getName();
                 t.setName(oldName + ": " + src);
-                try (OutputStream _out = Files.newOutputStream(tmp.toPath());
-                     OutputStream out =
-                             sha1 != null ? new DigestOutputStream(
-                                     sha256 != null ? new DigestOutputStream(
-                                             sha512 != null ? new DigestOutputStream(_out, sha512) : _out, sha256) : _out, sha1) : _out;
-                     InputStream in = con.getInputStream();
-                     CountingInputStream cin = new CountingInputStream(in)) {
-                    if (LOGGER.isLoggable(Level.FINE)) {
-                        var sourceUrlString = getSourceUrl(src, con);
-                        LOGGER.fine(() -> "Downloading " + job.getName() + " from " + sourceUrlString);
-                    }
-                    while ((len = cin.read(buf)) >= 0) {
-                        out.write(buf, 0, len);
-                        final int count = cin.getCount();
-                        job.status = job.new Installing(total == -1 ? -1 : ((int) (count * 100 / total)));
-                        if (total != -1 && total < count) {
-                            throw new IOException("Received more data than expected. Expected " + total + " bytes but got " + count + " bytes (so far), aborting download.");
+                try {
+                    long received = 0;
+                    for (int attempt = 0; ; attempt++) {
+                        IOException interruption = null;
+                        try (OutputStream _out = received == 0 ? Files.newOutputStream(tmp.toPath()) : Files.newOutputStream(tmp.toPath(), StandardOpenOption.APPEND);
+                             OutputStream out =
+                                     sha1 != null ? new DigestOutputStream(
+                                             sha256 != null ? new DigestOutputStream(
+                                                     sha512 != null ? new DigestOutputStream(_out, sha512) : _out, sha256) : _out, sha1) : _out;
+                             InputStream in = con.getInputStream();
+                             CountingInputStream cin = new CountingInputStream(in)) {
+                            if (LOGGER.isLoggable(Level.FINE)) {
+                                var sourceUrlString = getSourceUrl(src, con);
+                                LOGGER.fine(() -> "Downloading " + job.getName() + " from " + sourceUrlString);
+                            }
+                            while (true) {
+                                try {
+                                    len = cin.read(buf);
+                                } catch (IOException e) {
+                                    interruption = e;
+                                    break;
+                                }
+                                if (len < 0) {
+                                    break;
+                                }
+                                out.write(buf, 0, len);
+                                final long count = received + cin.getByteCount();
+                                job.downloadProgress(total == -1 ? -1 : ((int) (count * 100 / total)));
+                                if (total != -1 && total < count) {
+                                    throw new IOException("Received more data than expected. Expected " + total + " bytes but got " + count + " bytes (so far), aborting download.");
+                                }
+                            }
+                            received += cin.getByteCount();
+                        }
+                        if (interruption == null) {
+                            break;
+                        }
+                        if (attempt >= DOWNLOAD_RESUME_ATTEMPTS || received == 0 || !(con instanceof HttpURLConnection)) {
+                            throw interruption;
+                        }
+                        LOGGER.log(Level.FINE, "Resuming download of " + job.getName() + " after " + received + " bytes", interruption);
+                        con = connect(job, src);
+                        con.setReadTimeout(PLUGIN_DOWNLOAD_READ_TIMEOUT);
+                        con.setRequestProperty("Range", "bytes=" + received + "-");
+                        String range = con.getHeaderField("Content-Range");
+                        if (((HttpURLConnection) con).getResponseCode() != HttpURLConnection.HTTP_PARTIAL
+                                || range == null || !range.startsWith("bytes " + received + "-")) {
+                            // the server ignored the range request, so start over
+                            received = 0;
+                            for (MessageDigest digest : new MessageDigest[] {sha1, sha256, sha512}) {
+                                if (digest != null) {
+                                    digest.reset();
+                                }
+                            }
                         }
                     }
                 } catch (IOException | InvalidPathException e) {
@@ -1999,11 +2091,146 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
             return this.authentication;
         }
 
+        /**
+         * Download started by {@link #prefetch} ahead of {@link #run}, if any.
+         */
+        private volatile Future<File> prefetched;
+
+        /**
+         * Set once {@link #run} waits for the {@linkplain #prefetched prefetched} download.
+         * Until then, its progress is not reported in {@link #status}, as the job may still be pending or may have failed.
+         */
+        private volatile boolean awaitingPrefetched;
+
+        /**
+         * Coordinates the end of the {@linkplain #prefetched prefetched} download with {@link #discardPrefetched},
+         * so that whichever comes last deletes the downloaded file.
+         */
+        private final Object prefetchLock = new Object();
+
+        @GuardedBy("prefetchLock")
+        private boolean prefetchDone, prefetchDiscarded;
+
         protected DownloadJob(UpdateSite site, Authentication authentication) {
             super(site);
             this.authentication = authentication;
         }
 
+        /**
+         * Starts downloading the file on {@link #downloadService}, unless another job is already downloading to the same destination.
+         * Only done with the default {@link UpdateCenterConfiguration}, whose {@link UpdateCenterConfiguration#download}
+         * reports progress through {@link #downloadProgress} and downloads to a predictable temporary file.
+         */
+        void prefetch() throws MalformedURLException {
+            URL src = getURL();
+            File dst = getDestination();
+            if (downloadService == null || config.getClass() != UpdateCenterConfiguration.class
+                    || !(src.getProtocol().equals("http") || src.getProtocol().equals("https")) || !prefetching.add(dst)) {
+                return;
+            }
+            prefetched = downloadService.submit(() -> {
+                PREFETCHING.set(Boolean.TRUE);
+                try {
+                    Semaphore perHost = downloadsPerHost.computeIfAbsent(src.getHost(), k -> new Semaphore(Math.max(1, DOWNLOAD_THREADS_PER_HOST)));
+                    perHost.acquire();
+                    try {
+                        config.preValidate(this, src);
+                        return config.download(this, src);
+                    } finally {
+                        perHost.release();
+                    }
+                } finally {
+                    PREFETCHING.remove();
+                    synchronized (prefetchLock) {
+                        prefetchDone = true;
+                        if (prefetchDiscarded) {
+                            deletePrefetched();
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * Reports the progress of {@link UpdateCenterConfiguration#download}.
+         *
+         * @throws InterruptedIOException if the download was {@linkplain #discardPrefetched discarded}
+         */
+        private void downloadProgress(int percent) throws InterruptedIOException {
+            if (PREFETCHING.get() != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Discarded the download of " + getName());
+                }
+                if (!awaitingPrefetched) {
+                    return;
+                }
+            }
+            status = new Installing(percent);
+        }
+
+        /**
+         * Obtains the downloaded file, waiting for the {@linkplain #prefetch prefetched} download if there is one.
+         */
+        private File download(URL src) throws IOException {
+            Future<File> f = prefetched;
+            if (f == null) {
+                return config.download(this, src);
+            }
+            awaitingPrefetched = true;
+            try {
+                File tmp = f.get();
+                prefetched = null;
+                return tmp;
+            } catch (InterruptedException e) {
+                awaitingPrefetched = false;
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while downloading " + src, e);
+            } catch (ExecutionException e) {
+                prefetched = null;
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            } finally {
+                if (prefetched == null) {
+                    prefetching.remove(getDestination());
+                }
+            }
+        }
+
+        /**
+         * Cancels the {@linkplain #prefetch prefetched} download, if any, and deletes what it downloaded,
+         * as it is not going to be installed.
+         */
+        void discardPrefetched() {
+            Future<File> f = prefetched;
+            if (f == null) {
+                return;
+            }
+            prefetched = null;
+            awaitingPrefetched = false;
+            f.cancel(true);
+            synchronized (prefetchLock) {
+                prefetchDiscarded = true;
+                if (prefetchDone) {
+                    deletePrefetched();
+                }
+            }
+            prefetching.remove(getDestination());
+        }
+
+        private void deletePrefetched() {
+            try {
+                Files.deleteIfExists(new File(getDestination().getPath() + ".tmp").toPath());
+            } catch (IOException | InvalidPathException e) {
+                LOGGER.log(Level.FINE, "Failed to delete the discarded download of " + getName(), e);
+            }
+        }
+
         @Override
         public void run() {
             try {
@@ -2026,6 +2253,9 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
                 LOGGER.log(Level.SEVERE, "Failed to install " + getName(), e);
                 status = new DownloadJob.Failure(e);
                 error = e;
+            } finally {
+                // if _run did not get to use it
+                discardPrefetched();
             }
         }
 
@@ -2035,7 +2265,7 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
             config.preValidate(this, src);
 
             File dst = getDestination();
-            File tmp = config.download(this, src);
+            File tmp = download(src);
 
             config.postValidate(this, tmp);
             config.install(this, tmp, dst);
@@ -2338,17 +2568,32 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
             return size == null ? -1 : size;
         }
 
+        @Override
+        public Future<UpdateCenterJob> submit() {
+            // subclasses like EnableJob do not download anything
+            if (getClass() == InstallationJob.class && !hasDetachedCopy()) {
+                try {
+                    prefetch();
+                } catch (MalformedURLException e) {
+                    LOGGER.log(Level.FINE, "Not downloading " + getName() + " ahead of installation", e);
+                }
+            }
+            return super.submit();
+        }
+
         @Override
         public void _run() throws IOException, InstallationStatus {
             if (wasInstalled()) {
                 // Do this first so we can avoid duplicate downloads, too
                 // check to see if the plugin is already installed at the same version and skip it
                 LOGGER.info("Skipping duplicate install of: " + plugin.getDisplayName() + "@" + plugin.version);
+                discardPrefetched();
                 return;
             }
             try {
                 File cached = getCached(this);
                 if (cached != null) {
+                    discardPrefetched();
                     File dst = getDestination();
 
                     // A bit naive, but following the corresponding logic in UpdateCenterConfiguration#download...
@@ -2453,6 +2698,18 @@ public class UpdateCenter extends AbstractModelObject implements Loadable, Savea
             return cached;
         }
 
+        /**
+         * Whether {@link #getCached} may find this plugin locally, in which case it is not downloaded ahead of installation.
+         */
+        private boolean hasDetachedCopy() {
+            try {
+                URL src = Jenkins.get().getServletContext().getResource(String.format("/WEB-INF/detached-plugins/%s.hpi", plugin.name));
+                return src != null && "file".equals(src.getProtocol());
+            } catch (MalformedURLException e) {
+                return false;
+            }
+        }
+
         /**
          * Indicates there is another installation job for this plugin
          * @since 2.1
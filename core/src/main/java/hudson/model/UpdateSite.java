@@ -66,7 +66,9 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -80,6 +82,7 @@ import jenkins.security.UpdateSiteWarningsMonitor;
 import jenkins.util.JSONSignatureValidator;
 import jenkins.util.PluginLabelUtil;
 import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
@@ -131,7 +134,14 @@ public class UpdateSite {
     /**
      * Latest data as read from the data file.
      */
-    private transient Data data;
+    private transient volatile Data data;
+
+    /**
+     * Parsing of the data file by {@link #getData}, if in progress, so that concurrent callers wait for it
+     * rather than parse the file again, without holding the monitor of this site while parsing.
+     */
+    @GuardedBy("this")
+    private transient FutureTask<Data> parsing;
 
     /**
      * ID string for this update source.
@@ -244,7 +254,7 @@ public class UpdateSite {
         LOGGER.fine(() -> "Obtained the latest update center data file for UpdateSource " + id);
         retryWindow = 0;
         getDataFile().write(json);
-        data = new Data(o);
+        setData(new Data(o, true));
         return FormValidation.ok();
     }
 
@@ -329,7 +339,7 @@ public class UpdateSite {
     public HttpResponse doInvalidateData() {
         Jenkins.get().checkPermission(Jenkins.ADMINISTER);
         dataTimestamp = 0;
-        data = null;
+        setData(null);
         return HttpResponses.ok();
     }
 
@@ -340,13 +350,61 @@ public class UpdateSite {
      */
     @CheckForNull
     public Data getData() {
-        if (data == null) {
-            JSONObject o = getJSONObject();
-            if (o != null) {
-                data = new Data(o);
+        Data d = data;
+        if (d != null) {
+            return d;
+        }
+        // parse the data file only once when several callers (e.g. plugin manager tabs after startup) race here
+        FutureTask<Data> task;
+        boolean parse = false;
+        synchronized (this) {
+            d = data;
+            if (d != null) {
+                return d;
+            }
+            task = parsing;
+            if (task == null) {
+                task = parsing = new FutureTask<>(() -> {
+                    // getJSONObject may be overridden to return an object which is reused, so it must not be emptied
+                    JSONObject o = getJSONObject();
+                    return o != null ? new Data(o, false) : null;
+                });
+                parse = true;
+            }
+        }
+        if (parse) {
+            task.run();
+        }
+        try {
+            d = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (parse) {
+                synchronized (this) {
+                    // unless the data was updated or invalidated meanwhile
+                    if (parsing == task) {
+                        parsing = null;
+                        data = d;
+                    }
+                }
             }
         }
-        return data;
+        return d;
+    }
+
+    private synchronized void setData(@CheckForNull Data d) {
+        parsing = null;
+        data = d;
     }
 
     /**
@@ -589,6 +647,14 @@ public class UpdateSite {
         public final String connectionCheckUrl;
 
         Data(JSONObject o) {
+            this(o, false);
+        }
+
+        /**
+         * @param release whether to remove plugin entries from {@code o} as they are converted,
+         *                so that the JSON tree can be collected while the rest is converted
+         */
+        private Data(JSONObject o, boolean release) {
             this.sourceId = Util.intern((String) o.get("id"));
             JSONObject c = o.optJSONObject("core");
             if (c != null) {
@@ -626,8 +692,9 @@ public class UpdateSite {
                 }
             }
 
-            for (Map.Entry<String, JSONObject> e : (Set<Map.Entry<String, JSONObject>>) o.getJSONObject("plugins").entrySet()) {
-                Plugin p = new Plugin(sourceId, e.getValue());
+            JSONObject pluginsJson = o.getJSONObject("plugins");
+            for (String pluginName : new ArrayList<String>(pluginsJson.keySet())) {
+                Plugin p = new Plugin(sourceId, release ? (JSONObject) pluginsJson.remove(pluginName) : pluginsJson.getJSONObject(pluginName));
                 // JENKINS-33308 - include implied dependencies for older plugins that may need them
                 List<PluginWrapper.Dependency> implicitDeps = DetachedPluginsUtil.getImpliedDependencies(p.name, p.requiredCore);
                 if (!implicitDeps.isEmpty()) {
@@ -637,7 +704,7 @@ public class UpdateSite {
                         }
                     }
                 }
-                plugins.put(Util.intern(e.getKey()), p);
+                plugins.put(Util.intern(pluginName), p);
 
                 // compatibility with update sites that have no separate 'deprecated' top-level entry.
                 // Also do this even if there are deprecations to potentially allow limiting the top-level entry to overridden URLs.
@@ -1147,7 +1214,7 @@ public class UpdateSite {
             if (o instanceof JSONObject) {
                 JSONObject jsonObject = (JSONObject) o;
                 if (jsonObject.has("type") && jsonObject.has("viewUrl") && jsonObject.has("reportUrl")) {
-                    return new IssueTracker(jsonObject.getString("type"), jsonObject.getString("viewUrl"), jsonObject.getString("reportUrl"));
+                    return new IssueTracker(Util.intern(jsonObject.getString("type")), jsonObject.getString("viewUrl"), jsonObject.getString("reportUrl"));
                 }
             }
             return null;
@@ -44,7 +44,9 @@ import hudson.security.ACL;
 import hudson.security.AccessControlled;
 import hudson.security.SecurityRealm;
 import hudson.security.UserMayOrMayNotExistException2;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.FormValidation;
+import hudson.util.NamingThreadFactory;
 import hudson.util.RunList;
 import hudson.util.XStream2;
 import jakarta.servlet.ServletException;
@@ -63,6 +65,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -71,6 +76,7 @@ import jenkins.model.Jenkins;
 import jenkins.model.Loadable;
 import jenkins.model.ModelObjectWithContextMenu;
 import jenkins.scm.RunWithSCM;
+import jenkins.security.ImpersonatingExecutorService;
 import jenkins.security.ImpersonatingUserDetailsService2;
 import jenkins.security.LastGrantedAuthoritiesProperty;
 import jenkins.security.UserDetailsCache;
@@ -1062,12 +1068,72 @@ public class User extends AbstractModelObject implements AccessControlled, Descr
 
         private final ConcurrentMap<String, User> byName = new ConcurrentHashMap<>();
 
+        /**
+         * Number of threads used to load the user records on startup and reload.
+         * Values of 1 or less load them serially on the calling thread.
+         */
+        @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+        public static /* not final */ int SCAN_THREADS = SystemProperties.getInteger(AllUsers.class.getName() + ".scanThreads",
+                Math.min(8, Runtime.getRuntime().availableProcessors()));
+
         @Initializer(after = InitMilestone.JOB_CONFIG_ADAPTED)
         public static void scanAll() {
-            for (String userId : UserIdMapper.getInstance().getConvertedUserIds()) {
-                User user = new User(userId, userId);
-                getInstance().byName.putIfAbsent(idStrategy().keyFor(userId), user);
+            Set<String> userIds = UserIdMapper.getInstance().getConvertedUserIds();
+            int threads = Math.min(SCAN_THREADS, userIds.size());
+            if (threads <= 1) {
+                userIds.forEach(AllUsers::scan);
+                return;
             }
+            // loading each user reads and unmarshals its config.xml, so this is mostly I/O bound
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            ExecutorService executor = new ImpersonatingExecutorService(
+                    Executors.newFixedThreadPool(threads, new NamingThreadFactory(new DaemonThreadFactory(), "User.AllUsers.scanAll")),
+                    ACL.SYSTEM2);
+            try {
+                List<Future<?>> futures = new ArrayList<>(userIds.size());
+                for (String userId : userIds) {
+                    futures.add(executor.submit(() -> {
+                        Thread t = Thread.currentThread();
+                        ClassLoader old = t.getContextClassLoader();
+                        t.setContextClassLoader(contextClassLoader);
+                        try {
+                            scan(userId);
+                        } finally {
+                            t.setContextClassLoader(old);
+                        }
+                    }));
+                }
+                // like the serial path, a user failing to load fails the scan, but only once all users were attempted
+                Throwable failure = null;
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause();
+                        } else {
+                            failure.addSuppressed(e.getCause());
+                        }
+                    }
+                }
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                } else if (failure instanceof Error) {
+                    throw (Error) failure;
+                } else if (failure != null) {
+                    throw new IllegalStateException(failure);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.log(Level.WARNING, "Interrupted while loading users", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private static void scan(String userId) {
+            User user = new User(userId, userId);
+            getInstance().byName.putIfAbsent(idStrategy().keyFor(userId), user);
         }
 
         /**
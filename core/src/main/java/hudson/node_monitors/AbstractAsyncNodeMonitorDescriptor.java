@@ -53,6 +53,17 @@ public abstract class AbstractAsyncNodeMonitorDescriptor<T> extends AbstractNode
      */
     protected abstract @CheckForNull Callable<T, IOException> createCallable(Computer c);
 
+    /**
+     * Whether the {@link Callable} of this monitor may be sent to agents together with those of other monitors,
+     * rather than on its own. Monitors measuring the call itself should return {@code false}.
+     *
+     * @see NodeMonitorBatch
+     * @since TODO
+     */
+    protected boolean isBatched() {
+        return true;
+    }
+
     @Override
     protected T monitor(Computer c) throws IOException, InterruptedException {
         VirtualChannel ch = c.getChannel();
@@ -79,7 +90,15 @@ public abstract class AbstractAsyncNodeMonitorDescriptor<T> extends AbstractNode
     /**
      * Perform monitoring with detailed reporting.
      */
+    @SuppressWarnings("unchecked")
     protected final @NonNull Result<T> monitorDetailed() throws InterruptedException {
+        if (NodeMonitorBatch.ENABLED && isBatched()) {
+            Result<T> r = (Result<T>) NodeMonitorBatch.get().monitor(this);
+            if (r != null) {
+                return r;
+            }
+        }
+
         Map<Computer, Future<T>> futures = new HashMap<>();
         Set<Computer> skipped = new HashSet<>();
 
@@ -121,7 +140,7 @@ public abstract class AbstractAsyncNodeMonitorDescriptor<T> extends AbstractNode
         return new Result<>(data, skipped);
     }
 
-    private void error(Computer c, Throwable x) {
+    /*package*/ void error(Computer c, Throwable x) {
         // JENKINS-54496: don't log if c was removed from Jenkins after we'd started monitoring
         final boolean cIsStillCurrent = Jenkins.get().getComputer(c.getName()) == c;
         if (!cIsStillCurrent) {
@@ -158,7 +177,7 @@ public abstract class AbstractAsyncNodeMonitorDescriptor<T> extends AbstractNode
         private final @NonNull Map<Computer, T> data;
         private final @NonNull ArrayList<Computer> skipped;
 
-        private Result(@NonNull Map<Computer, T> data, @NonNull Collection<Computer> skipped) {
+        /*package*/ Result(@NonNull Map<Computer, T> data, @NonNull Collection<Computer> skipped) {
             this.data = new HashMap<>(data);
             this.skipped = new ArrayList<>(skipped);
         }
@@ -82,6 +82,15 @@ public class ClockMonitor extends NodeMonitor {
             return n.getClockDifferenceCallable();
         }
 
+        /**
+         * The agent clock would be read after the other monitors of a combined call had run,
+         * skewing the difference by their duration.
+         */
+        @Override
+        protected boolean isBatched() {
+            return false;
+        }
+
         @NonNull
         @Override
         public String getDisplayName() {
@@ -0,0 +1,367 @@
+package hudson.node_monitors;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.model.Computer;
+import hudson.model.ComputerSet;
+import hudson.remoting.Callable;
+import hudson.remoting.DelegatingCallable;
+import hudson.remoting.VirtualChannel;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.security.MasterToSlaveCallable;
+import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Collects the data of all {@link AbstractAsyncNodeMonitorDescriptor}s in combined rounds,
+ * sending a single {@link Callable} to each agent rather than one per monitor.
+ *
+ * <p>
+ * Whichever monitor updates first starts a round covering all configured monitors.
+ * Monitors updating while that round is in progress, or shortly after, use its results instead of contacting
+ * the agents again. The calls of a round are spread over a few seconds rather than sent to all agents at once.
+ * The round-trip time of the combined call is kept for the last few rounds of each agent.
+ */
+@Restricted(NoExternalUse.class)
+public final class NodeMonitorBatch {
+
+    private static final String PREFIX = NodeMonitorBatch.class.getName();
+
+    /**
+     * Whether {@link AbstractAsyncNodeMonitorDescriptor}s are monitored in combined rounds.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED = SystemProperties.getBoolean(PREFIX + ".enabled", true);
+
+    /**
+     * How long the results of a round are used by monitors updating after it completed.
+     */
+    private static final long MAX_AGE = TimeUnit.SECONDS.toMillis(SystemProperties.getLong(PREFIX + ".maxAgeSeconds", 10L));
+
+    /**
+     * Over how long the calls of a round are spread at most.
+     */
+    private static final long STAGGER = SystemProperties.getLong(PREFIX + ".staggerMillis", 5000L);
+
+    /**
+     * How many agents are contacted at once while spreading the calls of a round.
+     */
+    private static final int CHUNK_SIZE = Math.max(1, SystemProperties.getInteger(PREFIX + ".chunkSize", 100));
+
+    /**
+     * How many rounds are kept for each agent.
+     */
+    private static final int HISTORY_SIZE = Math.max(1, SystemProperties.getInteger(PREFIX + ".historySize", 10));
+
+    private static final NodeMonitorBatch INSTANCE = new NodeMonitorBatch();
+
+    @GuardedBy("this")
+    private Round current;
+
+    private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+
+    private NodeMonitorBatch() {}
+
+    public static NodeMonitorBatch get() {
+        return INSTANCE;
+    }
+
+    /**
+     * One sample of the round-trip time of a combined call.
+     *
+     * @param timestamp when the call completed
+     * @param millis the round-trip time, or -1 if the call failed
+     */
+    public record Sample(long timestamp, long millis) {}
+
+    /**
+     * Fixed-size ring of samples.
+     */
+    private static final class Series {
+        @GuardedBy("this")
+        private final long[] timestamps = new long[HISTORY_SIZE];
+        @GuardedBy("this")
+        private final long[] millis = new long[HISTORY_SIZE];
+        @GuardedBy("this")
+        private int next;
+        @GuardedBy("this")
+        private int size;
+
+        synchronized void add(long timestamp, long ms) {
+            timestamps[next] = timestamp;
+            millis[next] = ms;
+            next = (next + 1) % HISTORY_SIZE;
+            size = Math.min(size + 1, HISTORY_SIZE);
+        }
+
+        synchronized List<Sample> toList() {
+            List<Sample> r = new ArrayList<>(size);
+            for (int i = size; i > 0; i--) {
+                int j = (next - i + HISTORY_SIZE) % HISTORY_SIZE;
+                r.add(new Sample(timestamps[j], millis[j]));
+            }
+            return r;
+        }
+    }
+
+    /**
+     * @return the round-trip times of the last combined calls to this computer, oldest first
+     */
+    @NonNull
+    public List<Sample> getSeries(@NonNull Computer c) {
+        Series s = series.get(c.getName());
+        return s == null ? List.of() : s.toList();
+    }
+
+    /**
+     * Monitors all computers for the given monitor, as part of a combined round.
+     *
+     * @return the results, or null if the round was aborted
+     */
+    AbstractAsyncNodeMonitorDescriptor.Result<?> monitor(@NonNull AbstractAsyncNodeMonitorDescriptor<?> d) throws InterruptedException {
+        Round round;
+        boolean run = false;
+        synchronized (this) {
+            round = current;
+            if (round == null || !round.descriptors.contains(d) || round.isStale()) {
+                round = new Round(descriptors(d));
+                current = round;
+                run = true;
+            }
+        }
+        if (run) {
+            try {
+                round.results.complete(round.run());
+            } finally {
+                // no-op unless run failed
+                round.results.cancel(false);
+                round.completed = System.currentTimeMillis();
+            }
+        }
+        try {
+            return round.results.get().get(d);
+        } catch (ExecutionException | CancellationException e) {
+            LOGGER.log(Level.FINE, "Combined node monitoring round was aborted", e);
+            return null;
+        }
+    }
+
+    private static Set<AbstractAsyncNodeMonitorDescriptor<?>> descriptors(AbstractAsyncNodeMonitorDescriptor<?> d) {
+        Set<AbstractAsyncNodeMonitorDescriptor<?>> r = new LinkedHashSet<>();
+        r.add(d);
+        for (NodeMonitor m : ComputerSet.getMonitors()) {
+            if (m.getDescriptor() instanceof AbstractAsyncNodeMonitorDescriptor<?> a && a.isBatched()) {
+                r.add(a);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * The monitors whose callables are sent to one computer in one call.
+     */
+    private static final class Batch {
+        final ClassLoader loader;
+        final List<AbstractAsyncNodeMonitorDescriptor<?>> descriptors = new ArrayList<>();
+        final List<Callable<?, ?>> callables = new ArrayList<>();
+
+        Batch(ClassLoader loader) {
+            this.loader = loader;
+        }
+    }
+
+    private record Call(Computer computer, Batch batch, long start, Future<Object[]> future) {}
+
+    private final class Round {
+        final Set<AbstractAsyncNodeMonitorDescriptor<?>> descriptors;
+        final CompletableFuture<Map<AbstractAsyncNodeMonitorDescriptor<?>, AbstractAsyncNodeMonitorDescriptor.Result<?>>> results = new CompletableFuture<>();
+        volatile long completed;
+
+        Round(Set<AbstractAsyncNodeMonitorDescriptor<?>> descriptors) {
+            this.descriptors = descriptors;
+        }
+
+        boolean isStale() {
+            long c = completed;
+            return c != 0 && System.currentTimeMillis() - c > MAX_AGE;
+        }
+
+        Map<AbstractAsyncNodeMonitorDescriptor<?>, AbstractAsyncNodeMonitorDescriptor.Result<?>> run() throws InterruptedException {
+            Map<AbstractAsyncNodeMonitorDescriptor<?>, Map<Computer, Object>> data = new HashMap<>();
+            Map<AbstractAsyncNodeMonitorDescriptor<?>, Set<Computer>> skipped = new HashMap<>();
+            long timeout = 0;
+            for (AbstractAsyncNodeMonitorDescriptor<?> d : descriptors) {
+                data.put(d, new HashMap<>());
+                skipped.put(d, new HashSet<>());
+                timeout = Math.max(timeout, d.getMonitoringTimeOut());
+            }
+
+            Computer[] computers = Jenkins.get().getComputers();
+            int chunks = (computers.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            // leave most of the time out for the agents contacted last
+            long pause = chunks > 1 ? Math.min(STAGGER, timeout / 4) / (chunks - 1) : 0;
+            final long end = System.currentTimeMillis() + timeout;
+
+            List<Call> calls = new ArrayList<>();
+            for (int i = 0; i < computers.length; i++) {
+                if (i > 0 && i % CHUNK_SIZE == 0 && pause > 0) {
+                    Thread.sleep(pause);
+                }
+                Computer c = computers[i];
+                VirtualChannel ch = c.getChannel();
+                Map<ClassLoader, Batch> batches = new LinkedHashMap<>();
+                for (AbstractAsyncNodeMonitorDescriptor<?> d : descriptors) {
+                    data.get(d).put(c, null);    // sentinel value
+                    if (ch == null) {
+                        skipped.get(d).add(c);
+                        continue;
+                    }
+                    try {
+                        Callable<?, ?> cc = d.createCallable(c);
+                        if (cc == null) {
+                            skipped.get(d).add(c);
+                            continue;
+                        }
+                        // callables from plugins need their own class loader to be resolved on the agent
+                        Batch b = batches.computeIfAbsent(loaderOf(cc), Batch::new);
+                        b.descriptors.add(d);
+                        b.callables.add(cc);
+                    } catch (RuntimeException e) {
+                        d.error(c, e);
+                    }
+                }
+                for (Batch b : batches.values()) {
+                    try {
+                        calls.add(new Call(c, b, System.nanoTime(), ch.callAsync(new Composite(b.loader, b.callables))));
+                    } catch (RuntimeException | IOException e) {
+                        for (AbstractAsyncNodeMonitorDescriptor<?> d : b.descriptors) {
+                            d.error(c, e);
+                        }
+                    }
+                }
+            }
+
+            for (Call call : calls) {
+                Computer c = call.computer;
+                try {
+                    Object[] values = call.future.get(Math.max(0, end - System.currentTimeMillis()), MILLISECONDS);
+                    record(c, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - call.start));
+                    for (int j = 0; j < values.length; j++) {
+                        AbstractAsyncNodeMonitorDescriptor<?> d = call.batch.descriptors.get(j);
+                        if (values[j] instanceof Failure f) {
+                            d.error(c, f.cause);
+                        } else {
+                            data.get(d).put(c, values[j]);
+                        }
+                    }
+                } catch (RuntimeException | TimeoutException | ExecutionException x) {
+                    record(c, -1);
+                    for (AbstractAsyncNodeMonitorDescriptor<?> d : call.batch.descriptors) {
+                        d.error(c, x);
+                    }
+                }
+            }
+
+            Set<String> names = new HashSet<>();
+            for (Computer c : computers) {
+                names.add(c.getName());
+            }
+            series.keySet().retainAll(names);
+
+            Map<AbstractAsyncNodeMonitorDescriptor<?>, AbstractAsyncNodeMonitorDescriptor.Result<?>> r = new HashMap<>();
+            for (AbstractAsyncNodeMonitorDescriptor<?> d : descriptors) {
+                r.put(d, new AbstractAsyncNodeMonitorDescriptor.Result<>(data.get(d), skipped.get(d)));
+            }
+            LOGGER.log(Level.FINE, "Combined node monitoring of {0} computers for {1} monitors sent {2} calls",
+                    new Object[] {computers.length, descriptors.size(), calls.size()});
+            return r;
+        }
+    }
+
+    private void record(Computer c, long millis) {
+        series.computeIfAbsent(c.getName(), k -> new Series()).add(System.currentTimeMillis(), millis);
+    }
+
+    private static ClassLoader loaderOf(Callable<?, ?> cc) {
+        return cc instanceof DelegatingCallable<?, ?> dc ? dc.getClassLoader() : cc.getClass().getClassLoader();
+    }
+
+    /**
+     * Exception thrown by one of the callables of a {@link Composite}.
+     */
+    private static final class Failure implements Serializable {
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Runs the callables of several monitors in a single call, isolating their failures from each other.
+     */
+    private static final class Composite extends MasterToSlaveCallable<Object[], IOException> implements DelegatingCallable<Object[], IOException> {
+        private final transient ClassLoader loader;
+        private final Callable<?, ?>[] callables;
+
+        Composite(ClassLoader loader, Collection<Callable<?, ?>> callables) {
+            this.loader = loader;
+            this.callables = callables.toArray(new Callable<?, ?>[0]);
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return loader;
+        }
+
+        @Override
+        public Object[] call() {
+            Object[] r = new Object[callables.length];
+            for (int i = 0; i < callables.length; i++) {
+                try {
+                    r[i] = callables[i].call();
+                } catch (Exception | LinkageError e) {
+                    r[i] = new Failure(e);
+                }
+            }
+            return r;
+        }
+
+        @Override
+        public String toString() {
+            return "Composite" + Arrays.toString(callables);
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(NodeMonitorBatch.class.getName());
+}
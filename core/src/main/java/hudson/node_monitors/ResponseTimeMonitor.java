@@ -24,13 +24,18 @@
 
 package hudson.node_monitors;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
 import hudson.model.Computer;
 import hudson.remoting.Callable;
+import hudson.remoting.Channel;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.PingScheduler;
 import java.io.IOException;
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.Map;
 import java.util.logging.Logger;
 import jenkins.security.MasterToSlaveCallable;
@@ -67,6 +72,14 @@ public class ResponseTimeMonitor extends NodeMonitor {
             return new Step1(get(c));
         }
 
+        /**
+         * The round trip of a combined call would include the time taken by the other monitors.
+         */
+        @Override
+        protected boolean isBatched() {
+            return false;
+        }
+
         @Override
         protected Map<Computer, Data> monitor() throws InterruptedException {
             Result<Data> base = monitorDetailed();
@@ -81,8 +94,11 @@ public class ResponseTimeMonitor extends NodeMonitor {
 
                 if (d == null) {
                     // if we failed to monitor, put in the special value that indicates a failure
-                    e.setValue(d = new Data(get(c), -1L));
+                    d = new Data(get(c), -1L);
                 }
+                VirtualChannel ch = c.getChannel();
+                PingScheduler.RoundTrips roundTrips = ch instanceof Channel ? PingScheduler.get().getRoundTrips((Channel) ch) : null;
+                e.setValue(d = new Data(d, roundTrips != null ? new PingStatistics(roundTrips) : null));
 
                 if (d.hasTooManyTimeouts() && !isIgnored()) {
                     // unlike other monitors whose failure still allow us to communicate with the agent,
@@ -168,7 +184,19 @@ public class ResponseTimeMonitor extends NodeMonitor {
          */
         private final long[] past5;
 
+        /**
+         * Recent pings of the agent channel, as of this measurement.
+         * Only known on the controller.
+         */
+        private final transient PingStatistics pings;
+
+        private Data(Data d, PingStatistics pings) {
+            this.past5 = d.past5;
+            this.pings = pings;
+        }
+
         private Data(Data old, long newDataPoint) {
+            pings = null;
             if (old == null)
                 past5 = new long[] {newDataPoint};
             else {
@@ -203,6 +231,29 @@ public class ResponseTimeMonitor extends NodeMonitor {
             return total / past5.length;
         }
 
+        /**
+         * @return the round-trip times of the recent pings of the agent channel, or null if it is not pinged
+         * @since TODO
+         */
+        @Exported
+        @CheckForNull
+        public PingStatistics getPings() {
+            return pings;
+        }
+
+        /**
+         * @return a description of {@link #getPings}, or null if no ping completed
+         * @since TODO
+         */
+        @CheckForNull
+        public String getPingSummary() {
+            if (pings == null || pings.getMedian() == null) {
+                return null;
+            }
+            return Messages.ResponseTimeMonitor_Pings(pings.getCount(), pings.getMedian(), pings.getPercentile90(), pings.getPercentile99(),
+                    pings.getMaximum(), pings.getFailures());
+        }
+
         public boolean hasTooManyTimeouts() {
             return failureCount() >= 5;
         }
@@ -226,6 +277,75 @@ public class ResponseTimeMonitor extends NodeMonitor {
         private static final long serialVersionUID = 1L;
     }
 
+    /**
+     * Distribution of the round-trip times of the recent pings of an agent channel, in milliseconds.
+     * Unlike {@link Data#getAverage}, these come from the pings of the channel itself, which are far more frequent.
+     *
+     * @see PingScheduler
+     * @since TODO
+     */
+    @ExportedBean
+    public static final class PingStatistics {
+        private final PingScheduler.RoundTrips roundTrips;
+
+        PingStatistics(@NonNull PingScheduler.RoundTrips roundTrips) {
+            this.roundTrips = roundTrips;
+        }
+
+        /**
+         * @return the number of pings completed since the channel was opened
+         */
+        @Exported
+        public long getCount() {
+            return roundTrips.pings();
+        }
+
+        /**
+         * @return the number of pings which failed or timed out
+         */
+        @Exported
+        public long getFailures() {
+            return roundTrips.failures();
+        }
+
+        /**
+         * @return the number of pings the percentiles are computed from
+         */
+        @Exported
+        public int getRecent() {
+            return roundTrips.recent().size();
+        }
+
+        @Exported
+        @CheckForNull
+        public Double getMedian() {
+            return millis(0.5);
+        }
+
+        @Exported
+        @CheckForNull
+        public Double getPercentile90() {
+            return millis(0.9);
+        }
+
+        @Exported
+        @CheckForNull
+        public Double getPercentile99() {
+            return millis(0.99);
+        }
+
+        @Exported
+        @CheckForNull
+        public Double getMaximum() {
+            return millis(1);
+        }
+
+        private Double millis(double p) {
+            Duration d = roundTrips.percentile(p);
+            return d != null ? d.toNanos() / 1e6 : null;
+        }
+    }
+
     /**
      * Time out interval in milliseconds.
      */
@@ -24,6 +24,7 @@
 
 package hudson.search;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Collection;
 import java.util.Collections;
@@ -66,7 +67,8 @@ public abstract class CollectionSearchIndex<SMT extends SearchableModelObject> i
         if (isCaseSensitive) {
           token = token.toLowerCase();
         }
-        for (SMT o : allAsIterable()) {
+        Iterable<SMT> candidates = candidates(token);
+        for (SMT o : candidates != null ? candidates : allAsIterable()) {
             String name = getName(o);
             if (isCaseSensitive)
                 name = name.toLowerCase();
@@ -75,6 +77,18 @@ public abstract class CollectionSearchIndex<SMT extends SearchableModelObject> i
         }
     }
 
+    /**
+     * Narrows down the items {@link #suggest(String, List)} needs to look at for the given token.
+     * Implementations must return, ignoring case, at least every item whose {@link #getName} contains the token.
+     *
+     * @return null to look at {@link #allAsIterable()}
+     * @since TODO
+     */
+    @CheckForNull
+    protected Iterable<SMT> candidates(@NonNull String token) {
+        return null;
+    }
+
     protected String getName(SMT o) {
         return o.getDisplayName();
     }
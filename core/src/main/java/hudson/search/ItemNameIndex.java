@@ -0,0 +1,205 @@
+package hudson.search;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Saveable;
+import hudson.model.TopLevelItem;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Trigram index over the display names of all {@link TopLevelItem}s, maintained through {@link ItemListener}
+ * and {@link SaveableListener}, so that search suggestions do not need to walk every item in the system.
+ *
+ * <p>
+ * The index only narrows down candidates by full name. Callers still resolve each candidate
+ * (which takes care of permissions) and match it against its current display name.
+ */
+@Restricted(NoExternalUse.class)
+@Extension
+public final class ItemNameIndex {
+
+    /**
+     * Whether {@link Jenkins#makeSearchIndex()} uses this index. Off by default,
+     * as items computing their display name dynamically may not be found.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED = SystemProperties.getBoolean(ItemNameIndex.class.getName() + ".enabled");
+
+    private static final int GRAM = 3;
+
+    /**
+     * Lower-cased display name, by item full name.
+     */
+    @GuardedBy("this")
+    private final Map<String, String> names = new HashMap<>();
+
+    /**
+     * Full names of the items whose lower-cased display name contains a given trigram.
+     */
+    @GuardedBy("this")
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    @GuardedBy("this")
+    private boolean ready;
+
+    public static ItemNameIndex get() {
+        return ExtensionList.lookupSingleton(ItemNameIndex.class);
+    }
+
+    /**
+     * Finds the full names of the items whose display name may contain the given token,
+     * ignoring case, sorted by full name.
+     *
+     * @return null if the index cannot answer, in which case callers should fall back to scanning all items.
+     */
+    @CheckForNull
+    public synchronized List<String> candidates(@NonNull String token) {
+        if (!ENABLED || !ready || token.length() < GRAM) {
+            return null;
+        }
+        String lower = token.toLowerCase();
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            Set<String> s = grams.get(lower.substring(i, i + GRAM));
+            if (s == null) {
+                return new ArrayList<>();
+            }
+            if (smallest == null || s.size() < smallest.size()) {
+                smallest = s;
+            }
+        }
+        List<String> r = new ArrayList<>();
+        for (String fullName : smallest) {
+            if (names.get(fullName).contains(lower)) {
+                r.add(fullName);
+            }
+        }
+        r.sort(null);
+        return r;
+    }
+
+    synchronized void put(@NonNull String fullName, @NonNull String displayName) {
+        remove(fullName);
+        String lower = displayName.toLowerCase();
+        names.put(fullName, lower);
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            grams.computeIfAbsent(lower.substring(i, i + GRAM), k -> new HashSet<>()).add(fullName);
+        }
+    }
+
+    synchronized void remove(@NonNull String fullName) {
+        String lower = names.remove(fullName);
+        if (lower == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            String gram = lower.substring(i, i + GRAM);
+            Set<String> s = grams.get(gram);
+            if (s != null) {
+                s.remove(fullName);
+                if (s.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    synchronized void clear() {
+        names.clear();
+        grams.clear();
+        ready = false;
+    }
+
+    synchronized void markReady() {
+        ready = true;
+    }
+
+    private void put(Item item) {
+        if (item instanceof TopLevelItem && isReady()) {
+            put(item.getFullName(), item.getDisplayName());
+        }
+    }
+
+    private synchronized boolean isReady() {
+        return ready;
+    }
+
+    private void rebuild() {
+        clear();
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            for (TopLevelItem item : Jenkins.get().allItems(TopLevelItem.class)) {
+                put(item.getFullName(), item.getDisplayName());
+            }
+        }
+        markReady();
+    }
+
+    @Extension
+    public static final class Listener extends ItemListener {
+        @Override
+        public void onLoaded() {
+            if (ENABLED) {
+                get().rebuild();
+            }
+        }
+
+        @Override
+        public void onCreated(Item item) {
+            get().put(item);
+        }
+
+        @Override
+        public void onCopied(Item src, Item item) {
+            get().put(item);
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            get().put(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            get().remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            ItemNameIndex index = get();
+            index.remove(oldFullName);
+            index.put(item);
+        }
+    }
+
+    /**
+     * Picks up display name changes made through {@link hudson.model.AbstractItem#setDisplayName(String)}.
+     */
+    @Extension
+    public static final class SaveListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof TopLevelItem) {
+                get().put((Item) o);
+            }
+        }
+    }
+}
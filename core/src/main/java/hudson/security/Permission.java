@@ -27,6 +27,7 @@ package hudson.security;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.Hudson;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -35,6 +36,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import jenkins.model.Jenkins;
 import net.sf.json.util.JSONUtils;
 import org.jvnet.localizer.Localizable;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 
 /**
  * Permission, which represents activity that requires a security privilege.
@@ -112,6 +115,12 @@ public final class Permission {
      */
     private final @NonNull Set<PermissionScope> scopes;
 
+    /**
+     * This permission followed by its transitive {@link #impliedBy} chain, closest first.
+     * Computed once, since {@link #impliedBy} never changes.
+     */
+    private final @NonNull List<Permission> implications;
+
     /**
      * Defines a new permission.
      *
@@ -150,6 +159,11 @@ public final class Permission {
         this.enabled = enable;
         this.scopes = Set.of(scopes);
         this.id = owner.getName() + '.' + name;
+        List<Permission> implications = new ArrayList<>();
+        for (Permission p = this; p != null; p = p.impliedBy) {
+            implications.add(p);
+        }
+        this.implications = Collections.unmodifiableList(implications);
 
         group.add(this);
         ALL.add(this);
@@ -203,6 +217,17 @@ public final class Permission {
         return false;
     }
 
+    /**
+     * Returns this permission followed by every permission that implies it,
+     * in the order of the {@link #impliedBy} chain.
+     *
+     * @return never empty; the first element is always this permission.
+     */
+    @Restricted(NoExternalUse.class)
+    public @NonNull List<Permission> getImplications() {
+        return implications;
+    }
+
     /**
      * Returns the string representation of this {@link Permission},
      * which can be converted back to {@link Permission} via the
@@ -27,12 +27,27 @@ package hudson.security;
 import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.FINER;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Node;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.acegisecurity.acls.sid.GrantedAuthoritySid;
 import org.acegisecurity.acls.sid.PrincipalSid;
 import org.acegisecurity.acls.sid.Sid;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -51,7 +66,7 @@ public abstract class SidACL extends ACL {
                 LOGGER.fine("hasPermission(" + a + "," + permission + ")=>SYSTEM user has full access");
             return true;
         }
-        Boolean b = _hasPermission(a, permission);
+        Boolean b = decide(a, permission);
 
         if (LOGGER.isLoggable(FINE))
             LOGGER.fine("hasPermission(" + a + "," + permission + ")=>" + (b == null ? "null, thus false" : b));
@@ -99,6 +114,53 @@ public abstract class SidACL extends ACL {
         return null;
     }
 
+    /**
+     * Calls {@link #_hasPermission(Authentication, Permission)}, consulting the decision cache first if it is enabled.
+     */
+    @SuppressFBWarnings(value = "NP_BOOLEAN_RETURN_NULL", justification = "same contract as _hasPermission")
+    final Boolean decide(@NonNull Authentication a, Permission permission) {
+        if (DECISION_CACHE_EXPIRE_AFTER_WRITE_SEC <= 0 || permission == null) {
+            return _hasPermission(a, permission);
+        }
+        Cache<DecisionKey, Optional<Boolean>> cache = decisionCache;
+        long generation = DECISION_CACHE_GENERATION.get();
+        if (cache == null || decisionCacheBuiltAt != generation) {
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(DECISION_CACHE_MAXIMUM_SIZE)
+                    .expireAfterWrite(DECISION_CACHE_EXPIRE_AFTER_WRITE_SEC, TimeUnit.SECONDS)
+                    .build();
+            decisionCache = cache;
+            decisionCacheBuiltAt = generation;
+        }
+        DecisionKey key = new DecisionKey(a, permission);
+        Optional<Boolean> b = cache.getIfPresent(key);
+        if (b == null) {
+            b = Optional.ofNullable(_hasPermission(a, permission));
+            cache.put(key, b);
+        }
+        return b.orElse(null);
+    }
+
+    /**
+     * Discards decisions cached by this ACL, for example because its entries changed.
+     * Subclasses with mutable state should call this whenever that state changes.
+     *
+     * @since TODO
+     */
+    protected final void invalidateDecisionCache() {
+        decisionCache = null;
+    }
+
+    /**
+     * Discards the decisions cached by all {@link SidACL}s.
+     */
+    @Restricted(NoExternalUse.class)
+    public static void invalidateDecisionCaches() {
+        DECISION_CACHE_GENERATION.incrementAndGet();
+    }
+
+    private record DecisionKey(@NonNull Authentication authentication, @NonNull Permission permission) {}
+
     /**
      * Checks if the given {@link Sid} has the given {@link Permission}.
      *
@@ -150,5 +212,45 @@ public abstract class SidACL extends ACL {
         };
     }
 
+    /**
+     * Decisions of {@link #_hasPermission(Authentication, Permission)} for this ACL, or null if not yet computed.
+     * Authorization strategies usually create new ACL instances when reconfigured,
+     * and {@link ConfigurationListener} discards the rest whenever configuration is saved.
+     */
+    private transient volatile Cache<DecisionKey, Optional<Boolean>> decisionCache;
+    private transient volatile long decisionCacheBuiltAt;
+    private static final AtomicLong DECISION_CACHE_GENERATION = new AtomicLong();
+
+    /**
+     * Number of seconds a decision stays in the cache of a {@link SidACL}.
+     * Zero or negative disables the cache, which is the default.
+     */
+    @Restricted(NoExternalUse.class)
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ int DECISION_CACHE_EXPIRE_AFTER_WRITE_SEC = SystemProperties.getInteger(SidACL.class.getName() + ".decisionCacheExpireAfterWriteSec", 0);
+
+    /**
+     * Maximum number of decisions cached per {@link SidACL}.
+     */
+    @Restricted(NoExternalUse.class)
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ int DECISION_CACHE_MAXIMUM_SIZE = SystemProperties.getInteger(SidACL.class.getName() + ".decisionCacheMaximumSize", 1000);
+
+    /**
+     * Discards cached decisions whenever global, item or agent configuration is saved,
+     * since authorization strategies and the properties contributing to ACLs are persisted that way.
+     * Frequent saves of unrelated state, such as builds or API token statistics, keep the cache.
+     */
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class ConfigurationListener extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Jenkins || o instanceof Item || o instanceof Node) {
+                invalidateDecisionCaches();
+            }
+        }
+    }
+
     private static final Logger LOGGER = Logger.getLogger(SidACL.class.getName());
 }
@@ -28,7 +28,9 @@ import static java.util.logging.Level.FINE;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import org.acegisecurity.acls.sid.Sid;
 import org.springframework.security.core.Authentication;
@@ -53,6 +55,11 @@ public class SparseACL extends SidACL {
     }
 
     private final List<Entry> entries = new ArrayList<>();
+    /**
+     * Immutable snapshot of {@link #entries} indexed by {@link Sid} and then {@link Permission},
+     * where the first entry added wins, or null if it needs to be rebuilt.
+     */
+    private volatile Map<Sid, Map<Permission, Boolean>> index;
     /**
      * Parent to delegate to. Can be null.
      */
@@ -63,7 +70,29 @@ public class SparseACL extends SidACL {
     }
 
     public void add(Entry e) {
-        entries.add(e);
+        synchronized (entries) {
+            entries.add(e);
+            index = null;
+        }
+        invalidateDecisionCache();
+    }
+
+    private Map<Sid, Map<Permission, Boolean>> index() {
+        Map<Sid, Map<Permission, Boolean>> snapshot = index;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (entries) {
+            if (index == null) {
+                Map<Sid, Map<Permission, Boolean>> m = new HashMap<>();
+                for (Entry e : entries) {
+                    m.computeIfAbsent(e.sid, k -> new HashMap<>()).putIfAbsent(e.permission, e.allowed);
+                }
+                m.replaceAll((sid, granted) -> Map.copyOf(granted));
+                index = Map.copyOf(m);
+            }
+            return index;
+        }
     }
 
     public void add(Sid sid, Permission permission, boolean allowed) {
@@ -73,7 +102,7 @@ public class SparseACL extends SidACL {
     @Override
     public boolean hasPermission2(Authentication a, Permission permission) {
         if (a.equals(SYSTEM2))   return true;
-        Boolean b = _hasPermission(a, permission);
+        Boolean b = decide(a, permission);
         if (b != null) return b;
 
         if (parent != null) {
@@ -89,11 +118,17 @@ public class SparseACL extends SidACL {
     @SuppressFBWarnings(value = "NP_BOOLEAN_RETURN_NULL", justification = "converting this to YesNoMaybe would break backward compatibility")
     @Override
     protected Boolean hasPermission(Sid p, Permission permission) {
-        for ( ; permission != null; permission = permission.impliedBy) {
-            for (Entry e : entries) {
-                if (e.permission == permission && e.sid.equals(p))
-                    return e.allowed;
-            }
+        if (permission == null) {
+            return null;
+        }
+        Map<Permission, Boolean> granted = index().get(p);
+        if (granted == null) {
+            return null;
+        }
+        for (Permission implying : permission.getImplications()) {
+            Boolean b = granted.get(implying);
+            if (b != null)
+                return b;
         }
         return null;
     }
@@ -62,6 +62,11 @@ public class ChannelPinger extends ComputerListener {
     private static final String INTERVAL_MINUTES_PROPERTY_DEPRECATED = ChannelPinger.class.getName() + ".pingInterval";
     private static final String INTERVAL_SECONDS_PROPERTY = ChannelPinger.class.getName() + ".pingIntervalSeconds";
 
+    /**
+     * Whether channels are pinged by {@link PingScheduler} rather than by a {@link PingThread} each.
+     */
+    private static final boolean SHARED_SCHEDULER = SystemProperties.getBoolean(ChannelPinger.class.getName() + ".sharedScheduler", true);
+
     /**
      * Timeout for the ping in seconds.
      */
@@ -178,43 +183,16 @@ public class ChannelPinger extends ComputerListener {
     @Restricted(NoExternalUse.class)
     public static void setUpPingForChannel(final Channel channel, final SlaveComputer computer, int timeoutSeconds, int intervalSeconds, final boolean analysis) {
         LOGGER.log(Level.FINE, "setting up ping on {0} with a {1} seconds interval and {2} seconds timeout", new Object[] {channel.getName(), intervalSeconds, timeoutSeconds});
+        if (SHARED_SCHEDULER) {
+            PingScheduler.get().register(channel, TimeUnit.SECONDS.toMillis(timeoutSeconds), TimeUnit.SECONDS.toMillis(intervalSeconds),
+                    cause -> onDead(channel, computer, analysis, channel.isClosingOrClosed(), cause));
+            return;
+        }
         final AtomicBoolean isInClosed = new AtomicBoolean(false);
         final PingThread t = new PingThread(channel, TimeUnit.SECONDS.toMillis(timeoutSeconds), TimeUnit.SECONDS.toMillis(intervalSeconds)) {
             @Override
             protected void onDead(Throwable cause) {
-                    if (analysis) {
-                        analyze(cause);
-                    }
-                    boolean inClosed = isInClosed.get();
-                    // Disassociate computer channel before closing it
-                    if (computer != null) {
-                        Exception exception = cause instanceof Exception ? (Exception) cause : new IOException(cause);
-                        computer.disconnect(new OfflineCause.ChannelTermination(exception));
-                    }
-                    if (inClosed) {
-                        LOGGER.log(Level.FINE, "Ping failed after the channel " + channel.getName() + " is already partially closed.", cause);
-                    } else {
-                        LOGGER.log(Level.INFO, "Ping failed. Terminating the channel " + channel.getName() + ".", cause);
-                        if (computer == null) {
-                            // Disconnect from agent side.
-                            try {
-                                channel.close(cause);
-                            } catch (IOException x) {
-                                LOGGER.log(Level.WARNING, "could not disconnect " + channel.getName(), x);
-                            }
-                        }
-                    }
-            }
-            /** Keep in a separate method so we do not even try to do class loading on {@link PingFailureAnalyzer} from an agent JVM. */
-
-            private void analyze(Throwable cause) {
-                for (PingFailureAnalyzer pfa : PingFailureAnalyzer.all()) {
-                    try {
-                        pfa.onPingFailure(channel, cause);
-                    } catch (IOException ex) {
-                        LOGGER.log(Level.WARNING, "Ping failure analyzer " + pfa.getClass().getName() + " failed for " + channel.getName(), ex);
-                    }
-                }
+                ChannelPinger.onDead(channel, computer, analysis, isInClosed.get(), cause);
             }
 
             @Deprecated
@@ -237,4 +215,39 @@ public class ChannelPinger extends ComputerListener {
         LOGGER.log(Level.FINE, "Ping thread started for {0} with a {1} seconds interval and a {2} seconds timeout",
                    new Object[] { channel, intervalSeconds, timeoutSeconds });
     }
+
+    private static void onDead(Channel channel, @CheckForNull SlaveComputer computer, boolean analysis, boolean inClosed, Throwable cause) {
+        if (analysis) {
+            analyze(channel, cause);
+        }
+        // Disassociate computer channel before closing it
+        if (computer != null) {
+            Exception exception = cause instanceof Exception ? (Exception) cause : new IOException(cause);
+            computer.disconnect(new OfflineCause.ChannelTermination(exception));
+        }
+        if (inClosed) {
+            LOGGER.log(Level.FINE, "Ping failed after the channel " + channel.getName() + " is already partially closed.", cause);
+        } else {
+            LOGGER.log(Level.INFO, "Ping failed. Terminating the channel " + channel.getName() + ".", cause);
+            if (computer == null) {
+                // Disconnect from agent side.
+                try {
+                    channel.close(cause);
+                } catch (IOException x) {
+                    LOGGER.log(Level.WARNING, "could not disconnect " + channel.getName(), x);
+                }
+            }
+        }
+    }
+
+    /** Keep in a separate method so we do not even try to do class loading on {@link PingFailureAnalyzer} from an agent JVM. */
+    private static void analyze(Channel channel, Throwable cause) {
+        for (PingFailureAnalyzer pfa : PingFailureAnalyzer.all()) {
+            try {
+                pfa.onPingFailure(channel, cause);
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Ping failure analyzer " + pfa.getClass().getName() + " failed for " + channel.getName(), ex);
+            }
+        }
+    }
 }
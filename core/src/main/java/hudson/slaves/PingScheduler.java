@@ -0,0 +1,310 @@
+package hudson.slaves;
+
+import com.google.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.remoting.Callable;
+import hudson.remoting.Channel;
+import hudson.remoting.ChannelClosedException;
+import hudson.remoting.PingThread;
+import hudson.remoting.RequestAbortedException;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
+import org.jenkinsci.remoting.RoleChecker;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Pings the channels set up by {@link ChannelPinger} from a single thread, on the controller as well as on agents.
+ *
+ * <p>
+ * Unlike {@link PingThread}, which blocks a thread per channel while waiting for each response,
+ * pings are sent asynchronously and outstanding pings are checked at growing intervals until their deadline,
+ * all through the delay queue of one scheduled executor, so that the number of threads does not grow with
+ * the number of agents. Once a ping fails or times out, the failure handling of {@link ChannelPinger} runs as before.
+ *
+ * <p>
+ * The round-trip times of recent pings are kept per channel.
+ * As responses are polled, each is an upper bound of the actual round-trip time, within a factor of two.
+ */
+@Restricted(NoExternalUse.class)
+public final class PingScheduler {
+
+    private static final String PREFIX = PingScheduler.class.getName();
+
+    /**
+     * Longest interval between two checks of an outstanding ping.
+     */
+    private static final long MAX_CHECK_MILLIS = SystemProperties.getLong(PREFIX + ".maxCheckMillis", 100L);
+
+    /**
+     * Number of round-trip times kept per channel.
+     */
+    private static final int HISTORY_SIZE = Math.max(1, SystemProperties.getInteger(PREFIX + ".historySize", 100));
+
+    private static final PingScheduler INSTANCE = new PingScheduler();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * Sends pings, as that may block along with the transport, and runs failure handling.
+     * Both are short-lived, so this only has threads while some are in progress.
+     */
+    private final ExecutorService io = Executors.newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), "Ping I/O"));
+
+    private final Map<Channel, Pinger> pingers = new ConcurrentHashMap<>();
+
+    private PingScheduler() {
+        scheduler = new ScheduledThreadPoolExecutor(1, new NamingThreadFactory(new DaemonThreadFactory(), "Ping scheduler"));
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public static PingScheduler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts pinging a channel until it is closed or a ping fails.
+     *
+     * @param onDead called once a ping fails or times out
+     */
+    void register(@NonNull Channel channel, long timeoutMillis, long intervalMillis, @NonNull Consumer<Throwable> onDead) {
+        Pinger p = new Pinger(channel, timeoutMillis, intervalMillis, onDead);
+        Pinger old = pingers.put(channel, p);
+        if (old != null) {
+            old.stop();
+        }
+        channel.addListener(new Channel.Listener() {
+            @Override
+            public void onClosed(Channel channel, IOException cause) {
+                LOGGER.fine(() -> "Terminating ping for " + channel.getName());
+                p.stop();
+            }
+        });
+        p.schedule(0);
+    }
+
+    /**
+     * @return statistics about the pings of a channel, or null if it is not pinged from here
+     */
+    @CheckForNull
+    public RoundTrips getRoundTrips(@NonNull Channel channel) {
+        Pinger p = pingers.get(channel);
+        return p != null ? p.getRoundTrips() : null;
+    }
+
+    /**
+     * Runs the failure handling of a channel as if a ping had failed.
+     *
+     * @return whether the channel was pinged from here
+     */
+    @VisibleForTesting
+    boolean fail(@NonNull Channel channel, @NonNull Throwable cause) {
+        Pinger p = pingers.get(channel);
+        if (p == null) {
+            return false;
+        }
+        p.fail(cause);
+        return true;
+    }
+
+    /**
+     * Statistics about the pings of a channel.
+     *
+     * @param pings the number of completed pings
+     * @param failures the number of failed pings
+     * @param recent the round-trip times of the most recent pings, oldest first
+     */
+    public record RoundTrips(long pings, long failures, @NonNull List<Duration> recent) {
+
+        /**
+         * @param p between 0 and 1
+         * @return the given percentile of recent round-trip times, or null if none
+         */
+        @CheckForNull
+        public Duration percentile(double p) {
+            if (recent.isEmpty()) {
+                return null;
+            }
+            List<Duration> sorted = new ArrayList<>(recent);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.min(sorted.size() - 1, Math.max(0, Math.ceil(p * sorted.size()) - 1)));
+        }
+    }
+
+    private final class Pinger {
+        private final Channel channel;
+        private final long timeout;
+        private final long interval;
+        private final Consumer<Throwable> onDead;
+
+        private volatile boolean stopped;
+
+        @GuardedBy("this")
+        private ScheduledFuture<?> next;
+
+        @GuardedBy("this")
+        private final long[] roundTrips = new long[HISTORY_SIZE];
+
+        @GuardedBy("this")
+        private long pings;
+
+        @GuardedBy("this")
+        private long failures;
+
+        Pinger(Channel channel, long timeout, long interval, Consumer<Throwable> onDead) {
+            this.channel = channel;
+            this.timeout = timeout;
+            this.interval = interval;
+            this.onDead = onDead;
+        }
+
+        synchronized void schedule(long delay) {
+            if (!stopped) {
+                next = scheduler.schedule(this::send, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void stop() {
+            halt();
+            pingers.remove(channel, this);
+        }
+
+        /**
+         * Stops pinging, but keeps statistics available until the channel is closed.
+         */
+        synchronized void halt() {
+            stopped = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+
+        private void send() {
+            if (stopped) {
+                return;
+            }
+            Outstanding o = new Outstanding();
+            io.execute(() -> {
+                try {
+                    o.response = channel.callAsync(new Ping());
+                } catch (ChannelClosedException e) {
+                    LOGGER.log(Level.FINE, "Channel " + channel.getName() + " closed, no longer pinging it", e);
+                    stop();
+                } catch (IOException e) {
+                    o.failure = e;
+                }
+            });
+            check(o, 1);
+        }
+
+        private void check(Outstanding o, long delay) {
+            if (stopped) {
+                return;
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - o.start);
+            if (o.failure != null) {
+                fail(o.failure);
+                return;
+            }
+            Future<?> response = o.response;
+            if (response != null && response.isDone()) {
+                try {
+                    response.get();
+                    record(System.nanoTime() - o.start);
+                    // as for PingThread, the interval runs from the start of the previous ping
+                    schedule(Math.max(0, interval - elapsed));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RequestAbortedException) {
+                        // the channel is shutting down orderly
+                        stop();
+                    } else {
+                        fail(e);
+                    }
+                } catch (InterruptedException | CancellationException e) {
+                    stop();
+                }
+                return;
+            }
+            if (elapsed >= timeout) {
+                fail(new TimeoutException("Ping started at " + o.startMillis + " hasn't completed by " + System.currentTimeMillis()));
+                return;
+            }
+            long d = Math.min(Math.min(delay * 2, MAX_CHECK_MILLIS), timeout - elapsed);
+            synchronized (this) {
+                if (!stopped) {
+                    next = scheduler.schedule(() -> check(o, d), d, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        private synchronized void record(long nanos) {
+            roundTrips[(int) (pings % roundTrips.length)] = nanos;
+            pings++;
+        }
+
+        void fail(Throwable cause) {
+            synchronized (this) {
+                failures++;
+                halt();
+            }
+            io.execute(() -> onDead.accept(cause));
+        }
+
+        synchronized RoundTrips getRoundTrips() {
+            int size = (int) Math.min(pings, roundTrips.length);
+            List<Duration> recent = new ArrayList<>(size);
+            for (long i = pings - size; i < pings; i++) {
+                recent.add(Duration.ofNanos(roundTrips[(int) (i % roundTrips.length)]));
+            }
+            return new RoundTrips(pings, failures, Collections.unmodifiableList(recent));
+        }
+    }
+
+    private static final class Outstanding {
+        final long start = System.nanoTime();
+        final long startMillis = System.currentTimeMillis();
+        volatile Future<?> response;
+        volatile IOException failure;
+    }
+
+    /**
+     * Does nothing, so it may be sent in either direction.
+     */
+    private static final class Ping implements Callable<Void, IOException> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Void call() {
+            return null;
+        }
+
+        @Override
+        public void checkRoles(RoleChecker checker) throws SecurityException {
+            // allowed in both directions
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(PingScheduler.class.getName());
+}
@@ -79,6 +79,8 @@ import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 import jenkins.agents.AgentComputerUtil;
+import jenkins.agents.ComputerListenerDispatcher;
+import jenkins.agents.LaunchScheduler;
 import jenkins.model.Jenkins;
 import jenkins.security.ChannelConfigurator;
 import jenkins.security.MasterToSlaveCallable;
@@ -86,7 +88,6 @@ import jenkins.slaves.EncryptedSlaveAgentJnlpFile;
 import jenkins.slaves.JnlpAgentReceiver;
 import jenkins.slaves.RemotingVersionInfo;
 import jenkins.slaves.systemInfo.SlaveSystemInfo;
-import jenkins.util.Listeners;
 import jenkins.util.SystemProperties;
 import org.jenkinsci.remoting.ChannelStateException;
 import org.jenkinsci.remoting.util.LoggingChannelListener;
@@ -284,7 +285,9 @@ public class SlaveComputer extends Computer {
 
         closeChannel();
         Throwable threadInfo = new Throwable("launched here");
-        return lastConnectActivity = Computer.threadPoolForRemoting.submit(() -> {
+        // retention strategies launch as SYSTEM, e.g. from ComputerRetentionWork
+        boolean userInitiated = forceReconnect && !Jenkins.getAuthentication2().equals(ACL.SYSTEM2);
+        return lastConnectActivity = LaunchScheduler.get().submit(this, userInitiated, () -> {
             // do this on another thread so that the lengthy launch operation
             // (which is typical) won't block UI thread.
 
@@ -724,43 +727,44 @@ public class SlaveComputer extends Computer {
         offlineCause = null;
 
         // update the data structure atomically to prevent others from seeing a channel that's not properly initialized yet
+        boolean alreadyConnected;
         synchronized (channelLock) {
-            if (this.channel != null) {
-                // check again. we used to have this entire method in a big synchronization block,
-                // but Channel constructor blocks for an external process to do the connection
-                // if CommandLauncher is used, and that cannot be interrupted because it blocks at InputStream.
-                // so if the process hangs, it hangs the thread in a lock, and since Hudson will try to relaunch,
-                // we'll end up queuing the lot of threads in a pseudo deadlock.
-                // This implementation prevents that by avoiding a lock. JENKINS-1705 is likely a manifestation of this.
-                channel.close();
-                throw new IllegalStateException("Already connected");
-            }
-            isUnix = _isUnix;
-            numRetryAttempt = 0;
-            this.channel = channel;
-            this.absoluteRemoteFs = remoteFS;
-            defaultCharset = Charset.forName(defaultCharsetName);
-
-            synchronized (statusChangeLock) {
-                statusChangeLock.notifyAll();
-            }
-        }
-        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
-            for (ComputerListener cl : ComputerListener.all()) {
-                try {
-                    cl.onOnline(this, taskListener);
-                } catch (AbortException e) {
-                    taskListener.error(e.getMessage());
-                } catch (Exception e) {
-                    // Per Javadoc log exceptions but still go online.
-                    // NOTE: this does not include Errors, which indicate a fatal problem
-                    Functions.printStackTrace(e, taskListener.error(Messages.ComputerLauncher_unexpectedError()));
-                } catch (Throwable e) {
-                    closeChannel();
-                    throw e;
+            // check again. we used to have this entire method in a big synchronization block,
+            // but Channel constructor blocks for an external process to do the connection
+            // if CommandLauncher is used, and that cannot be interrupted because it blocks at InputStream.
+            // so if the process hangs, it hangs the thread in a lock, and since Hudson will try to relaunch,
+            // we'll end up queuing the lot of threads in a pseudo deadlock.
+            // This implementation prevents that by avoiding a lock. JENKINS-1705 is likely a manifestation of this.
+            alreadyConnected = this.channel != null;
+            if (!alreadyConnected) {
+                isUnix = _isUnix;
+                numRetryAttempt = 0;
+                this.channel = channel;
+                this.absoluteRemoteFs = remoteFS;
+                defaultCharset = Charset.forName(defaultCharsetName);
+
+                synchronized (statusChangeLock) {
+                    statusChangeLock.notifyAll();
                 }
             }
         }
+        if (alreadyConnected) {
+            // closed outside the lock, as it may block on I/O (which would also pin the carrier of a virtual thread)
+            channel.close();
+            throw new IllegalStateException("Already connected");
+        }
+        ComputerListenerDispatcher.get().fire(this, "onOnline", true, l -> l.onOnline(this, taskListener), (l, e) -> {
+            if (e instanceof AbortException) {
+                taskListener.error(e.getMessage());
+            } else if (e instanceof Exception) {
+                // Per Javadoc log exceptions but still go online.
+                // NOTE: this does not include Errors, which indicate a fatal problem
+                Functions.printStackTrace(e, taskListener.error(Messages.ComputerLauncher_unexpectedError()));
+            } else {
+                closeChannel();
+                throw e instanceof Error err ? err : new Error(e);
+            }
+        });
         log.println("Agent successfully connected and online");
         Jenkins.get().getQueue().scheduleMaintenance();
     }
@@ -950,7 +954,8 @@ public class SlaveComputer extends Computer {
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Failed to terminate channel to " + getDisplayName(), e);
             }
-            Listeners.notify(ComputerListener.class, true, l -> l.onOffline(this, offlineCause));
+            OfflineCause cause = offlineCause;
+            ComputerListenerDispatcher.get().fire(this, "onOffline", true, l -> l.onOffline(this, cause));
         }
     }
 
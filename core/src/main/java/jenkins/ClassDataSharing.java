@@ -0,0 +1,201 @@
+package jenkins;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.PluginWrapper;
+import hudson.Util;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Maintains a dynamic AppCDS archive in {@code $JENKINS_HOME/cds}, so that classes loaded during startup
+ * do not need to be parsed and verified again on the next start.
+ *
+ * <p>
+ * The archive is created and used by the JVM itself, given the options from {@link #getJvmOptions()}.
+ * Jenkins deletes it whenever the set of plugins changes, so that the JVM regenerates it for the new set,
+ * and records the CPU time used until plugins are started with and without it. Parsing and verifying classes
+ * dominates that phase, so unlike the overall startup time, it is not skewed by loading jobs or by I/O waits.
+ * Measurements are discarded when plugins change, so only starts with the same classes are compared.
+ */
+@Restricted(NoExternalUse.class)
+public final class ClassDataSharing {
+
+    private static final String ARCHIVE_OPTION = "-XX:SharedArchiveFile=";
+
+    private ClassDataSharing() {}
+
+    private static File getRootDir() {
+        String dir = SystemProperties.getString(ClassDataSharing.class.getName() + ".dir");
+        return dir != null ? new File(dir) : new File(Jenkins.get().getRootDir(), "cds");
+    }
+
+    @NonNull
+    public static File getArchive() {
+        return new File(getRootDir(), "jenkins.jsa");
+    }
+
+    /**
+     * @return the JVM options to create and use the archive
+     */
+    @NonNull
+    public static List<String> getJvmOptions() {
+        File archive = getArchive();
+        List<String> r = new ArrayList<>();
+        if (Runtime.version().feature() >= 19) {
+            // the JVM creates the archive on exit if it is missing or stale
+            r.add("-XX:+AutoCreateSharedArchive");
+            r.add(ARCHIVE_OPTION + archive);
+        } else if (archive.isFile()) {
+            r.add(ARCHIVE_OPTION + archive);
+        } else {
+            r.add("-XX:ArchiveClassesAtExit=" + archive);
+        }
+        return r;
+    }
+
+    /**
+     * @return the shared archive this JVM was started with, if any
+     */
+    @CheckForNull
+    public static String getArchiveInUse() {
+        String r = null;
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith(ARCHIVE_OPTION)) {
+                r = arg.substring(ARCHIVE_OPTION.length());
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @return whether this JVM was started with the archive from {@link #getArchive}
+     */
+    public static boolean isArchiveInUse() {
+        String inUse = getArchiveInUse();
+        return inUse != null && new File(inUse).getAbsoluteFile().equals(getArchive().getAbsoluteFile()) && getArchive().isFile();
+    }
+
+    /**
+     * @return the CPU time used until plugins were started, last measured with the archive, or -1
+     */
+    public static long getStartupCpuMillisWithArchive() {
+        return Long.parseLong(loadTimings().getProperty("withArchive", "-1"));
+    }
+
+    /**
+     * @return the CPU time used until plugins were started, last measured without the archive, or -1
+     */
+    public static long getStartupCpuMillisWithoutArchive() {
+        return Long.parseLong(loadTimings().getProperty("withoutArchive", "-1"));
+    }
+
+    /**
+     * @return how much less CPU time the last start with the archive used until plugins were started
+     *         than the last one without it, or -1 if unknown
+     */
+    public static long getStartupCpuMillisSaved() {
+        long with = getStartupCpuMillisWithArchive();
+        long without = getStartupCpuMillisWithoutArchive();
+        return with < 0 || without < 0 ? -1 : without - with;
+    }
+
+    private static void recordStartup(File dir) throws IOException {
+        if (!(ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean)) {
+            return;
+        }
+        long cpuNanos = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+        if (cpuNanos < 0) {
+            return;
+        }
+        Properties timings = loadTimings();
+        timings.setProperty(isArchiveInUse() ? "withArchive" : "withoutArchive", Long.toString(TimeUnit.NANOSECONDS.toMillis(cpuNanos)));
+        try (OutputStream os = Files.newOutputStream(new File(dir, "timings.properties").toPath())) {
+            timings.store(os, null);
+        }
+    }
+
+    private static Properties loadTimings() {
+        Properties timings = new Properties();
+        File file = new File(getRootDir(), "timings.properties");
+        if (file.isFile()) {
+            try (InputStream is = Files.newInputStream(file.toPath())) {
+                timings.load(is);
+            } catch (IOException | InvalidPathException e) {
+                LOGGER.log(Level.FINE, "Failed to load " + file, e);
+            }
+        }
+        return timings;
+    }
+
+    /**
+     * Deletes the archive when the set of plugins differs from the one it was created for,
+     * so that the JVM creates a new one matching the current plugins.
+     * Otherwise, records the CPU time used so far.
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED, fatal = false)
+    public static void checkPlugins() {
+        File dir = getRootDir();
+        if (!dir.isDirectory()) {
+            // not set up by the administrator
+            return;
+        }
+        try {
+            checkPlugins(dir);
+        } catch (IOException | InvalidPathException e) {
+            LOGGER.log(Level.WARNING, "Failed to check the class data sharing archive in " + dir, e);
+        }
+    }
+
+    private static void checkPlugins(File dir) throws IOException {
+        TreeSet<String> plugins = new TreeSet<>();
+        plugins.add("core:" + Jenkins.VERSION);
+        plugins.add("java:" + Runtime.version());
+        for (PluginWrapper p : Jenkins.get().getPluginManager().getPlugins()) {
+            if (p.isActive()) {
+                plugins.add(p.getShortName() + ":" + p.getVersion());
+            }
+        }
+        String fingerprint = Util.getDigestOf(String.join("\n", plugins));
+        File recorded = new File(dir, "plugins.digest");
+        if (recorded.isFile() && fingerprint.equals(Files.readString(recorded.toPath(), StandardCharsets.UTF_8).trim())) {
+            recordStartup(dir);
+            return;
+        }
+        File archive = getArchive();
+        if (archive.isFile()) {
+            LOGGER.info(() -> "Plugins changed since " + archive + " was created, deleting it so that it gets recreated");
+            try {
+                Files.delete(archive.toPath());
+            } catch (IOException e) {
+                // e.g. still mapped by this JVM on Windows
+                LOGGER.log(Level.WARNING, "Failed to delete " + archive, e);
+                return;
+            }
+        }
+        // measurements for other plugins are not comparable
+        Files.deleteIfExists(new File(dir, "timings.properties").toPath());
+        Files.writeString(recorded.toPath(), fingerprint, StandardCharsets.UTF_8);
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ClassDataSharing.class.getName());
+}
@@ -0,0 +1,295 @@
+package jenkins;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.triggers.SafeTimerTask;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import net.jcip.annotations.GuardedBy;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jvnet.hudson.reactor.Milestone;
+import org.jvnet.hudson.reactor.ReactorListener;
+import org.jvnet.hudson.reactor.Task;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Records when each task of the startup {@link org.jvnet.hudson.reactor.Reactor} runs, on which thread,
+ * and which milestone it was waiting for, so that the critical path of startup can be reported.
+ *
+ * <p>
+ * The profile of the last startup is written in the Chrome trace event format to {@code init-trace.json}
+ * in {@link SafeTimerTask#getLogsRoot()}, and shown by {@link jenkins.management.StartupProfileLink}.
+ */
+@Restricted(NoExternalUse.class)
+public final class InitProfiler implements ReactorListener {
+
+    /**
+     * Whether {@link InitReactorRunner} profiles startup.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED = SystemProperties.getBoolean(InitProfiler.class.getName() + ".enabled", true);
+
+    private static volatile InitProfiler last;
+
+    /**
+     * One task run.
+     *
+     * @param start nanoseconds since the profiler was created
+     * @param end nanoseconds since the profiler was created
+     * @param milestone the last milestone attained when the task started
+     */
+    public record Span(@NonNull String name, @NonNull String thread, long start, long end, @CheckForNull String milestone,
+                       @NonNull List<String> requires, @NonNull List<String> attains, boolean failed) {
+        public long getDurationMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(end - start);
+        }
+
+        public long getStartMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(start);
+        }
+    }
+
+    private final long origin = System.nanoTime();
+
+    @GuardedBy("this")
+    private final Map<Task, Long> started = new IdentityHashMap<>();
+
+    @GuardedBy("this")
+    private final Map<Task, String> threads = new IdentityHashMap<>();
+
+    @GuardedBy("this")
+    private final Map<Task, String> milestones = new IdentityHashMap<>();
+
+    @GuardedBy("this")
+    private final List<Span> spans = new ArrayList<>();
+
+    /**
+     * When each milestone was first attained, in nanoseconds since the profiler was created.
+     */
+    @GuardedBy("this")
+    private final Map<String, Long> attained = new LinkedHashMap<>();
+
+    @GuardedBy("this")
+    private String lastMilestone;
+
+    /**
+     * @return the profile of the last startup, if any
+     */
+    @CheckForNull
+    public static InitProfiler getLast() {
+        return last;
+    }
+
+    @Override
+    public synchronized void onTaskStarted(Task t) {
+        started.put(t, System.nanoTime() - origin);
+        threads.put(t, Thread.currentThread().getName());
+        milestones.put(t, lastMilestone);
+    }
+
+    @Override
+    public void onTaskCompleted(Task t) {
+        record(t, false);
+    }
+
+    @Override
+    public void onTaskFailed(Task t, Throwable err, boolean fatal) {
+        record(t, true);
+    }
+
+    @Override
+    public synchronized void onAttained(Milestone milestone) {
+        lastMilestone = milestone.toString();
+        attained.putIfAbsent(lastMilestone, System.nanoTime() - origin);
+    }
+
+    private void record(Task t, boolean failed) {
+        long end = System.nanoTime() - origin;
+        String name = InitReactorRunner.getDisplayName(t);
+        List<String> requires = names(t.requires());
+        List<String> attains = names(t.attains());
+        synchronized (this) {
+            Long start = started.remove(t);
+            String thread = threads.remove(t);
+            // anonymous tasks only link milestones together
+            spans.add(new Span(name == null ? "-> " + String.join(", ", attains) : name, thread == null ? "?" : thread, start == null ? end : start, end,
+                    milestones.remove(t), requires, attains, failed));
+        }
+    }
+
+    private static List<String> names(@CheckForNull Collection<? extends Milestone> milestones) {
+        if (milestones == null) {
+            return List.of();
+        }
+        List<String> r = new ArrayList<>(milestones.size());
+        for (Milestone m : milestones) {
+            r.add(m.toString());
+        }
+        return r;
+    }
+
+    /**
+     * @return all recorded task runs, by start time
+     */
+    public synchronized List<Span> getSpans() {
+        List<Span> r = new ArrayList<>(spans);
+        r.sort(Comparator.comparingLong(Span::start));
+        return r;
+    }
+
+    /**
+     * @return the wall-clock time from the first task start to the last task end
+     */
+    public synchronized long getWallMillis() {
+        long start = Long.MAX_VALUE;
+        long end = 0;
+        for (Span s : spans) {
+            start = Math.min(start, s.start);
+            end = Math.max(end, s.end);
+        }
+        return spans.isEmpty() ? 0 : TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
+
+    /**
+     * @return the sum of all task durations
+     */
+    public synchronized long getBusyMillis() {
+        long busy = 0;
+        for (Span s : spans) {
+            busy += s.end - s.start;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(busy);
+    }
+
+    /**
+     * @return the average number of tasks running at the same time
+     */
+    public double getParallelism() {
+        long wall = getWallMillis();
+        return wall == 0 ? 1 : (double) getBusyMillis() / wall;
+    }
+
+    /**
+     * Computes the chain of tasks that determined when startup completed: starting from the task that ended last,
+     * repeatedly follow the required milestone that was attained last, to the task attaining it that ended last.
+     *
+     * @return the tasks on the critical path, in execution order
+     */
+    public synchronized List<Span> getCriticalPath() {
+        Map<String, Span> lastAttaining = new HashMap<>();
+        Span current = null;
+        for (Span s : spans) {
+            for (String m : s.attains) {
+                lastAttaining.merge(m, s, (a, b) -> a.end >= b.end ? a : b);
+            }
+            if (current == null || s.end > current.end) {
+                current = s;
+            }
+        }
+        List<Span> path = new ArrayList<>();
+        while (current != null && !path.contains(current)) {
+            path.add(0, current);
+            String blocking = null;
+            long blockedUntil = -1;
+            for (String m : current.requires) {
+                Long at = attained.get(m);
+                if (at != null && at > blockedUntil && at <= current.start) {
+                    blockedUntil = at;
+                    blocking = m;
+                }
+            }
+            current = blocking == null ? null : lastAttaining.get(blocking);
+        }
+        return path;
+    }
+
+    /**
+     * Converts the profile to the Chrome trace event format, as understood by {@code chrome://tracing} or Perfetto.
+     */
+    public synchronized JSONObject toTraceEvents() {
+        List<Span> critical = getCriticalPath();
+        Map<String, Integer> tids = new LinkedHashMap<>();
+        JSONArray events = new JSONArray();
+        for (Span s : getSpans()) {
+            int tid = tids.computeIfAbsent(s.thread, k -> tids.size() + 1);
+            JSONObject args = new JSONObject();
+            args.put("milestone", s.milestone);
+            args.put("requires", s.requires);
+            args.put("attains", s.attains);
+            args.put("critical", critical.contains(s));
+            args.put("failed", s.failed);
+            JSONObject e = new JSONObject();
+            e.put("name", s.name);
+            e.put("cat", "init");
+            e.put("ph", "X");
+            e.put("ts", TimeUnit.NANOSECONDS.toMicros(s.start));
+            e.put("dur", TimeUnit.NANOSECONDS.toMicros(s.end - s.start));
+            e.put("pid", 1);
+            e.put("tid", tid);
+            e.put("args", args);
+            events.add(e);
+        }
+        for (Map.Entry<String, Integer> t : tids.entrySet()) {
+            JSONObject e = new JSONObject();
+            e.put("name", "thread_name");
+            e.put("ph", "M");
+            e.put("pid", 1);
+            e.put("tid", t.getValue());
+            e.put("args", new JSONObject().element("name", t.getKey()));
+            events.add(e);
+        }
+        for (Map.Entry<String, Long> m : attained.entrySet()) {
+            JSONObject e = new JSONObject();
+            e.put("name", m.getKey());
+            e.put("cat", "milestone");
+            e.put("ph", "i");
+            e.put("s", "g");
+            e.put("ts", TimeUnit.NANOSECONDS.toMicros(m.getValue()));
+            e.put("pid", 1);
+            e.put("tid", 0);
+            events.add(e);
+        }
+        return new JSONObject().element("traceEvents", events).element("displayTimeUnit", "ms");
+    }
+
+    /**
+     * Called by {@link InitReactorRunner} once the reactor is done.
+     */
+    static void finish(@NonNull InitProfiler profiler) {
+        last = profiler;
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        File file = new File(SafeTimerTask.getLogsRoot(), "init-trace.json");
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (Writer w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                profiler.toTraceEvents().write(w);
+            }
+            LOGGER.fine(() -> "Wrote startup profile to " + file);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to write startup profile to " + file, e);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(InitProfiler.class.getName());
+}
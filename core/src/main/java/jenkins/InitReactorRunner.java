@@ -2,6 +2,7 @@ package jenkins;
 
 import static java.util.logging.Level.SEVERE;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.init.InitMilestone;
 import hudson.init.InitReactorListener;
 import hudson.security.ACL;
@@ -45,10 +46,16 @@ public class InitReactorRunner {
                 TWICE_CPU_NUM, TWICE_CPU_NUM, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadFactory());
         else
             es = Executors.newSingleThreadExecutor(new NamingThreadFactory(new DaemonThreadFactory(), "InitReactorRunner"));
+        // only profile startup, not reloads or dynamically loaded plugins
+        Jenkins j = Jenkins.getInstanceOrNull();
+        InitProfiler profiler = InitProfiler.ENABLED && (j == null || j.getInitLevel() != InitMilestone.COMPLETED) ? new InitProfiler() : null;
         try {
-            reactor.execute(new ImpersonatingExecutorService(es, ACL.SYSTEM2), buildReactorListener());
+            reactor.execute(new ImpersonatingExecutorService(es, ACL.SYSTEM2), buildReactorListener(profiler));
         } finally {
             es.shutdownNow();   // upon a successful return the executor queue should be empty. Upon an exception, we want to cancel all pending tasks
+            if (profiler != null) {
+                InitProfiler.finish(profiler);
+            }
         }
 
     }
@@ -60,8 +67,11 @@ public class InitReactorRunner {
      * At this point plugins are not loaded yet, so we fall back to the META-INF/services look up to discover implementations.
      * As such there's no way for plugins to participate into this process.
      */
-    private ReactorListener buildReactorListener() throws IOException {
+    private ReactorListener buildReactorListener(@CheckForNull InitProfiler profiler) throws IOException {
         List<ReactorListener> r = StreamSupport.stream(ServiceLoader.load(InitReactorListener.class, Thread.currentThread().getContextClassLoader()).spliterator(), false).collect(Collectors.toList());
+        if (profiler != null) {
+            r.add(profiler);
+        }
         r.add(new ReactorListener() {
             final Level level = Level.parse(SystemProperties.getString(Jenkins.class.getName() + "." + "initLogLevel", "FINE"));
             @Override
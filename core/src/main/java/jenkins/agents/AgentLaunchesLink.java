@@ -0,0 +1,63 @@
+package jenkins.agents;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.model.MultiStageTimeSeries.TimeScale;
+import hudson.model.MultiStageTimeSeries.TrendChart;
+import hudson.security.Permission;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Shows how {@link LaunchScheduler} paces agent launches.
+ */
+@Extension
+@Symbol("agentLaunches")
+@Restricted(NoExternalUse.class)
+public class AgentLaunchesLink extends ManagementLink {
+
+    @Override
+    public String getDisplayName() {
+        return Messages.AgentLaunchesLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.AgentLaunchesLink_Description();
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-computer";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "agentLaunches";
+    }
+
+    @NonNull
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    @NonNull
+    @Override
+    public Permission getRequiredPermission() {
+        return Jenkins.SYSTEM_READ;
+    }
+
+    public LaunchScheduler getScheduler() {
+        return LaunchScheduler.get();
+    }
+
+    public TrendChart doGraph(@QueryParameter String type) {
+        Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+        return getScheduler().createTrendChart(TimeScale.parse(type));
+    }
+}
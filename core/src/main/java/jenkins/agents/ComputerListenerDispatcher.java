@@ -0,0 +1,376 @@
+package jenkins.agents;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.model.Computer;
+import hudson.model.Queue;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.slaves.ComputerListener;
+import hudson.util.ExceptionCatchingThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import jenkins.util.VirtualThreads;
+import net.jcip.annotations.GuardedBy;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Notifies {@link ComputerListener}s of events on a shared pool of threads rather than on the thread firing them,
+ * typically a launcher thread, so that a slow listener does not hold up agent launches.
+ *
+ * <p>
+ * The events of each computer are processed in the order they were fired, one at a time,
+ * and each event is passed to all listeners in turn, as before.
+ * The thread firing an event still waits for it to be processed, but only for up to {@link #WAIT_MILLIS},
+ * after which the remaining listeners are left to complete in the background.
+ * It does not wait at all while holding the {@link Queue} lock, as when nodes are updated, since listeners may need that lock.
+ * Events fired by listeners themselves are processed right away, as before.
+ *
+ * <p>
+ * The time spent by each listener on each kind of event is recorded, and listeners taking longer than
+ * {@link #SLOW_MILLIS} are reported along with what they are doing.
+ * Configuration changes fired while another one is still waiting to be processed are merged into it,
+ * as listeners look at the current configuration anyway.
+ *
+ * <p>
+ * {@link ComputerListener#preOnline} is not dispatched this way, as it must complete before the computer comes online.
+ */
+@Restricted(NoExternalUse.class)
+public final class ComputerListenerDispatcher {
+
+    private static final String PREFIX = ComputerListenerDispatcher.class.getName();
+
+    /**
+     * Whether events are processed on the shared pool, rather than synchronously by the thread firing them.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED = SystemProperties.getBoolean(PREFIX + ".enabled", true);
+
+    /**
+     * How long the thread firing an event waits for it to be processed.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ long WAIT_MILLIS = SystemProperties.getLong(PREFIX + ".waitMillis", 5000L);
+
+    /**
+     * How long a listener may take to process an event before it is reported.
+     */
+    private static final long SLOW_MILLIS = Math.max(100L, SystemProperties.getLong(PREFIX + ".slowMillis", 10000L));
+
+    /**
+     * Whether a configuration change is merged into one still waiting to be processed.
+     */
+    private static final boolean COALESCE = SystemProperties.getBoolean(PREFIX + ".coalesce", true);
+
+    /**
+     * Key of the events not concerning any particular computer.
+     */
+    private static final String GLOBAL = "\u0000global";
+
+    private static final ComputerListenerDispatcher INSTANCE = new ComputerListenerDispatcher();
+
+    /**
+     * Whether the current thread is processing an event.
+     */
+    private static final ThreadLocal<Boolean> DISPATCHING = ThreadLocal.withInitial(() -> false);
+
+    private final ExecutorService executor = VirtualThreads.newCachedThreadPool(
+            new ExceptionCatchingThreadFactory(new NamingThreadFactory(VirtualThreads.daemonThreadFactory(), "ComputerListener dispatcher")));
+
+    /**
+     * Events waiting to be processed, by computer name.
+     */
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Events being processed.
+     */
+    private final Set<Event> inProgress = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean watching = new AtomicBoolean();
+
+    private ComputerListenerDispatcher() {}
+
+    public static ComputerListenerDispatcher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * A listener method, perhaps with arguments.
+     */
+    @FunctionalInterface
+    public interface Notification {
+        void accept(ComputerListener listener) throws Exception;
+    }
+
+    /**
+     * Notifies all listeners of an event, logging any exception they throw.
+     *
+     * @see #fire(Computer, String, boolean, Notification, BiConsumer)
+     */
+    public void fire(@CheckForNull Computer computer, @NonNull String event, boolean asSystem, @NonNull Notification notification) {
+        fire(computer, event, asSystem, notification, (l, t) -> LOGGER.log(Level.WARNING, "Exception in " + event + " of " + l.getClass().getName(), t));
+    }
+
+    /**
+     * Notifies all listeners of an event, after the events previously fired for the same computer.
+     *
+     * @param computer the computer concerned, if any
+     * @param event the name of the listener method, used in statistics and reports
+     * @param asSystem whether to impersonate {@link ACL#SYSTEM2}, rather than the current user, as in {@link jenkins.util.Listeners#notify}
+     * @param onFailure called with anything thrown by a listener;
+     *                  if it throws in turn, the remaining listeners are skipped and the caller gets the exception,
+     *                  if it is still waiting
+     */
+    public void fire(@CheckForNull Computer computer, @NonNull String event, boolean asSystem, @NonNull Notification notification,
+                     @NonNull BiConsumer<ComputerListener, Throwable> onFailure) {
+        String key = computer != null ? computer.getName() : GLOBAL;
+        await(submit(key, new Event(event, key, asSystem ? ACL.SYSTEM2 : Jenkins.getAuthentication2(), notification, onFailure, false)));
+    }
+
+    /**
+     * Notifies all listeners of {@link ComputerListener#onConfigurationChange}.
+     */
+    public void fireConfigurationChange() {
+        await(submit(GLOBAL, new Event("onConfigurationChange", GLOBAL, Jenkins.getAuthentication2(), ComputerListener::onConfigurationChange,
+                (l, t) -> LOGGER.log(Level.WARNING, "Exception in onConfigurationChange of " + l.getClass().getName(), t), COALESCE)));
+    }
+
+    private CompletableFuture<Void> submit(String key, Event event) {
+        if (!ENABLED || DISPATCHING.get()) {
+            event.run();
+            return event.done;
+        }
+        if (watching.compareAndSet(false, true)) {
+            Timer.get().scheduleWithFixedDelay(this::watch, SLOW_MILLIS, SLOW_MILLIS / 2, TimeUnit.MILLISECONDS);
+        }
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(key, Lane::new);
+            synchronized (lane) {
+                if (lane.retired) {
+                    continue;
+                }
+                if (event.coalesce) {
+                    for (Event e : lane.events) {
+                        if (e.coalesce && e.name.equals(event.name)) {
+                            LOGGER.finer(() -> "Merged " + event.name + " into one waiting to be processed");
+                            return e.done;
+                        }
+                    }
+                }
+                lane.events.add(event);
+                if (!lane.running) {
+                    lane.running = true;
+                    executor.execute(lane);
+                }
+                return event.done;
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        if (Queue.isLockHeldByCurrentThread() && !done.isDone()) {
+            // listeners needing the lock could only proceed once the wait is over
+            return;
+        }
+        try {
+            done.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // left to complete in the background
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof RuntimeException re) {
+                throw re;
+            }
+            if (t instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Processes the events of one computer in order.
+     * Removed once it has no more events, so that computers which are gone are forgotten.
+     */
+    private final class Lane implements Runnable {
+        private final String key;
+
+        @GuardedBy("this")
+        private final ArrayDeque<Event> events = new ArrayDeque<>();
+
+        @GuardedBy("this")
+        private boolean running;
+
+        @GuardedBy("this")
+        private boolean retired;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event e;
+                synchronized (this) {
+                    e = events.poll();
+                    if (e == null) {
+                        running = false;
+                        retired = true;
+                        lanes.remove(key, this);
+                        return;
+                    }
+                }
+                DISPATCHING.set(true);
+                try {
+                    e.run();
+                } finally {
+                    DISPATCHING.set(false);
+                }
+            }
+        }
+    }
+
+    private final class Event {
+        final String name;
+        final String key;
+        final Authentication auth;
+        final Notification notification;
+        final BiConsumer<ComputerListener, Throwable> onFailure;
+        final boolean coalesce;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        volatile Thread thread;
+        volatile ComputerListener current;
+        volatile long currentStart;
+        volatile boolean reported;
+
+        Event(String name, String key, Authentication auth, Notification notification, BiConsumer<ComputerListener, Throwable> onFailure, boolean coalesce) {
+            this.name = name;
+            this.key = key;
+            this.auth = auth;
+            this.notification = notification;
+            this.onFailure = onFailure;
+            this.coalesce = coalesce;
+        }
+
+        void run() {
+            thread = Thread.currentThread();
+            inProgress.add(this);
+            try (ACLContext ctx = ACL.as2(auth)) {
+                for (ComputerListener l : ComputerListener.all()) {
+                    currentStart = System.nanoTime();
+                    reported = false;
+                    current = l;
+                    try {
+                        notification.accept(l);
+                    } catch (Throwable t) {
+                        onFailure.accept(l, t);
+                    } finally {
+                        current = null;
+                        stats.computeIfAbsent(l.getClass().getName() + "#" + name, k -> new Stats()).record(System.nanoTime() - currentStart, reported);
+                    }
+                }
+                done.complete(null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+            } finally {
+                inProgress.remove(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + (key.equals(GLOBAL) ? "" : " of " + key);
+        }
+    }
+
+    /**
+     * Reports listeners which have been processing an event for longer than {@link #SLOW_MILLIS}, once per event.
+     */
+    private void watch() {
+        long now = System.nanoTime();
+        for (Event e : inProgress) {
+            ComputerListener l = e.current;
+            Thread thread = e.thread;
+            long millis = TimeUnit.NANOSECONDS.toMillis(now - e.currentStart);
+            if (l == null || thread == null || e.reported || millis < SLOW_MILLIS) {
+                continue;
+            }
+            e.reported = true;
+            Throwable trace = new Throwable(l.getClass().getName() + " has been processing " + e + " for " + millis + " ms");
+            trace.setStackTrace(thread.getStackTrace());
+            LOGGER.log(Level.WARNING, "Slow computer listener", trace);
+        }
+    }
+
+    /**
+     * Time spent by a listener on a kind of event.
+     *
+     * @param calls how many events were processed
+     * @param slow how many of them were reported as slow
+     * @param total the total time spent
+     * @param max the longest time spent on a single event
+     */
+    public record Timing(long calls, long slow, @NonNull Duration total, @NonNull Duration max) {}
+
+    private static final class Stats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+
+        void record(long nanos, boolean slow) {
+            calls.increment();
+            if (slow) {
+                this.slow.increment();
+            }
+            this.nanos.add(nanos);
+            max.accumulateAndGet(nanos, Math::max);
+        }
+
+        Timing toTiming() {
+            return new Timing(calls.sum(), slow.sum(), Duration.ofNanos(nanos.sum()), Duration.ofNanos(max.get()));
+        }
+    }
+
+    /**
+     * @return the time spent by listeners, by listener class name and event,
+     * as in {@code hudson.node_monitors.NodeMonitorUpdater#onOnline}
+     */
+    @NonNull
+    public Map<String, Timing> getTimings() {
+        Map<String, Timing> r = new TreeMap<>();
+        stats.forEach((k, v) -> r.put(k, v.toTiming()));
+        return r;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ComputerListenerDispatcher.class.getName());
+}
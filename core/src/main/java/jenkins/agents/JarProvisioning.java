@@ -0,0 +1,574 @@
+package jenkins.agents;
+
+import com.google.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.BulkChange;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Computer;
+import hudson.model.Executor;
+import hudson.model.Node;
+import hudson.model.Run;
+import hudson.model.Saveable;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.remoting.Channel;
+import hudson.remoting.DelegatingCallable;
+import hudson.slaves.ComputerListener;
+import hudson.slaves.OfflineCause;
+import hudson.slaves.SlaveComputer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.model.NodeListener;
+import jenkins.security.MasterToSlaveCallable;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import net.jcip.annotations.GuardedBy;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Provisions agents with the jars they are likely to need as soon as they connect,
+ * rather than while running their first build.
+ *
+ * <p>
+ * Remoting transfers the classes of remote callables on demand. Agents keep the jars they receive
+ * in a persistent cache keyed by checksum, so that only jars they have not seen before are transferred,
+ * but that still happens lazily, typically in the middle of the first build after a plugin was updated.
+ *
+ * <p>
+ * The controller keeps a manifest of the jars which remote class loading has sent to any agent, along with their checksums.
+ * Each jar carries the revision of the manifest in which it was added or its checksum changed.
+ * Once an agent is online, it loads one class of each jar added or changed since the revision it was last provisioned with,
+ * in the background, which makes remoting resolve the jar through the agent's cache.
+ * The manifest and the revision of each agent are persisted, so that a reconnecting agent only needs the difference,
+ * even after a restart.
+ * An agent connecting for the first time, such as a cloud agent, is only recorded at the current revision,
+ * since it may never need most of the jars other agents did, unless {@link #PROVISION_NEW_AGENTS} is set.
+ *
+ * <p>
+ * The number of jars and bytes sent by remote class loading, and the time from connecting to the first build,
+ * are tracked.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public final class JarProvisioning implements Saveable {
+
+    private static final String PREFIX = JarProvisioning.class.getName();
+
+    /**
+     * Whether agents are provisioned with the jars of the manifest when they connect.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED = SystemProperties.getBoolean(PREFIX + ".enabled", true);
+
+    /**
+     * Whether agents connecting for the first time are provisioned with the whole manifest,
+     * rather than loading the jars they need on demand.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean PROVISION_NEW_AGENTS = SystemProperties.getBoolean(PREFIX + ".provisionNewAgents", false);
+
+    /**
+     * Maximum number of jars in the manifest.
+     */
+    private static final int MAX_JARS = Math.max(0, SystemProperties.getInteger(PREFIX + ".maxJars", 1000));
+
+    /**
+     * Delay before saving after a change, so that the jars sent during one build are saved at once.
+     */
+    private static final long SAVE_DELAY = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Incremented whenever a jar is added to the manifest or its checksum changes.
+     */
+    @GuardedBy("this")
+    private long revision;
+
+    /**
+     * Jars sent to agents, by absolute path.
+     */
+    @GuardedBy("this")
+    private final Map<String, Jar> manifest = new LinkedHashMap<>();
+
+    /**
+     * Revision of the manifest each agent was last provisioned with, by agent name.
+     */
+    @GuardedBy("this")
+    private final Map<String, Long> provisioned = new HashMap<>();
+
+    @GuardedBy("this")
+    private boolean saveScheduled;
+
+    /**
+     * Held while writing, so that recording jars sent to agents does not wait for the disk.
+     */
+    private final Object saveLock = new Object();
+
+    /**
+     * When each agent came online, by agent name, until its first build starts.
+     */
+    private final Map<String, Long> connected = new ConcurrentHashMap<>();
+
+    private final LongAdder jarsSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder jarsProvisioned = new LongAdder();
+    private final LongAdder agentsProvisioned = new LongAdder();
+    private final LongAdder firstBuilds = new LongAdder();
+    private final LongAdder firstBuildNanos = new LongAdder();
+
+    public JarProvisioning() {
+        load();
+    }
+
+    public static JarProvisioning get() {
+        return ExtensionList.lookupSingleton(JarProvisioning.class);
+    }
+
+    private static final class Jar {
+        File file;
+
+        @CheckForNull
+        String checksum;
+
+        long length = -1;
+        long lastModified = -1;
+
+        /**
+         * Revision of the manifest in which the jar was added or its checksum last changed.
+         */
+        long revision;
+
+        /**
+         * A class of the jar, looked up when first provisioned.
+         */
+        @CheckForNull
+        transient String className;
+
+        transient boolean scanned;
+
+        Jar(File file, long revision) {
+            this.file = file;
+            this.revision = revision;
+        }
+
+        Jar(Jar jar) {
+            this(jar.file, jar.revision);
+            checksum = jar.checksum;
+            length = jar.length;
+            lastModified = jar.lastModified;
+        }
+
+        synchronized String className() {
+            if (!scanned) {
+                scanned = true;
+                className = findClass(file);
+            }
+            return className;
+        }
+    }
+
+    /**
+     * @return the name of a class in a jar, skipping module and package descriptors and versioned entries
+     */
+    @CheckForNull
+    private static String findClass(File jar) {
+        try (JarFile jf = new JarFile(jar)) {
+            for (Enumeration<JarEntry> e = jf.entries(); e.hasMoreElements(); ) {
+                String name = e.nextElement().getName();
+                if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("-info.class")) {
+                    return name.substring(0, name.length() - ".class".length()).replace('/', '.');
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to read " + jar, e);
+        }
+        return null;
+    }
+
+    /**
+     * Adds a jar sent to an agent to the manifest.
+     */
+    @VisibleForTesting
+    void record(@NonNull File jar) {
+        jarsSent.increment();
+        bytesSent.add(jar.length());
+        String path = jar.getAbsolutePath();
+        synchronized (this) {
+            if (manifest.containsKey(path) || manifest.size() >= MAX_JARS) {
+                return;
+            }
+            manifest.put(path, new Jar(jar.getAbsoluteFile(), ++revision));
+            scheduleSave();
+        }
+        LOGGER.fine(() -> "Added " + path + " to the manifest of jars provisioned to agents");
+    }
+
+    /**
+     * Computes the checksum of a jar again if it was modified, and moves it to a new revision if that changed.
+     * The checksum is persisted, so that unchanged jars are neither hashed again nor provisioned again after a restart.
+     *
+     * @return the revision of the jar
+     */
+    private long refresh(@NonNull Jar jar) throws IOException {
+        long len = jar.file.length();
+        long mod = jar.file.lastModified();
+        synchronized (this) {
+            if (jar.checksum != null && jar.length == len && jar.lastModified == mod) {
+                return jar.revision;
+            }
+        }
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream is = new DigestInputStream(Files.newInputStream(jar.file.toPath()), md)) {
+            is.transferTo(OutputStream.nullOutputStream());
+        }
+        String checksum = Util.toHexString(md.digest());
+        synchronized (this) {
+            if (jar.checksum != null && !jar.checksum.equals(checksum)) {
+                jar.revision = ++revision;
+            }
+            jar.checksum = checksum;
+            jar.length = len;
+            jar.lastModified = mod;
+            scheduleSave();
+            return jar.revision;
+        }
+    }
+
+    private XmlFile getConfigFile() {
+        return new XmlFile(Jenkins.XSTREAM2, new File(Jenkins.get().getRootDir(), PREFIX + ".xml"));
+    }
+
+    /**
+     * What is persisted, copied so that it can be written without holding the lock.
+     */
+    private static final class State {
+        long revision;
+        Map<String, Jar> manifest = new LinkedHashMap<>();
+        Map<String, Long> provisioned = new HashMap<>();
+    }
+
+    private synchronized void load() {
+        XmlFile f = getConfigFile();
+        if (!f.exists()) {
+            return;
+        }
+        State state = new State();
+        try {
+            f.unmarshal(state);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + f, e);
+            return;
+        }
+        revision = state.revision;
+        if (state.manifest != null) {
+            manifest.putAll(state.manifest);
+        }
+        if (state.provisioned != null) {
+            provisioned.putAll(state.provisioned);
+        }
+    }
+
+    @Override
+    public void save() throws IOException {
+        if (BulkChange.contains(this)) {
+            return;
+        }
+        synchronized (saveLock) {
+            State state = new State();
+            synchronized (this) {
+                state.revision = revision;
+                manifest.forEach((path, jar) -> state.manifest.put(path, new Jar(jar)));
+                state.provisioned.putAll(provisioned);
+            }
+            XmlFile f = getConfigFile();
+            f.write(state);
+            SaveableListener.fireOnChange(this, f);
+        }
+    }
+
+    @GuardedBy("this")
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        Timer.get().schedule(() -> {
+            synchronized (this) {
+                saveScheduled = false;
+            }
+            try {
+                save();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to save " + getConfigFile(), e);
+            }
+        }, SAVE_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the jars of the manifest which still exist
+     */
+    private synchronized List<Jar> getManifest() {
+        if (manifest.values().removeIf(j -> !j.file.isFile())) {
+            scheduleSave();
+        }
+        return new ArrayList<>(manifest.values());
+    }
+
+    /**
+     * Forgets the manifest an agent was provisioned with, once the agent is deleted.
+     */
+    private synchronized void forget(@NonNull String name) {
+        if (provisioned.remove(name) != null) {
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Records the jars sent to a connecting agent by remote class loading.
+     */
+    private void track(@NonNull Channel channel) {
+        channel.addListener(new Channel.Listener() {
+            @Override
+            public void onJar(Channel channel, File jar) {
+                record(jar);
+            }
+        });
+    }
+
+    /**
+     * Provisions an agent with the jars of the manifest which were added or changed since it was last provisioned.
+     * Called once the agent is online, so that hashing and transferring jars do not delay its launch.
+     * An agent never provisioned before is only recorded at the current revision, unless {@link #PROVISION_NEW_AGENTS} is set.
+     *
+     * @return the number of jars loaded by the agent
+     */
+    @VisibleForTesting
+    int provision(@NonNull String name, @NonNull Channel channel, @NonNull TaskListener listener) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long since;
+        synchronized (this) {
+            Long known = provisioned.get(name);
+            if (known == null && !PROVISION_NEW_AGENTS) {
+                provisioned.put(name, revision);
+                scheduleSave();
+                agentsProvisioned.increment();
+                LOGGER.log(Level.FINE, "Recorded {0} at revision {1} of the manifest without provisioning it", new Object[] {name, revision});
+                return 0;
+            }
+            since = known != null ? known : 0L;
+        }
+        long upTo = since;
+        int total = 0;
+        List<String> classes = new ArrayList<>();
+        for (Jar jar : getManifest()) {
+            long r;
+            try {
+                r = refresh(jar);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to compute the checksum of " + jar.file, e);
+                continue;
+            }
+            total++;
+            upTo = Math.max(upTo, r);
+            if (r > since) {
+                String className = jar.className();
+                if (className != null) {
+                    classes.add(className);
+                }
+            }
+        }
+        int loaded = 0;
+        if (!classes.isEmpty()) {
+            loaded = channel.call(new Preload(classes));
+            jarsProvisioned.add(loaded);
+        }
+        synchronized (this) {
+            provisioned.put(name, upTo);
+            scheduleSave();
+        }
+        agentsProvisioned.increment();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (loaded > 0) {
+            listener.getLogger().printf("Provisioned %d of %d jars in %d ms%n", loaded, total, millis);
+        }
+        LOGGER.log(Level.FINE, "Provisioned {0} with {1} of {2} jars in {3} ms", new Object[] {name, loaded, total, millis});
+        return loaded;
+    }
+
+    /**
+     * Loads classes through the remote class loader of the uber class loader, so that their jars are resolved.
+     * Jars are cached per checksum on the agent, so this benefits the remote class loaders of individual plugins as well.
+     */
+    private static final class Preload extends MasterToSlaveCallable<Integer, RuntimeException> implements DelegatingCallable<Integer, RuntimeException> {
+        private final List<String> classes;
+
+        Preload(List<String> classes) {
+            this.classes = classes;
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return Jenkins.get().getPluginManager().uberClassLoader;
+        }
+
+        @Override
+        public Integer call() {
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            int loaded = 0;
+            for (String name : classes) {
+                try {
+                    // not initialized, only needs to be defined
+                    Class.forName(name, false, cl);
+                    loaded++;
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // left to be loaded on demand, if ever needed
+                }
+            }
+            return loaded;
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * @return the number of jars sent to agents by remote class loading
+     */
+    public long getJarsSent() {
+        return jarsSent.sum();
+    }
+
+    /**
+     * @return the number of bytes of the jars sent to agents by remote class loading
+     */
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * @return the number of jars agents were provisioned with when connecting
+     */
+    public long getJarsProvisioned() {
+        return jarsProvisioned.sum();
+    }
+
+    /**
+     * @return the number of times agents finished being provisioned after coming online
+     */
+    public long getAgentsProvisioned() {
+        return agentsProvisioned.sum();
+    }
+
+    /**
+     * @return the number of first builds after an agent came online
+     */
+    public long getFirstBuilds() {
+        return firstBuilds.sum();
+    }
+
+    /**
+     * @return the mean time from an agent coming online to its first build starting, or null if none
+     */
+    @CheckForNull
+    public Duration getMeanTimeToFirstBuild() {
+        long n = firstBuilds.sum();
+        return n == 0 ? null : Duration.ofNanos(firstBuildNanos.sum() / n);
+    }
+
+    @Extension
+    public static final class ComputerListenerImpl extends ComputerListener {
+        @Override
+        public void preOnline(Computer c, Channel channel, FilePath root, TaskListener listener) {
+            if (c instanceof SlaveComputer) {
+                get().track(channel);
+            }
+        }
+
+        @Override
+        public void onOnline(Computer c, TaskListener listener) {
+            if (!(c instanceof SlaveComputer)) {
+                return;
+            }
+            JarProvisioning p = get();
+            String name = c.getName();
+            p.connected.put(name, System.nanoTime());
+            if (ENABLED && c.getChannel() instanceof Channel channel) {
+                Computer.threadPoolForRemoting.submit(() -> {
+                    try {
+                        p.provision(name, channel, listener);
+                    } catch (IOException | InterruptedException | RuntimeException e) {
+                        LOGGER.log(Level.FINE, "Failed to provision " + name + " with jars", e);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onOffline(@NonNull Computer c, OfflineCause cause) {
+            get().connected.remove(c.getName());
+        }
+    }
+
+    @Extension
+    public static final class NodeListenerImpl extends NodeListener {
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            get().forget(node.getNodeName());
+        }
+    }
+
+    @Extension
+    public static final class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onStarted(Run<?, ?> run, TaskListener listener) {
+            Executor e = run.getExecutor();
+            if (e == null) {
+                return;
+            }
+            Computer c = e.getOwner();
+            JarProvisioning p = get();
+            Long since = p.connected.remove(c.getName());
+            if (since != null) {
+                long nanos = System.nanoTime() - since;
+                p.firstBuilds.increment();
+                p.firstBuildNanos.add(nanos);
+                LOGGER.log(Level.FINE, "First build on {0} started {1} ms after it came online",
+                        new Object[] {c.getName(), TimeUnit.NANOSECONDS.toMillis(nanos)});
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(JarProvisioning.class.getName());
+}
@@ -0,0 +1,409 @@
+package jenkins.agents;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.LoadStatistics;
+import hudson.model.MultiStageTimeSeries;
+import hudson.model.Node;
+import hudson.model.PeriodicWork;
+import hudson.model.Queue;
+import hudson.slaves.SlaveComputer;
+import hudson.util.ColorPalette;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import net.jcip.annotations.GuardedBy;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Paces the launches of agents started by {@link SlaveComputer#connect}, so that launching all agents at once,
+ * typically right after a restart, does not overwhelm the controller.
+ *
+ * <p>
+ * At most {@link #MAX_CONCURRENT} launches run at the same time, and launches start at no more than
+ * {@link #LAUNCHES_PER_SECOND} on average.
+ * Waiting launches of agents able to run buildable items go first.
+ * Launches of agents whose previous launch failed wait for between half and all of an exponential backoff,
+ * chosen at random so that agents which failed together do not all retry together.
+ * Launches requested by a user start right away.
+ * A launch which has not completed after {@link #SLOT_TIMEOUT_SECONDS} is left to go on
+ * without being counted against {@link #MAX_CONCURRENT} any longer, so that hung launchers do not block the others.
+ */
+@Restricted(NoExternalUse.class)
+public final class LaunchScheduler {
+
+    private static final String PREFIX = LaunchScheduler.class.getName();
+
+    /**
+     * Whether launches go through this scheduler rather than straight to {@link Computer#threadPoolForRemoting}.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED = SystemProperties.getBoolean(PREFIX + ".enabled", true);
+
+    /**
+     * Maximum number of launches running at the same time, or 0 for no limit.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ int MAX_CONCURRENT = SystemProperties.getInteger(PREFIX + ".maxConcurrent", 50);
+
+    /**
+     * How long a launch is counted against {@link #MAX_CONCURRENT}, or 0 for as long as it runs.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ int SLOT_TIMEOUT_SECONDS = SystemProperties.getInteger(PREFIX + ".slotTimeoutSeconds", 300);
+
+    /**
+     * Average number of launches started per second, or 0 for no limit.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ int LAUNCHES_PER_SECOND = SystemProperties.getInteger(PREFIX + ".launchesPerSecond", 10);
+
+    /**
+     * Number of launches which may start at once when {@link #LAUNCHES_PER_SECOND} is set.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ int BURST = SystemProperties.getInteger(PREFIX + ".burst", 50);
+
+    /**
+     * Backoff after the first failed launch of an agent, doubled after each further failure.
+     */
+    private static final long RETRY_BASE = TimeUnit.SECONDS.toMillis(SystemProperties.getInteger(PREFIX + ".retryBaseSeconds", 2));
+
+    private static final long RETRY_MAX = TimeUnit.SECONDS.toMillis(SystemProperties.getInteger(PREFIX + ".retryMaxSeconds", 300));
+
+    /**
+     * How long the priority of waiting launches is reused.
+     */
+    private static final long PRIORITY_TTL = TimeUnit.SECONDS.toMillis(5);
+
+    private static final LaunchScheduler INSTANCE = new LaunchScheduler();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @GuardedBy("this")
+    private final List<Launch> pending = new ArrayList<>();
+
+    @GuardedBy("this")
+    private int running;
+
+    @GuardedBy("this")
+    private double tokens = BURST;
+
+    @GuardedBy("this")
+    private long refilled = System.nanoTime();
+
+    @GuardedBy("this")
+    private long prioritized;
+
+    /**
+     * Consecutive failures and time of the last failure, by agent name.
+     */
+    @GuardedBy("this")
+    private final Map<String, long[]> failures = new HashMap<>();
+
+    @GuardedBy("this")
+    private long wakeupAt = Long.MAX_VALUE;
+
+    private final LongAdder launched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final MultiStageTimeSeries pendingSeries = new MultiStageTimeSeries(Messages._LaunchScheduler_Pending(), ColorPalette.YELLOW, 0, LoadStatistics.DECAY);
+    private final MultiStageTimeSeries connectingSeries = new MultiStageTimeSeries(Messages._LaunchScheduler_Connecting(), ColorPalette.GREY, 0, LoadStatistics.DECAY);
+    private final MultiStageTimeSeries onlineSeries = new MultiStageTimeSeries(Messages._LaunchScheduler_Online(), ColorPalette.BLUE, 0, LoadStatistics.DECAY);
+
+    LaunchScheduler() {}
+
+    public static LaunchScheduler get() {
+        return INSTANCE;
+    }
+
+    private final class Launch extends FutureTask<Object> {
+        final SlaveComputer computer;
+        final String name;
+        final boolean userInitiated;
+        final long seq = sequence.incrementAndGet();
+        long notBefore;
+        boolean wanted;
+
+        /**
+         * Whether the launch no longer counts as running.
+         */
+        @GuardedBy("LaunchScheduler.this")
+        boolean released;
+
+        @CheckForNull
+        ScheduledFuture<?> lease;
+
+        Launch(SlaveComputer computer, boolean userInitiated, Callable<?> task) {
+            super(task::call);
+            this.computer = computer;
+            this.name = computer.getName();
+            this.userInitiated = userInitiated;
+        }
+    }
+
+    /**
+     * Schedules the launch of an agent.
+     *
+     * @param userInitiated whether the launch was requested by a user, rather than by a retention strategy,
+     *      and should start right away regardless of the limits and of previous failures
+     * @param task performs the launch, leaving the agent connected if successful
+     * @return completes once the launch is done
+     */
+    @NonNull
+    public Future<?> submit(@NonNull SlaveComputer computer, boolean userInitiated, @NonNull Callable<?> task) {
+        if (!ENABLED) {
+            return Computer.threadPoolForRemoting.submit(task);
+        }
+        Launch l = new Launch(computer, userInitiated, task);
+        synchronized (this) {
+            for (Iterator<Launch> it = pending.iterator(); it.hasNext(); ) {
+                Launch p = it.next();
+                if (p.computer == computer) {
+                    // superseded, e.g. by a forced reconnect
+                    it.remove();
+                    p.cancel(false);
+                }
+            }
+            if (userInitiated) {
+                // still counted, so that other launches wait for it
+                running++;
+            } else {
+                long[] f = failures.get(l.name);
+                if (f != null) {
+                    long backoff = Math.min(RETRY_MAX, RETRY_BASE << Math.min(f[0] - 1, 20));
+                    l.notBefore = f[1] + backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                }
+                // prioritized along with the others on a later dispatch
+                pending.add(l);
+            }
+        }
+        if (userInitiated) {
+            start(l);
+        } else {
+            dispatch();
+        }
+        return l;
+    }
+
+    private void dispatch() {
+        List<Launch> start = new ArrayList<>();
+        synchronized (this) {
+            pending.removeIf(Future::isDone);
+            long now = System.currentTimeMillis();
+            refill();
+            if (pending.size() > 1 && now - prioritized > PRIORITY_TTL) {
+                prioritize();
+                prioritized = now;
+            }
+            long next = Long.MAX_VALUE;
+            for (Iterator<Launch> it = pending.iterator(); it.hasNext() && (MAX_CONCURRENT <= 0 || running < MAX_CONCURRENT); ) {
+                Launch l = it.next();
+                if (l.notBefore > now) {
+                    next = Math.min(next, l.notBefore);
+                    continue;
+                }
+                if (LAUNCHES_PER_SECOND > 0) {
+                    if (tokens < 1) {
+                        next = Math.min(next, now + (long) Math.ceil((1 - tokens) * 1000 / LAUNCHES_PER_SECOND));
+                        break;
+                    }
+                    tokens--;
+                }
+                it.remove();
+                running++;
+                start.add(l);
+            }
+            // launches waiting for a free slot are dispatched when a running one finishes
+            if (next < wakeupAt) {
+                wakeupAt = next;
+                Timer.get().schedule(this::wakeup, Math.max(0, next - now), TimeUnit.MILLISECONDS);
+            }
+        }
+        for (Launch l : start) {
+            start(l);
+        }
+    }
+
+    private void start(Launch l) {
+        launched.increment();
+        if (SLOT_TIMEOUT_SECONDS > 0) {
+            l.lease = Timer.get().schedule(() -> expire(l), SLOT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        Computer.threadPoolForRemoting.submit(() -> {
+            try {
+                l.run();
+            } finally {
+                finished(l);
+            }
+        });
+    }
+
+    private void wakeup() {
+        synchronized (this) {
+            wakeupAt = Long.MAX_VALUE;
+        }
+        dispatch();
+    }
+
+    @GuardedBy("this")
+    private void refill() {
+        long now = System.nanoTime();
+        if (LAUNCHES_PER_SECOND > 0) {
+            tokens = Math.min(Math.max(1, BURST), tokens + (now - refilled) / 1e9 * LAUNCHES_PER_SECOND);
+        }
+        refilled = now;
+    }
+
+    /**
+     * Orders waiting launches so that agents able to run buildable items go first, then by submission.
+     */
+    @GuardedBy("this")
+    private void prioritize() {
+        List<Queue.BuildableItem> items = Queue.getInstance().getBuildableItems();
+        for (Launch l : pending) {
+            l.wanted = false;
+            Node node = l.computer.getNode();
+            if (node == null) {
+                continue;
+            }
+            for (Queue.BuildableItem item : items) {
+                Label label = item.getAssignedLabel();
+                if (label == null ? node.getMode() == Node.Mode.NORMAL : label.contains(node)) {
+                    l.wanted = true;
+                    break;
+                }
+            }
+        }
+        pending.sort(Comparator.comparing((Launch l) -> !l.wanted).thenComparingLong(l -> l.seq));
+    }
+
+    /**
+     * Releases the slot of a launch still running after {@link #SLOT_TIMEOUT_SECONDS}.
+     */
+    private void expire(Launch l) {
+        synchronized (this) {
+            if (!release(l)) {
+                return;
+            }
+        }
+        LOGGER.log(Level.WARNING, "Launch of {0} still in progress after {1} seconds, no longer holding up other launches",
+                new Object[] {l.name, SLOT_TIMEOUT_SECONDS});
+        dispatch();
+    }
+
+    @GuardedBy("this")
+    private boolean release(Launch l) {
+        if (l.released) {
+            return false;
+        }
+        l.released = true;
+        running--;
+        return true;
+    }
+
+    private void finished(Launch l) {
+        ScheduledFuture<?> lease = l.lease;
+        if (lease != null) {
+            lease.cancel(false);
+        }
+        boolean success = l.computer.getChannel() != null;
+        synchronized (this) {
+            release(l);
+            if (success) {
+                failures.remove(l.name);
+            } else if (!l.isCancelled()) {
+                long[] f = failures.computeIfAbsent(l.name, k -> new long[2]);
+                f[0]++;
+                f[1] = System.currentTimeMillis();
+                failed.increment();
+            }
+        }
+        dispatch();
+    }
+
+    private synchronized void retainFailures(Collection<String> names) {
+        failures.keySet().retainAll(names);
+    }
+
+    /**
+     * @return the number of launches waiting to start
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of launches in progress
+     */
+    public synchronized int getConnecting() {
+        return running;
+    }
+
+    public long getLaunched() {
+        return launched.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public MultiStageTimeSeries.TrendChart createTrendChart(MultiStageTimeSeries.TimeScale timeScale) {
+        return MultiStageTimeSeries.createTrendChart(timeScale, pendingSeries, connectingSeries, onlineSeries);
+    }
+
+    /**
+     * Records the number of pending, connecting and online agents.
+     */
+    @Extension @Symbol("launchStatistics")
+    public static final class Sampler extends PeriodicWork {
+        @Override
+        public long getRecurrencePeriod() {
+            return LoadStatistics.CLOCK;
+        }
+
+        @Override
+        protected void doRun() {
+            LaunchScheduler s = get();
+            int online = 0;
+            Set<String> names = new HashSet<>();
+            for (Computer c : Jenkins.get().getComputers()) {
+                names.add(c.getName());
+                if (c instanceof SlaveComputer && c.isOnline()) {
+                    online++;
+                }
+            }
+            s.retainFailures(names);
+            s.pendingSeries.update(s.getPending());
+            s.connectingSeries.update(s.getConnecting());
+            s.onlineSeries.update(online);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(LaunchScheduler.class.getName());
+}
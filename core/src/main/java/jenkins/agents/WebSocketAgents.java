@@ -38,6 +38,7 @@ import hudson.remoting.ChunkHeader;
 import hudson.remoting.Engine;
 import hudson.slaves.SlaveComputer;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
@@ -145,10 +146,11 @@ public final class WebSocketAgents extends InvisibleAction implements Unprotecte
         }
 
         @Override
-        protected void binary(byte[] payload, int offset, int len) {
-            LOGGER.finest(() -> "reading block of length " + len + " from " + agent);
+        protected void binary(ByteBuffer payload) {
+            LOGGER.finest(() -> "reading block of length " + payload.remaining() + " from " + agent);
             try {
-                transport.receive(ByteBuffer.wrap(payload, offset, len));
+                // consumed before returning, so need not be copied
+                transport.receive(payload);
             } catch (IOException | InterruptedException e) {
                 error(e);
             }
@@ -178,11 +180,15 @@ public final class WebSocketAgents extends InvisibleAction implements Unprotecte
             protected void write(ByteBuffer headerAndData) throws IOException {
                 // As in Engine.runWebSocket:
                 LOGGER.finest(() -> "sending message of length " + (headerAndData.remaining() - ChunkHeader.SIZE));
+                // copied, as the buffer is reused once this returns, so that writes need not be awaited one by one
+                ByteBuffer data = ByteBuffer.allocate(headerAndData.remaining());
+                data.put(headerAndData).flip();
                 try {
-                    sendBinary(headerAndData).get(5, TimeUnit.MINUTES);
-                } catch (Exception x) {
-                    throw new IOException(x);
+                    awaitWritable(5, TimeUnit.MINUTES);
+                } catch (InterruptedException x) {
+                    throw (IOException) new InterruptedIOException().initCause(x);
                 }
+                queueBinary(data);
             }
 
             @Override
@@ -0,0 +1,67 @@
+package jenkins.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.security.Permission;
+import jenkins.model.Jenkins;
+import jenkins.model.lazy.BoundedBuildCache;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Shows how builds are loaded from disk and, in {@code bounded} mode, the statistics of {@link BoundedBuildCache}.
+ */
+@Extension @Symbol("buildCache")
+@Restricted(NoExternalUse.class)
+public class BuildCacheLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return BoundedBuildCache.isEnabled() ? "symbol-analytics" : null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.BuildCacheLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.BuildCacheLink_Description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "buildCache";
+    }
+
+    @NonNull
+    @Override
+    public Permission getRequiredPermission() {
+        return Jenkins.SYSTEM_READ;
+    }
+
+    @NonNull
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public boolean isEnabled() {
+        return BoundedBuildCache.isEnabled();
+    }
+
+    public BoundedBuildCache getCache() {
+        return BoundedBuildCache.get();
+    }
+
+    public long getLoads() {
+        return BoundedBuildCache.getLoads();
+    }
+
+    public long getLoadMillis() {
+        return BoundedBuildCache.getLoadMillis();
+    }
+}
@@ -0,0 +1,103 @@
+package jenkins.management;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.security.Permission;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.List;
+import jenkins.ClassDataSharing;
+import jenkins.InitProfiler;
+import jenkins.model.Jenkins;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerResponse2;
+
+/**
+ * Shows the {@link InitProfiler startup profile} and the state of {@link ClassDataSharing}.
+ */
+@Extension(ordinal = Integer.MAX_VALUE - 650) @Symbol("startupProfile")
+@Restricted(NoExternalUse.class)
+public class StartupProfileLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return getProfile() == null ? null : "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.StartupProfileLink_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.StartupProfileLink_Description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "startupProfile";
+    }
+
+    @NonNull
+    @Override
+    public Permission getRequiredPermission() {
+        return Jenkins.SYSTEM_READ;
+    }
+
+    @NonNull
+    @Override
+    public Category getCategory() {
+        return Category.TROUBLESHOOTING;
+    }
+
+    @CheckForNull
+    public InitProfiler getProfile() {
+        return InitProfiler.getLast();
+    }
+
+    /**
+     * @return the tasks that took longest
+     */
+    public List<InitProfiler.Span> getSlowestTasks(int n) {
+        InitProfiler profile = getProfile();
+        if (profile == null) {
+            return List.of();
+        }
+        return profile.getSpans().stream().sorted(Comparator.comparingLong((InitProfiler.Span s) -> s.end() - s.start()).reversed()).limit(n).toList();
+    }
+
+    public boolean isClassDataSharingInUse() {
+        return ClassDataSharing.isArchiveInUse();
+    }
+
+    public String getClassDataSharingOptions() {
+        return String.join(" ", ClassDataSharing.getJvmOptions());
+    }
+
+    public long getClassDataSharingCpuMillisSaved() {
+        return ClassDataSharing.getStartupCpuMillisSaved();
+    }
+
+    /**
+     * Serves the profile in the Chrome trace event format.
+     */
+    public void doTrace(StaplerResponse2 rsp) throws IOException {
+        Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+        InitProfiler profile = getProfile();
+        if (profile == null) {
+            throw HttpResponses.notFound();
+        }
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.setHeader("Content-Disposition", "attachment; filename=init-trace.json");
+        try (Writer w = rsp.getWriter()) {
+            profile.toTraceEvents().write(w);
+        }
+    }
+}
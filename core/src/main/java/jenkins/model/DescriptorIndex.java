@@ -0,0 +1,124 @@
+package jenkins.model;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.DescriptorExtensionList;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash-based lookups over {@code ExtensionList<Descriptor>} backing {@link Jenkins#getDescriptor(String)},
+ * {@link Jenkins#getDescriptor(Class)} and {@link Jenkins#getDescriptorByType(Class)}.
+ *
+ * <p>
+ * The index is rebuilt lazily after the extension list changes.
+ * It is only kept once the extension list was loaded, as earlier on it only shows legacy instances,
+ * and loading does not notify {@link ExtensionListListener}s.
+ * Legacy descriptors ({@link DescriptorExtensionList#listLegacyInstances()}) are rare and are still scanned.
+ */
+@SuppressWarnings("rawtypes")
+final class DescriptorIndex {
+
+    private final ExtensionList<Descriptor> descriptors;
+
+    /**
+     * Incremented whenever {@link #descriptors} changes.
+     */
+    private final AtomicInteger version = new AtomicInteger();
+
+    private volatile Snapshot snapshot;
+
+    DescriptorIndex(@NonNull ExtensionList<Descriptor> descriptors) {
+        this.descriptors = descriptors;
+        descriptors.addListener(new ExtensionListListener() {
+            @Override
+            public void onChange() {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    private static final class Snapshot {
+        final int version;
+        final Map<String, Descriptor> byId = new HashMap<>();
+        final Map<String, List<Descriptor>> byShortName = new HashMap<>();
+        final Map<Class<?>, Descriptor> byClazz = new HashMap<>();
+        final Map<Class<?>, Descriptor> byType = new HashMap<>();
+
+        Snapshot(int version, Iterable<Descriptor> descriptors) {
+            this.version = version;
+            for (Descriptor d : descriptors) {
+                String id = d.getId();
+                byId.putIfAbsent(id, d);
+                byShortName.computeIfAbsent(id.substring(id.lastIndexOf('.') + 1), k -> new ArrayList<>(1)).add(d);
+                byClazz.putIfAbsent(d.clazz, d);
+                byType.putIfAbsent(d.getClass(), d);
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        int v = version.get();
+        Snapshot s = snapshot;
+        if (s == null || s.version != v) {
+            boolean loaded = descriptors.isLoaded();
+            s = new Snapshot(v, descriptors);
+            if (loaded) {
+                snapshot = s;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * @see Jenkins#getDescriptor(String)
+     */
+    @CheckForNull
+    Descriptor get(@NonNull String id) {
+        Snapshot s = snapshot();
+        Descriptor d = s.byId.get(id);
+        if (d != null) {
+            return d;
+        }
+        Iterable<Descriptor> legacy = DescriptorExtensionList.listLegacyInstances();
+        for (Descriptor l : legacy) {
+            if (l.getId().equals(id)) {
+                return l;
+            }
+        }
+        List<Descriptor> candidates = new ArrayList<>(s.byShortName.getOrDefault(id, List.of()));
+        for (Descriptor l : legacy) {
+            String name = l.getId();
+            if (name.substring(name.lastIndexOf('.') + 1).equals(id)) {
+                candidates.add(l);
+            }
+        }
+        if (candidates.size() > 1) {
+            throw new IllegalArgumentException(id + " is ambiguous; matches both " + candidates.get(1).getId() + " and " + candidates.get(0).getId());
+        }
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    /**
+     * @see Jenkins#getDescriptor(Class)
+     */
+    @CheckForNull
+    Descriptor getByClazz(Class<? extends Describable> type) {
+        return snapshot().byClazz.get(type);
+    }
+
+    /**
+     * @see Jenkins#getDescriptorByType(Class)
+     */
+    @CheckForNull
+    Descriptor getByType(Class<? extends Descriptor> type) {
+        return snapshot().byType.get(type);
+    }
+}
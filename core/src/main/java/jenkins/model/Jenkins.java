@@ -147,6 +147,7 @@ import hudson.remoting.VirtualChannel;
 import hudson.scm.RepositoryBrowser;
 import hudson.scm.SCM;
 import hudson.search.CollectionSearchIndex;
+import hudson.search.ItemNameIndex;
 import hudson.search.SearchIndexBuilder;
 import hudson.search.SearchItem;
 import hudson.security.ACL;
@@ -166,7 +167,6 @@ import hudson.security.SecurityRealm;
 import hudson.security.csrf.CrumbIssuer;
 import hudson.security.csrf.GlobalCrumbIssuerConfiguration;
 import hudson.slaves.Cloud;
-import hudson.slaves.ComputerListener;
 import hudson.slaves.DumbSlave;
 import hudson.slaves.NodeDescriptor;
 import hudson.slaves.NodeList;
@@ -193,7 +193,6 @@ import hudson.util.FormValidation;
 import hudson.util.Futures;
 import hudson.util.HudsonIsLoading;
 import hudson.util.HudsonIsRestarting;
-import hudson.util.Iterators;
 import hudson.util.JenkinsReloadFailed;
 import hudson.util.LogTaskListener;
 import hudson.util.MultipartFormDataParser;
@@ -271,6 +270,7 @@ import jenkins.ExtensionComponentSet;
 import jenkins.ExtensionRefreshException;
 import jenkins.InitReactorRunner;
 import jenkins.agents.CloudSet;
+import jenkins.agents.ComputerListenerDispatcher;
 import jenkins.diagnostics.URICheckEncodingMonitor;
 import jenkins.install.InstallState;
 import jenkins.install.SetupWizard;
@@ -485,6 +485,12 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
      */
     /*package*/ final transient Map<String, TopLevelItem> items = new CopyOnWriteMap.Tree<>(String.CASE_INSENSITIVE_ORDER);
 
+    /**
+     * Directories of the disabled items whose loading was deferred after startup, keyed by item name.
+     * See {@link #LAZY_LOAD_DISABLED_ITEMS}.
+     */
+    private final transient Map<String, File> deferredItems = new ConcurrentHashMap<>();
+
     /**
      * The sole instance.
      */
@@ -537,6 +543,12 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
     @SuppressWarnings("rawtypes")
     private final transient Map<Class, DescriptorExtensionList> descriptorLists = new ConcurrentHashMap<>();
 
+    /**
+     * Lookups over {@code getExtensionList(Descriptor.class)}, created on first use.
+     */
+    private transient volatile DescriptorIndex descriptorIndex;
+    private final transient Object descriptorIndexLock = new Object();
+
     /**
      * {@link Computer}s in this Jenkins system. Read-only.
      */
@@ -1011,16 +1023,16 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
             { // built-in node is online now, its instance must always exist
                 final Computer c = toComputer();
                 if (c != null) {
-                    for (ComputerListener cl : ComputerListener.all()) {
-                        try {
-                            cl.onOnline(c, new LogTaskListener(LOGGER, INFO));
-                        } catch (Exception e) {
+                    ComputerListenerDispatcher.get().fire(c, "onOnline", true, cl -> cl.onOnline(c, new LogTaskListener(LOGGER, INFO)), (cl, e) -> {
+                        if (e instanceof Exception) {
                             // Per Javadoc log exceptions but still go online.
                             // NOTE: this does not include Errors, which indicate a fatal problem
                             LOGGER.log(WARNING, String.format("Exception in onOnline() for the computer listener %s on the built-in node",
                                     cl.getClass()), e);
+                        } else {
+                            throw e instanceof Error err ? err : new Error(e);
                         }
-                    }
+                    });
                 }
             }
 
@@ -1496,25 +1508,21 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
      */
     @SuppressWarnings("rawtypes") // too late to fix
     public Descriptor getDescriptor(String id) {
-        // legacy descriptors that are registered manually doesn't show up in getExtensionList, so check them explicitly.
-        Iterable<Descriptor> descriptors = Iterators.sequence(getExtensionList(Descriptor.class), DescriptorExtensionList.listLegacyInstances());
-        for (Descriptor d : descriptors) {
-            if (d.getId().equals(id)) {
-                return d;
-            }
-        }
-        Descriptor candidate = null;
-        for (Descriptor d : descriptors) {
-            String name = d.getId();
-            if (name.substring(name.lastIndexOf('.') + 1).equals(id)) {
-                if (candidate == null) {
-                    candidate = d;
-                } else {
-                    throw new IllegalArgumentException(id + " is ambiguous; matches both " + name + " and " + candidate.getId());
+        // legacy descriptors that are registered manually doesn't show up in getExtensionList, so the index checks them explicitly.
+        return getDescriptorIndex().get(id);
+    }
+
+    private DescriptorIndex getDescriptorIndex() {
+        DescriptorIndex index = descriptorIndex;
+        if (index == null) {
+            synchronized (descriptorIndexLock) {
+                index = descriptorIndex;
+                if (index == null) {
+                    index = descriptorIndex = new DescriptorIndex(getExtensionList(Descriptor.class));
                 }
             }
         }
-        return candidate;
+        return index;
     }
 
     /**
@@ -1533,10 +1541,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
      */
     @CheckForNull
     public Descriptor getDescriptor(Class<? extends Describable> type) {
-        for (Descriptor d : getExtensionList(Descriptor.class))
-            if (d.clazz == type)
-                return d;
-        return null;
+        return getDescriptorIndex().getByClazz(type);
     }
 
     /**
@@ -1558,10 +1563,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
      * Gets the {@link Descriptor} instance in the current Jenkins by its type.
      */
     public <T extends Descriptor> T getDescriptorByType(Class<T> type) {
-        for (Descriptor d : getExtensionList(Descriptor.class))
-            if (d.getClass() == type)
-                return type.cast(d);
-        return null;
+        return type.cast(getDescriptorIndex().getByType(type));
     }
 
     /**
@@ -1592,6 +1594,10 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
         updateComputerList(AUTOMATIC_AGENT_LAUNCH);
     }
 
+    protected void updateComputer(@CheckForNull Node oldNode, @CheckForNull Node newNode) {
+        updateComputer(oldNode, newNode, AUTOMATIC_AGENT_LAUNCH);
+    }
+
     /** @deprecated Use {@link SCMListener#all} instead. */
     @Deprecated
     public CopyOnWriteList<SCMListener> getSCMListeners() {
@@ -2130,11 +2136,18 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
     }
 
     /**
-     * @return the collection of all {@link Computer}s in this instance.
+     * @return the collection of all {@link Computer}s in this instance,
+     * followed by those of removed nodes still running builds whose name was taken by a new node.
      */
     @Restricted(NoExternalUse.class)
     public Collection<Computer> getComputersCollection() {
-        return computers.values();
+        Collection<Computer> evicted = getEvictedComputers();
+        if (evicted.isEmpty()) {
+            return computers.values();
+        }
+        List<Computer> all = new ArrayList<>(computers.values());
+        all.addAll(evicted);
+        return all;
     }
 
     /**
@@ -2362,6 +2375,22 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
                     protected Iterable<TopLevelItem> allAsIterable() {
                         return allItems(TopLevelItem.class);
                     }
+
+                    @Override
+                    protected Iterable<TopLevelItem> candidates(@NonNull String token) {
+                        List<String> fullNames = ItemNameIndex.get().candidates(token);
+                        if (fullNames == null) {
+                            return null;
+                        }
+                        List<TopLevelItem> items = new ArrayList<>(fullNames.size());
+                        for (String fullName : fullNames) {
+                            TopLevelItem item = getItemByFullName(fullName, TopLevelItem.class);
+                            if (item != null) {
+                                items.add(item);
+                            }
+                        }
+                        return items;
+                    }
                 })
                 .add(getPrimaryView().makeSearchIndex())
                 .add(new CollectionSearchIndex() { // for computers
@@ -2970,6 +2999,8 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
     @Override public TopLevelItem getItem(String name) throws AccessDeniedException {
         if (name == null)    return null;
         TopLevelItem item = items.get(name);
+        if (item == null && !deferredItems.isEmpty())
+            item = loadDeferredItem(name);
         if (item == null)
             return null;
         if (!item.hasPermission(Item.READ)) {
@@ -3410,6 +3441,8 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
         File[] subdirs = projectsDir.listFiles();
 
         final Set<String> loadedNames = Collections.synchronizedSet(new HashSet<>());
+        // only during startup: on reload, items may already be in use
+        final boolean deferDisabled = LAZY_LOAD_DISABLED_ITEMS && initLevel != InitMilestone.COMPLETED;
 
         TaskGraphBuilder g = new TaskGraphBuilder();
         Handle loadJenkins = g.requires(EXTENSIONS_AUGMENTED).attains(SYSTEM_CONFIG_LOADED).add("Loading global config", new Executable() {
@@ -3435,6 +3468,10 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
                         //Does not have job config file, so it is not a jenkins job hence skip it
                         return;
                     }
+                    if (deferDisabled && Items.isDisabled(subdir)) {
+                        deferredItems.put(subdir.getName(), subdir);
+                        return;
+                    }
                     TopLevelItem item = (TopLevelItem) Items.load(Jenkins.this, subdir);
                     items.put(item.getName(), item);
                     loadedNames.add(item.getName());
@@ -3500,12 +3537,61 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
 
                 setupWizard = ExtensionList.lookupSingleton(SetupWizard.class);
                 getInstallState().initializeState();
+
+                if (!deferredItems.isEmpty()) {
+                    LOGGER.info(() -> "Deferred loading of " + deferredItems.size() + " disabled items, " + items.size() + " items loaded");
+                    Timer.get().submit(Jenkins.this::loadDeferredItems);
+                }
             }
         });
 
         return g;
     }
 
+    /**
+     * Loads an item whose loading was {@linkplain #LAZY_LOAD_DISABLED_ITEMS deferred}, if there is one by this name.
+     */
+    @CheckForNull
+    private TopLevelItem loadDeferredItem(@NonNull String name) {
+        synchronized (deferredItems) {
+            TopLevelItem item = items.get(name);
+            if (item != null) {
+                return item;
+            }
+            File dir = deferredItems.get(name);
+            if (dir == null) {
+                return null;
+            }
+            try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+                item = (TopLevelItem) Items.load(this, dir);
+                items.put(item.getName(), item);
+                return item;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(WARNING, "Failed to load " + dir, e);
+                return null;
+            } finally {
+                deferredItems.remove(name);
+            }
+        }
+    }
+
+    private void loadDeferredItems() {
+        long start = System.nanoTime();
+        int count = deferredItems.size();
+        for (String name : new ArrayList<>(deferredItems.keySet())) {
+            loadDeferredItem(name);
+        }
+        LOGGER.info(() -> String.format("Loaded %d deferred items in %dms", count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * @return the number of items whose loading is still {@linkplain #LAZY_LOAD_DISABLED_ITEMS deferred}
+     */
+    @Restricted(NoExternalUse.class)
+    public int getDeferredItemCount() {
+        return deferredItems.size();
+    }
+
     /**
      * Save the settings to a file.
      */
@@ -4680,7 +4766,7 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
             Computer computer = Jenkins.get().toComputer();
             if (computer == null) return;
             RestartCause cause = new RestartCause();
-            Listeners.notify(ComputerListener.class, true, l -> l.onOffline(computer, cause));
+            ComputerListenerDispatcher.get().fire(computer, "onOffline", true, l -> l.onOffline(computer, cause));
         }
 
         @Override
@@ -5687,6 +5773,13 @@ public class Jenkins extends AbstractCIBase implements DirectlyModifiableTopLeve
 
     @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
     public static boolean PARALLEL_LOAD = SystemProperties.getBoolean(Jenkins.class.getName() + "." + "parallelLoad", true);
+    /**
+     * Whether loading disabled top-level items is deferred until after startup. They are then loaded in the background,
+     * or on demand by {@link #getItem(String)}. Until then, they are missing from {@link #getItems()} and the like.
+     */
+    @Restricted(NoExternalUse.class)
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static boolean LAZY_LOAD_DISABLED_ITEMS = SystemProperties.getBoolean(Jenkins.class.getName() + "." + "lazyLoadDisabledItems", false);
     @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
     public static boolean KILL_AFTER_LOAD = SystemProperties.getBoolean(Jenkins.class.getName() + "." + "killAfterLoad", false);
     /**
@@ -155,22 +155,20 @@ public class Nodes implements PersistenceRoot {
         Node old = nodes.put(node.getNodeName(), node);
         if (node != old) {
             node.onLoad(this, node.getNodeName());
-            jenkins.updateNewComputer(node);
+            jenkins.updateComputer(old, node);
             jenkins.trimLabels(node, old);
             // TODO there is a theoretical race whereby the node instance is updated/removed after lock release
             try {
-                node.save();
+                // an ephemeral node has nothing to persist, unless it replaces a node which was persisted
+                if (isPersisted(node) || isPersisted(old)) {
+                    node.save();
+                }
             } catch (IOException | RuntimeException e) {
                 // JENKINS-50599: If persisting the node throws an exception, we need to remove the node from
                 // memory before propagating the exception.
-                Queue.withLock(new Runnable() {
-                    @Override
-                    public void run() {
-                        nodes.compute(node.getNodeName(), (ignoredNodeName, ignoredNode) -> old);
-                        jenkins.updateComputerList();
-                        jenkins.trimLabels(node, old);
-                    }
-                });
+                Queue.withLock(() -> nodes.compute(node.getNodeName(), (ignoredNodeName, ignoredNode) -> old));
+                jenkins.updateComputer(node, old);
+                jenkins.trimLabels(node, old);
                 throw e;
             }
             if (old != null) {
@@ -257,10 +255,8 @@ public class Nodes implements PersistenceRoot {
                 LOGGER.fine(() -> "deleting " + new File(getRootDir(), oldOne.getNodeName()));
                 Util.deleteRecursive(new File(getRootDir(), oldOne.getNodeName()));
             }
-            Queue.withLock(() -> {
-                jenkins.updateComputerList();
-                jenkins.trimLabels(oldOne, newOne);
-            });
+            jenkins.updateComputer(oldOne, newOne);
+            jenkins.trimLabels(oldOne, newOne);
             NodeListener.fireOnUpdated(oldOne, newOne);
 
             return true;
@@ -291,11 +287,13 @@ public class Nodes implements PersistenceRoot {
                 }
             });
             // no need for a full save() so we just do the minimum
-            LOGGER.fine(() -> "deleting " + new File(getRootDir(), node.getNodeName()));
-            Util.deleteRecursive(new File(getRootDir(), node.getNodeName()));
+            if (isPersisted(node)) {
+                LOGGER.fine(() -> "deleting " + new File(getRootDir(), node.getNodeName()));
+                Util.deleteRecursive(new File(getRootDir(), node.getNodeName()));
+            }
 
             if (match.get()) {
-                jenkins.updateComputerList();
+                jenkins.updateComputer(node, null);
                 jenkins.trimLabels(node);
             }
             NodeListener.fireOnDeleted(node);
@@ -303,13 +301,20 @@ public class Nodes implements PersistenceRoot {
         }
     }
 
+    /**
+     * {@link EphemeralNode}s are not persisted, so that they cost no disk I/O when added or removed.
+     */
+    private static boolean isPersisted(@CheckForNull Node node) {
+        return node != null && !(node instanceof EphemeralNode);
+    }
+
     @Override
     public void save() throws IOException {
         if (BulkChange.contains(this)) {
             return;
         }
         for (Node n : nodes.values()) {
-            if (n instanceof EphemeralNode) {
+            if (!isPersisted(n)) {
                 continue;
             }
             XmlFile xmlFile = getConfigFile(n);
@@ -379,9 +384,9 @@ public class Nodes implements PersistenceRoot {
             XmlFile xmlFile = getConfigFile(name);
             if (xmlFile.exists()) {
                 Node n = (Node) xmlFile.read();
-                nodes.put(n.getNodeName(), n);
+                Node old = nodes.put(n.getNodeName(), n);
                 n.onLoad(this, n.getNodeName());
-                jenkins.updateNewComputer(n);
+                jenkins.updateComputer(old, n);
                 jenkins.trimLabels(n);
                 LOGGER.finer(() -> "loading " + xmlFile);
                 return n;
@@ -414,7 +419,7 @@ public class Nodes implements PersistenceRoot {
             AtomicBoolean match = new AtomicBoolean();
             Queue.withLock(() -> match.set(node == nodes.remove(node.getNodeName())));
             if (match.get()) {
-                jenkins.updateComputerList();
+                jenkins.updateComputer(node, null);
                 jenkins.trimLabels(node);
             }
         }
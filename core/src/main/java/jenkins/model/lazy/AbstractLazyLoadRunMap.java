@@ -700,7 +700,9 @@ public abstract class AbstractLazyLoadRunMap<R> extends AbstractMap<Integer, R>
     private R load(File dataDir, Index editInPlace) {
         assert Thread.holdsLock(this);
         try {
+            long start = System.nanoTime();
             R r = retrieve(dataDir);
+            BoundedBuildCache.recordLoad(System.nanoTime() - start);
             if (r == null) {
                 LOGGER.fine(() -> "nothing in " + dataDir);
                 return null;
@@ -0,0 +1,261 @@
+package jenkins.model.lazy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Memory-bounded cache of loaded builds shared by all {@link AbstractLazyLoadRunMap}s,
+ * used by {@link BuildReference.DefaultHolderFactory} in {@code bounded} mode.
+ *
+ * <p>
+ * Builds are held strongly while cached, weighted by an estimate of their heap size derived from the size of
+ * their {@code build.xml}, and least recently used builds are evicted first once the total exceeds the limit.
+ * Each job may only occupy a limited number of entries, so that scanning the history of one job cannot flush
+ * the builds of all others. Evicted builds are still referenced weakly, so builds in use elsewhere
+ * (in particular builds in progress, held by their executor) remain reachable through their {@link BuildReference}.
+ * Builds of deleted or renamed jobs are dropped, and get counted under the new name of their job when used again.
+ */
+@Restricted(NoExternalUse.class)
+public final class BoundedBuildCache {
+
+    private static final String PREFIX = BoundedBuildCache.class.getName();
+
+    /**
+     * Maximum estimated heap size of all cached builds.
+     */
+    private static final long MAX_MEGABYTES = SystemProperties.getLong(PREFIX + ".maxMegabytes", 256L);
+
+    /**
+     * Maximum number of cached builds per job.
+     */
+    private static final int MAX_PER_JOB = SystemProperties.getInteger(PREFIX + ".maxPerJob", 100);
+
+    /**
+     * Estimated ratio between the heap size of a build and the size of its {@code build.xml}.
+     */
+    private static final int SIZE_FACTOR = SystemProperties.getInteger(PREFIX + ".sizeFactor", 4);
+
+    private static final int MIN_WEIGHT = 4 * 1024;
+
+    private static final LongAdder loads = new LongAdder();
+    private static final LongAdder loadNanos = new LongAdder();
+
+    private static final BoundedBuildCache INSTANCE = new BoundedBuildCache(MAX_MEGABYTES * 1024 * 1024, MAX_PER_JOB);
+
+    private final Cache<Holder<?>, Cached> cache;
+
+    /**
+     * A cached build, along with the job it is counted for in {@link #perJob}.
+     */
+    private record Cached(Object referent, String job) {}
+
+    private final int maxPerJob;
+
+    /**
+     * Number of cached builds by job full name. Jobs without cached builds have no entry.
+     */
+    private final ConcurrentMap<String, Integer> perJob = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    BoundedBuildCache(long maxWeight, int maxPerJob) {
+        this.maxPerJob = maxPerJob;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Holder<?> h, Cached c) -> h.weight)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    public static BoundedBuildCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return whether {@link BuildReference.DefaultHolderFactory} uses this cache
+     */
+    public static boolean isEnabled() {
+        return BuildReference.DefaultHolderFactory.isBounded();
+    }
+
+    /**
+     * A holder which is strong while its build is cached, and weak otherwise.
+     */
+    static final class Holder<R> extends WeakReference<R> implements BuildReference.Holder<R> {
+        private final BoundedBuildCache owner;
+        final int weight;
+
+        Holder(BoundedBuildCache owner, R referent, int weight) {
+            super(referent);
+            this.owner = owner;
+            this.weight = weight;
+        }
+
+        @Override
+        public R get() {
+            R r = super.get();
+            owner.access(this, r);
+            return r;
+        }
+
+        void invalidate() {
+            owner.cache.invalidate(this);
+        }
+    }
+
+    @NonNull
+    <R> Holder<R> make(@NonNull R referent) {
+        int weight = 16 * MIN_WEIGHT;
+        if (referent instanceof Run<?, ?> run) {
+            long size = new File(run.getRootDir(), "build.xml").length() * SIZE_FACTOR;
+            weight = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_WEIGHT, size));
+        }
+        Holder<R> h = new Holder<>(this, referent, weight);
+        admit(h, referent);
+        return h;
+    }
+
+    private void access(Holder<?> h, @CheckForNull Object r) {
+        if (cache.getIfPresent(h) != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            if (r != null) {
+                // still in use, so cache it again
+                admit(h, r);
+            }
+        }
+    }
+
+    private void admit(Holder<?> h, Object r) {
+        // computed on every admission, as the job may have been renamed since
+        String job = r instanceof Run<?, ?> run ? run.getParent().getFullName() : "";
+        boolean[] reserved = new boolean[1];
+        perJob.compute(job, (k, n) -> {
+            if (n != null && n >= maxPerJob) {
+                return n;
+            }
+            reserved[0] = true;
+            return n == null ? 1 : n + 1;
+        });
+        if (!reserved[0]) {
+            rejections.increment();
+            return;
+        }
+        if (cache.asMap().putIfAbsent(h, new Cached(r, job)) != null) {
+            release(job);
+        }
+    }
+
+    private void release(String job) {
+        perJob.computeIfPresent(job, (k, n) -> n <= 1 ? null : n - 1);
+    }
+
+    private void onRemoval(RemovalNotification<Holder<?>, Cached> n) {
+        Cached c = n.getValue();
+        if (c != null) {
+            release(c.job);
+        }
+        if (n.wasEvicted()) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Drops the cached builds of the given job, and of the jobs inside it if it is a folder.
+     */
+    void invalidateJob(@NonNull String fullName) {
+        String prefix = fullName + '/';
+        cache.asMap().entrySet().removeIf(e -> e.getValue().job.equals(fullName) || e.getValue().job.startsWith(prefix));
+    }
+
+    /**
+     * @return how many jobs currently have cached builds
+     */
+    public int getJobs() {
+        return perJob.size();
+    }
+
+    /**
+     * Called by {@link AbstractLazyLoadRunMap} whenever it loads a build from disk.
+     */
+    static void recordLoad(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return how many builds were not cached as their job already had as many cached builds as allowed
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return how many builds were loaded from disk, whether or not this cache is in use
+     */
+    public static long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * @return the total time spent loading builds from disk, whether or not this cache is in use
+     */
+    public static long getLoadMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(loadNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BoundedBuildCache[size=%d, jobs=%d, hits=%d, misses=%d, evictions=%d, rejections=%d, loads=%d, loadMillis=%d]",
+                getSize(), getJobs(), getHits(), getMisses(), getEvictions(), getRejections(), getLoads(), getLoadMillis());
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            get().invalidateJob(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            get().invalidateJob(oldFullName);
+        }
+    }
+}
@@ -59,6 +59,10 @@ public final class BuildReference<R> {
      * @see RunMixIn#dropLinks()
      */
     /*package*/ void clear() {
+        Holder<R> h = holder;
+        if (h instanceof BoundedBuildCache.Holder) {
+            ((BoundedBuildCache.Holder<R>) h).invalidate();
+        }
         holder = null;
     }
 
@@ -135,6 +139,8 @@ public final class BuildReference<R> {
      * <dd>Use {@link SoftReference}s. Builds will be kept around so long as memory pressure is not too high.
      * <dt>{@code weak}
      * <dd>Use {@link WeakReference}s. Builds will be kept only until the next full garbage collection cycle.
+     * <dt>{@code bounded}
+     * <dd>Use {@link BoundedBuildCache}. Recently used builds will be kept around up to a configurable estimated heap size.
      * <dt>{@code strong}
      * <dd>Use strong references. Builds will still be loaded lazily, but once loaded, will not be released.
      * <dt>{@code none}
@@ -147,11 +153,17 @@ public final class BuildReference<R> {
         public static final String MODE_PROPERTY = "jenkins.model.lazy.BuildReference.MODE";
         private static final String mode = SystemProperties.getString(MODE_PROPERTY);
 
+        static boolean isBounded() {
+            return "bounded".equals(mode);
+        }
+
         @Override public <R> Holder<R> make(R referent) {
             if (mode == null || mode.equals("soft")) {
                 return new SoftHolder<>(referent);
             } else if (mode.equals("weak")) {
                 return new WeakHolder<>(referent);
+            } else if (mode.equals("bounded")) {
+                return BoundedBuildCache.get().make(referent);
             } else if (mode.equals("strong")) {
                 return new StrongHolder<>(referent);
             } else if (mode.equals("none")) {
@@ -31,6 +31,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.BulkChange;
 import hudson.Util;
 import hudson.XmlFile;
+import hudson.init.Terminator;
 import hudson.model.Saveable;
 import hudson.model.User;
 import hudson.model.listeners.SaveableListener;
@@ -43,8 +44,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import net.jcip.annotations.GuardedBy;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -52,6 +60,20 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 public class ApiTokenStats implements Saveable {
     private static final Logger LOGGER = Logger.getLogger(ApiTokenStats.class.getName());
 
+    /**
+     * Maximum number of seconds a token usage is kept only in memory before being written to disk,
+     * so that heavily used tokens do not cause a write of {@code apiTokenStats.xml} on every request.
+     * Zero or negative values, the default, write on every usage.
+     */
+    @VisibleForTesting
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    static /* not final */ int SAVE_DELAY_SECONDS = SystemProperties.getInteger(ApiTokenStats.class.getName() + ".saveDelaySeconds", 0);
+
+    /**
+     * Instances having usage updates not yet written to disk.
+     */
+    private static final Set<ApiTokenStats> PENDING_SAVES = ConcurrentHashMap.newKeySet();
+
     /**
      * Normally a user will not have more 2-3 tokens at a time,
      * so there is no need to store a map here
@@ -60,6 +82,12 @@ public class ApiTokenStats implements Saveable {
 
     private transient User user;
 
+    /**
+     * Pending save scheduled by {@link #updateUsageForId(String)}, if any.
+     */
+    @GuardedBy("this")
+    private transient Future<?> nextSave;
+
     @VisibleForTesting
     transient File parent;
 
@@ -152,7 +180,7 @@ public class ApiTokenStats implements Saveable {
     }
 
    /**
-     * Will trigger the save
+     * Will trigger the save, deferred by at most {@link #SAVE_DELAY_SECONDS} if set
      */
     public @NonNull SingleTokenStats updateUsageForId(@NonNull String tokenUuid) {
         if (areStatsDisabled()) {
@@ -173,7 +201,14 @@ public class ApiTokenStats implements Saveable {
                 });
 
         stats.notifyUse();
-        save();
+        if (SAVE_DELAY_SECONDS > 0) {
+            if (nextSave == null) {
+                PENDING_SAVES.add(this);
+                nextSave = Timer.get().schedule(this::flush, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+        } else {
+            save();
+        }
 
         return stats;
     }
@@ -194,11 +229,49 @@ public class ApiTokenStats implements Saveable {
                 .findFirst();
     }
 
+    /**
+     * Writes usage updates that have only been recorded in memory so far, if any.
+     */
+    private synchronized void flush() {
+        if (nextSave == null) {
+            return;
+        }
+        File userFolder = getUserFolder();
+        if (userFolder != null && !userFolder.isDirectory()) {
+            // the user was deleted in the meantime
+            cancelPendingSave();
+            return;
+        }
+        long start = System.nanoTime();
+        save();
+        LOGGER.log(Level.FINE, "Flushed deferred API token usage of {0} in {1}ms",
+                new Object[] {userFolder, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+    }
+
+    private synchronized void cancelPendingSave() {
+        if (nextSave != null) {
+            nextSave.cancel(false);
+            nextSave = null;
+        }
+        PENDING_SAVES.remove(this);
+    }
+
+    /**
+     * Writes all the usage updates that have only been recorded in memory so far.
+     */
+    @Terminator
+    public static void flushAll() {
+        for (ApiTokenStats stats : PENDING_SAVES) {
+            stats.flush();
+        }
+    }
+
     /**
      * Saves the configuration info to the disk.
      */
     @Override
     public synchronized void save() {
+        cancelPendingSave();
         if (areStatsDisabled()) {
             return;
         }
@@ -0,0 +1,93 @@
+package jenkins.util;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Optionally runs blocking, I/O-bound tasks such as those of {@link hudson.model.Computer#threadPoolForRemoting}
+ * on virtual threads, when running on Java 21 or newer.
+ *
+ * <p>
+ * Off by default. Up to Java 23, a virtual thread blocking while holding a monitor pins its carrier thread,
+ * and Remoting still blocks in {@code synchronized} methods, so this is best enabled on Java 24 or newer.
+ */
+@Restricted(NoExternalUse.class)
+public final class VirtualThreads {
+
+    // initialized first, as used to initialize FACTORY
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreads.class.getName());
+
+    /**
+     * Whether to use virtual threads where supported.
+     */
+    private static final boolean ENABLED = SystemProperties.getBoolean(VirtualThreads.class.getName() + ".enabled", false);
+
+    @CheckForNull
+    private static final ThreadFactory FACTORY = ENABLED ? lookup() : null;
+
+    private VirtualThreads() {}
+
+    /**
+     * Calls {@code Thread.ofVirtual().factory()}, which cannot be referenced directly while Java 17 is supported.
+     */
+    @CheckForNull
+    static ThreadFactory lookup() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Virtual threads require Java 21 or newer, using platform threads", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return whether virtual threads are enabled and supported
+     */
+    public static boolean isEnabled() {
+        return FACTORY != null;
+    }
+
+    /**
+     * @return a factory of virtual threads if enabled, otherwise a {@link DaemonThreadFactory}
+     */
+    @NonNull
+    public static ThreadFactory daemonThreadFactory() {
+        // virtual threads are always daemon threads
+        return FACTORY != null ? new DaemonThreadFactory(FACTORY) : new DaemonThreadFactory();
+    }
+
+    /**
+     * Creates an executor for tasks which mostly block.
+     *
+     * @param threadFactory typically decorating {@link #daemonThreadFactory()}
+     * @return an executor starting a new thread per task if virtual threads are enabled, as they are not worth pooling,
+     * otherwise {@link Executors#newCachedThreadPool(ThreadFactory)}
+     */
+    @NonNull
+    public static ExecutorService newCachedThreadPool(@NonNull ThreadFactory threadFactory) {
+        if (FACTORY != null) {
+            try {
+                return newThreadPerTaskExecutor(threadFactory);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.log(Level.WARNING, "Failed to create a thread-per-task executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Calls {@code Executors.newThreadPerTaskExecutor}, available as of Java 21.
+     */
+    static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) throws ReflectiveOperationException {
+        return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+    }
+}
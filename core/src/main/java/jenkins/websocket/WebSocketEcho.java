@@ -28,7 +28,9 @@ import hudson.Extension;
 import hudson.model.InvisibleAction;
 import hudson.model.RootAction;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 import jenkins.model.Jenkins;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -45,25 +47,34 @@ public class WebSocketEcho  extends InvisibleAction implements RootAction {
 
         public HttpResponse doIndex() {
             Jenkins.get().checkPermission(Jenkins.ADMINISTER);
-            return WebSockets.upgrade(new WebSocketSession() {
-                @Override
-                protected void text(String message) throws IOException {
-                    sendText("hello " + message);
-                }
+            return WebSockets.upgrade(new Session());
+        }
 
-                @Override
-                protected void binary(byte[] payload, int offset, int len) throws IOException {
-                    ByteBuffer data = ByteBuffer.allocate(len);
-                    for (int i = 0; i < len; i++) {
-                        byte b = payload[offset + i];
-                        if (b >= 'a' && b <= 'z') {
-                            b += 'A' - 'a';
-                        }
-                        data.put(i, b);
+        static final class Session extends WebSocketSession {
+            @Override
+            protected void text(String message) throws IOException {
+                sendText("hello " + message);
+            }
+
+            @Override
+            protected void binary(ByteBuffer payload) throws IOException {
+                int len = payload.remaining();
+                ByteBuffer data = ByteBuffer.allocate(len);
+                for (int i = 0; i < len; i++) {
+                    byte b = payload.get(payload.position() + i);
+                    if (b >= 'a' && b <= 'z') {
+                        b += 'A' - 'a';
                     }
-                    sendBinary(data);
+                    data.put(i, b);
+                }
+                // stop reading from a client which does not read its responses
+                try {
+                    awaitWritable(5, TimeUnit.MINUTES);
+                } catch (InterruptedException x) {
+                    throw (IOException) new InterruptedIOException().initCause(x);
                 }
-            });
+                queueBinary(data);
+            }
         }
 
 }
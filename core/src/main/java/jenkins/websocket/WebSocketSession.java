@@ -26,6 +26,11 @@ package jenkins.websocket;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +38,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.util.SystemProperties;
 import jenkins.util.Timer;
+import net.jcip.annotations.GuardedBy;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.Beta;
 
@@ -58,11 +64,36 @@ public abstract class WebSocketSession {
      */
     private static long PING_INTERVAL_SECONDS = SystemProperties.getLong("jenkins.websocket.pingInterval", 30L);
 
+    /**
+     * Number of bytes of binary messages queued by {@link #queueBinary} but not yet written
+     * above which {@link #isWritable} is false.
+     */
+    private static long MAX_PENDING_BYTES = SystemProperties.getLong("jenkins.websocket.maxPendingBytes", 4L * 1024 * 1024);
+
     private static final Logger LOGGER = Logger.getLogger(WebSocketSession.class.getName());
 
     Provider.Handler handler;
     private ScheduledFuture<?> pings;
 
+    private final Object sendLock = new Object();
+
+    @GuardedBy("sendLock")
+    private List<Queued> queued = new ArrayList<>();
+
+    @GuardedBy("sendLock")
+    private boolean sending;
+
+    @GuardedBy("sendLock")
+    private long pendingBytes;
+
+    @GuardedBy("sendLock")
+    private Throwable sendFailure;
+
+    @GuardedBy("sendLock")
+    private boolean closeRequested;
+
+    private record Queued(ByteBuffer data, int size, CompletableFuture<Void> written) {}
+
     protected WebSocketSession() {}
 
     void startPings() {
@@ -100,6 +131,22 @@ public abstract class WebSocketSession {
         LOGGER.warning("unexpected binary frame");
     }
 
+    /**
+     * Receives a binary message.
+     * By default, calls {@link #binary(byte[], int, int)}, copying the message unless it is backed by an array.
+     * @param payload only valid until this method returns
+     * @since TODO
+     */
+    protected void binary(ByteBuffer payload) throws IOException {
+        if (payload.hasArray()) {
+            binary(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        } else {
+            byte[] copy = new byte[payload.remaining()];
+            payload.get(copy);
+            binary(copy, 0, copy.length);
+        }
+    }
+
     protected void text(String message) throws IOException {
         LOGGER.warning("unexpected text frame");
     }
@@ -116,7 +163,160 @@ public abstract class WebSocketSession {
         return handler.sendText(text);
     }
 
+    /**
+     * Sends a binary message without waiting for it to be written.
+     * Messages queued while others are being written are then sent together as one batch.
+     * Callers should apply backpressure using {@link #isWritable}, {@link #writable} or {@link #awaitWritable}.
+     * Messages sent by other methods may overtake queued ones.
+     * @param data must not be modified until the result completes
+     * @return completes once the message was written
+     * @throws IOException if writing an earlier message failed
+     * @since TODO
+     */
+    protected final CompletableFuture<Void> queueBinary(ByteBuffer data) throws IOException {
+        Queued q = new Queued(data, data.remaining(), new CompletableFuture<>());
+        List<Queued> batch;
+        synchronized (sendLock) {
+            if (sendFailure != null) {
+                throw new IOException(sendFailure);
+            }
+            pendingBytes += q.size;
+            queued.add(q);
+            if (sending) {
+                return q.written;
+            }
+            sending = true;
+            batch = queued;
+            queued = new ArrayList<>();
+        }
+        flush(batch);
+        return q.written;
+    }
+
+    private void flush(List<Queued> batch) {
+        while (batch != null) {
+            List<ByteBuffer> data = new ArrayList<>(batch.size());
+            for (Queued q : batch) {
+                data.add(q.data);
+            }
+            CompletableFuture<Void> written;
+            try {
+                written = handler.sendBinaryBatch(data);
+            } catch (IOException | RuntimeException x) {
+                written = CompletableFuture.failedFuture(x);
+            }
+            if (!written.isDone()) {
+                List<Queued> b = batch;
+                written.whenComplete((v, x) -> flush(batchWritten(b, x)));
+                return;
+            }
+            Throwable failure = null;
+            try {
+                written.join();
+            } catch (CompletionException | CancellationException x) {
+                failure = x;
+            }
+            batch = batchWritten(batch, failure);
+        }
+    }
+
+    /**
+     * Called once a batch was written.
+     * @return the next batch to send, if any
+     */
+    private List<Queued> batchWritten(List<Queued> batch, Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        long size = 0;
+        for (Queued q : batch) {
+            size += q.size;
+            if (failure == null) {
+                q.written.complete(null);
+            } else {
+                q.written.completeExceptionally(failure);
+            }
+        }
+        List<Queued> next = null;
+        boolean unblocked;
+        boolean close = false;
+        synchronized (sendLock) {
+            boolean wasWritable = pendingBytes <= MAX_PENDING_BYTES;
+            pendingBytes -= size;
+            unblocked = !wasWritable && pendingBytes <= MAX_PENDING_BYTES;
+            if (failure != null && sendFailure == null) {
+                sendFailure = failure;
+            }
+            if (queued.isEmpty()) {
+                sending = false;
+                close = closeRequested;
+            } else {
+                next = queued;
+                queued = new ArrayList<>();
+            }
+            sendLock.notifyAll();
+        }
+        if (unblocked) {
+            writable();
+        }
+        if (close) {
+            try {
+                handler.close();
+            } catch (IOException x) {
+                error(x);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return whether few enough bytes queued by {@link #queueBinary} are pending for more to be queued
+     * @since TODO
+     */
+    protected final boolean isWritable() {
+        synchronized (sendLock) {
+            return pendingBytes <= MAX_PENDING_BYTES;
+        }
+    }
+
+    /**
+     * Called once messages queued by {@link #queueBinary} were written after {@link #isWritable} had become false.
+     * @since TODO
+     */
+    protected void writable() {
+    }
+
+    /**
+     * Waits until {@link #isWritable}.
+     * @throws IOException if this timed out or writing an earlier message failed
+     * @since TODO
+     */
+    protected final void awaitWritable(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (sendLock) {
+            while (pendingBytes > MAX_PENDING_BYTES && sendFailure == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Timed out waiting for " + pendingBytes + " bytes to be written");
+                }
+                TimeUnit.NANOSECONDS.timedWait(sendLock, remaining);
+            }
+            if (sendFailure != null) {
+                throw new IOException(sendFailure);
+            }
+        }
+    }
+
+    /**
+     * Closes the connection, once messages queued by {@link #queueBinary} were written.
+     */
     protected final void close() throws IOException {
+        synchronized (sendLock) {
+            if (sending) {
+                closeRequested = true;
+                return;
+            }
+        }
         handler.close();
     }
 
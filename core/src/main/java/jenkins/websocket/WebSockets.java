@@ -28,6 +28,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.util.Iterator;
 import java.util.ServiceConfigurationError;
@@ -123,6 +124,15 @@ public class WebSockets {
                     }
                 }
 
+                @Override
+                public void onWebSocketBinary(ByteBuffer payload) {
+                    try {
+                        session.binary(payload);
+                    } catch (IOException x) {
+                        session.error(x);
+                    }
+                }
+
                 @Override
                 public void onWebSocketText(String message) {
                     try {
@@ -16,6 +16,8 @@ import hudson.remoting.Which;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -23,12 +25,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import jenkins.model.Jenkins;
 import jenkins.util.URLClassLoader2;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.jvnet.hudson.test.Issue;
 import org.mockito.stubbing.Answer;
 
@@ -110,6 +115,45 @@ public class PluginWrapperTest {
         }
     }
 
+    @Test
+    public void mayDefine() throws Exception {
+        try (URLClassLoader2 cl = new URLClassLoader2("Test", new URL[0])) {
+            PluginWrapper pw = pluginWrapper("pw").version("1").classloader(cl).build();
+            assertFalse(pw.mayDefineClass(Callable.class.getName()));
+            pw.injectJarsToClasspath(Which.jarFile(Callable.class));
+            assertTrue(pw.mayDefineClass(Callable.class.getName()));
+            assertTrue(pw.mayDefineResource("META-INF/MANIFEST.MF"));
+            assertTrue(pw.mayDefineResource("hudson/remoting/Callable.class"));
+            assertFalse(pw.mayDefineClass("org.example.nonexistent.Thing"));
+            assertFalse(pw.mayDefineResource("org/example/nonexistent/thing.properties"));
+        }
+        try (URLClassLoader2 cl = new URLClassLoader2("Test", new URL[] {new URL("http://localhost/nowhere.jar")})) {
+            PluginWrapper pw = pluginWrapper("remote").version("1").classloader(cl).build();
+            assertTrue(pw.mayDefineClass("org.example.nonexistent.Thing"), "cannot tell, so must not skip");
+        }
+    }
+
+    @Test
+    public void mayDefineResourcesInAncestorDirectories(@TempDir Path tmp) throws Exception {
+        Path classes = tmp.resolve("classes");
+        Files.createDirectories(classes.resolve("a/b/c"));
+        Files.writeString(classes.resolve("a/b/c/thing.properties"), "");
+        Path jar = tmp.resolve("lib.jar");
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jar))) {
+            // no explicit directory entries
+            jos.putNextEntry(new JarEntry("x/y/z/thing.properties"));
+            jos.closeEntry();
+        }
+        try (URLClassLoader2 cl = new URLClassLoader2("Test", new URL[] {classes.toUri().toURL(), jar.toUri().toURL()})) {
+            PluginWrapper pw = pluginWrapper("pw").version("1").classloader(cl).build();
+            for (String name : new String[] {"a", "a/b", "a/b/", "a/b/c", "a/b/c/thing.properties", "x", "x/y", "x/y/z/"}) {
+                assertTrue(pw.mayDefineResource(name), name);
+            }
+            assertFalse(pw.mayDefineResource("a/d/thing.properties"));
+            assertFalse(pw.mayDefineResource("x/y/d/thing.properties"));
+        }
+    }
+
     private void assertInjectingJarsWorks(ClassLoader cl) throws Exception {
         PluginWrapper pw = pluginWrapper("pw").version("1").classloader(cl).build();
         Enumeration<?> e1 = pw.classLoader.getResources("META-INF/MANIFEST.MF");
@@ -0,0 +1,89 @@
+package hudson.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how {@link CLIAction.ServerSideImpl} reports the consumption of stdin to clients using revision 2 of {@link PlainCLIProtocol}.
+ */
+class CLIActionStdinTest {
+
+    /** Ordinal of {@code PlainCLIProtocol.Op.WINDOW}. */
+    private static final byte WINDOW = 10;
+
+    private static final int QUARTER = CLIAction.STDIN_WINDOW / 4;
+
+    private final List<Integer> windows = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Records reported consumption.
+     * Reports after the first block until released, as they would while a WebSocket client is not reading.
+     */
+    private final PlainCLIProtocol.Output output = new PlainCLIProtocol.Output() {
+        @Override
+        public void send(byte[] data) throws IOException {
+            if (data[0] == WINDOW) {
+                windows.add(new DataInputStream(new ByteArrayInputStream(data, 1, 4)).readInt());
+                if (windows.size() == 1) {
+                    return;
+                }
+                try {
+                    release.await(1, TimeUnit.MINUTES);
+                } catch (InterruptedException x) {
+                    throw new IOException(x);
+                }
+            }
+        }
+
+        @Override
+        public void close() {}
+    };
+
+    @Test
+    void consumptionIsReportedExactlyWithoutBlockingStdin() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try (CLIAction.ServerSideImpl server = new CLIAction.ServerSideImpl(output, null)) {
+            server.negotiate("2", null);
+            server.onStdin(new byte[CLIAction.STDIN_WINDOW]);
+
+            // single bytes, then a bulk read completing the first quarter
+            for (int i = 0; i < 10; i++) {
+                assertEquals(0, server.stdin.read());
+            }
+            byte[] buf = new byte[QUARTER];
+            assertEquals(QUARTER - 10, server.stdin.read(buf, 0, QUARTER - 10));
+            assertEquals(List.of(QUARTER), windows);
+
+            // a bulk read whose report blocks
+            Future<Integer> read = executor.submit(() -> server.stdin.read(buf, 0, QUARTER));
+            while (windows.size() < 2) {
+                assertFalse(read.isDone());
+                Thread.sleep(10);
+            }
+            assertEquals(List.of(QUARTER, QUARTER), windows);
+            // the client may send what was reported meanwhile
+            executor.submit(() -> {
+                server.onStdin(new byte[2 * QUARTER]);
+                return null;
+            }).get(1, TimeUnit.MINUTES);
+            release.countDown();
+            assertEquals(QUARTER, read.get(1, TimeUnit.MINUTES));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package hudson.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * @author <a href="mailto:nicolas.deloof@gmail.com">Nicolas De Loof</a>
  */
 public class ItemsTest {
 
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     private static ItemGroup<?> root;
     private static ItemGroup<?> foo;
     private static ItemGroup<?> foo_bar;
@@ -91,4 +101,18 @@ public class ItemsTest {
         assertEquals("../quux/hey", Items.getRelativeNameFrom("foo/bar/quux/hey", "foo/bar/baz"));
     }
 
+    @Test
+    public void isDisabled() throws IOException {
+        assertTrue(Items.isDisabled(job("<project><description>x</description><disabled>true</disabled><builders/></project>")));
+        assertFalse(Items.isDisabled(job("<project><disabled>false</disabled></project>")));
+        assertFalse(Items.isDisabled(job("<project><properties><p><disabled>true</disabled></p></properties></project>")));
+        assertFalse(Items.isDisabled(job("<project")));
+        assertFalse(Items.isDisabled(tmp.newFolder()));
+    }
+
+    private File job(String config) throws IOException {
+        File dir = tmp.newFolder();
+        Files.writeString(new File(dir, "config.xml").toPath(), "<?xml version='1.1' encoding='UTF-8'?>\n" + config);
+        return dir;
+    }
 }
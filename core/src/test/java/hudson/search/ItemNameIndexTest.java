@@ -0,0 +1,56 @@
+package hudson.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ItemNameIndexTest {
+
+    private final ItemNameIndex index = new ItemNameIndex();
+
+    @Before
+    public void enable() {
+        ItemNameIndex.ENABLED = true;
+        index.put("folder/alpha-build", "Alpha Build");
+        index.put("folder/beta", "Beta");
+        index.put("alphabet", "alphabet");
+        index.markReady();
+    }
+
+    @After
+    public void disable() {
+        ItemNameIndex.ENABLED = false;
+    }
+
+    @Test
+    public void candidates() {
+        assertEquals(List.of("alphabet", "folder/alpha-build"), index.candidates("ALPHA"));
+        assertEquals(List.of("folder/alpha-build"), index.candidates("ha bu"));
+        assertEquals(List.of("alphabet", "folder/beta"), index.candidates("bet"));
+        assertEquals(List.of(), index.candidates("gamma"));
+    }
+
+    @Test
+    public void shortTokensAreNotIndexed() {
+        assertNull(index.candidates("al"));
+    }
+
+    @Test
+    public void updates() {
+        index.put("folder/beta", "Gamma");
+        assertEquals(List.of("alphabet"), index.candidates("bet"));
+        assertEquals(List.of("folder/beta"), index.candidates("gamma"));
+        index.remove("alphabet");
+        assertEquals(List.of("folder/alpha-build"), index.candidates("alpha"));
+    }
+
+    @Test
+    public void notReady() {
+        index.clear();
+        assertNull(index.candidates("alpha"));
+    }
+}
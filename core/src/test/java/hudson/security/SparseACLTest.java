@@ -0,0 +1,70 @@
+package hudson.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.acegisecurity.acls.sid.GrantedAuthoritySid;
+import org.acegisecurity.acls.sid.PrincipalSid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class SparseACLTest {
+
+    private static final Authentication ALICE = new UsernamePasswordAuthenticationToken("alice", "secret",
+            Set.of(new SimpleGrantedAuthority("devs"), SecurityRealm.AUTHENTICATED_AUTHORITY2));
+
+    @AfterEach
+    void resetCache() {
+        SidACL.DECISION_CACHE_EXPIRE_AFTER_WRITE_SEC = 0;
+    }
+
+    @Test
+    void implications() {
+        assertEquals(List.of(Permission.CONFIGURE, Permission.UPDATE, Permission.WRITE, Permission.HUDSON_ADMINISTER),
+                Permission.CONFIGURE.getImplications());
+        assertEquals(List.of(Permission.HUDSON_ADMINISTER), Permission.HUDSON_ADMINISTER.getImplications());
+    }
+
+    @Test
+    void impliedPermissions() {
+        SparseACL acl = new SparseACL(null);
+        acl.add(new GrantedAuthoritySid("devs"), Permission.WRITE, true);
+        assertTrue(acl.hasPermission2(ALICE, Permission.CONFIGURE));
+        assertFalse(acl.hasPermission2(ALICE, Permission.READ));
+    }
+
+    @Test
+    void firstEntryWins() {
+        SparseACL acl = new SparseACL(null);
+        acl.add(new PrincipalSid("alice"), Permission.READ, false);
+        acl.add(new PrincipalSid("alice"), Permission.READ, true);
+        acl.add(new GrantedAuthoritySid("devs"), Permission.READ, true);
+        assertFalse(acl.hasPermission2(ALICE, Permission.READ));
+    }
+
+    @Test
+    void closestImplicationWins() {
+        SparseACL acl = new SparseACL(null);
+        acl.add(new PrincipalSid("alice"), Permission.HUDSON_ADMINISTER, true);
+        acl.add(new PrincipalSid("alice"), Permission.UPDATE, false);
+        assertFalse(acl.hasPermission2(ALICE, Permission.CONFIGURE));
+        assertTrue(acl.hasPermission2(ALICE, Permission.CREATE));
+    }
+
+    @Test
+    void decisionCacheInvalidation() {
+        SidACL.DECISION_CACHE_EXPIRE_AFTER_WRITE_SEC = 60;
+        SparseACL acl = new SparseACL(null);
+        assertFalse(acl.hasPermission2(ALICE, Permission.READ));
+        acl.add(new GrantedAuthoritySid("devs"), Permission.READ, true);
+        assertTrue(acl.hasPermission2(ALICE, Permission.READ));
+        SidACL.invalidateDecisionCaches();
+        assertTrue(acl.hasPermission2(ALICE, Permission.READ));
+    }
+}
@@ -0,0 +1,50 @@
+package jenkins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.sf.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.reactor.Milestone;
+import org.jvnet.hudson.reactor.MilestoneImpl;
+import org.jvnet.hudson.reactor.Reactor;
+import org.jvnet.hudson.reactor.TaskGraphBuilder;
+
+class InitProfilerTest {
+
+    @Test
+    void criticalPath() throws Exception {
+        Milestone loaded = new MilestoneImpl("loaded");
+        TaskGraphBuilder b = new TaskGraphBuilder();
+        b.add("slow load", r -> Thread.sleep(200)).attains(loaded);
+        b.add("fast load", r -> Thread.sleep(10)).attains(loaded);
+        // runs alongside "slow load", so that parallel work dominates
+        b.add("independent", r -> Thread.sleep(200));
+        b.add("after load", r -> Thread.sleep(50)).requires(loaded);
+
+        InitProfiler profiler = new InitProfiler();
+        ExecutorService es = Executors.newFixedThreadPool(3);
+        try {
+            new Reactor(b).execute(es, profiler);
+        } finally {
+            es.shutdownNow();
+        }
+
+        assertEquals(4, profiler.getSpans().size());
+        assertEquals(List.of("slow load", "after load"), profiler.getCriticalPath().stream().map(InitProfiler.Span::name).toList());
+        InitProfiler.Span slow = span(profiler, "slow load");
+        InitProfiler.Span independent = span(profiler, "independent");
+        assertTrue(slow.start() < independent.end() && independent.start() < slow.end(), "independent tasks overlap");
+        assertTrue(profiler.getParallelism() > 1);
+
+        JSONObject trace = profiler.toTraceEvents();
+        assertTrue(trace.getJSONArray("traceEvents").size() >= 4);
+    }
+
+    private static InitProfiler.Span span(InitProfiler profiler, String name) {
+        return profiler.getSpans().stream().filter(s -> s.name().equals(name)).findFirst().orElseThrow();
+    }
+}
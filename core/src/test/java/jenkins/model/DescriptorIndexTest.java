@@ -0,0 +1,105 @@
+package jenkins.model;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.ExtensionComponent;
+import hudson.ExtensionList;
+import hudson.init.InitMilestone;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import hudson.model.Hudson;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import jenkins.ExtensionComponentSet;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class DescriptorIndexTest {
+
+    @Test
+    public void lookupsFollowExtensionLoading() {
+        AtomicReference<InitMilestone> level = new AtomicReference<>(InitMilestone.STARTED);
+        Hudson jenkins = mock(Hudson.class);
+        when(jenkins.getInitLevel()).thenAnswer(invocation -> level.get());
+        TestList list = new TestList(jenkins);
+        Alpha.DescriptorImpl alpha = new Alpha.DescriptorImpl();
+        Beta.DescriptorImpl beta = new Beta.DescriptorImpl();
+        list.add(alpha);
+        list.discoverable.add(new ExtensionComponent<>(beta));
+        DescriptorIndex index = new DescriptorIndex(list);
+
+        // before plugins are prepared, only legacy instances are visible
+        assertSame(alpha, index.get(Alpha.class.getName()));
+        assertSame(alpha, index.getByClazz(Alpha.class));
+        assertNull(index.getByClazz(Beta.class));
+
+        level.set(InitMilestone.PLUGINS_PREPARED);
+        assertSame(beta, index.get(Beta.class.getName()));
+        assertSame(beta, index.getByClazz(Beta.class));
+        assertSame(beta, index.getByType(Beta.DescriptorImpl.class));
+        assertSame(alpha, index.getByType(Alpha.DescriptorImpl.class));
+
+        Gamma.DescriptorImpl gamma = new Gamma.DescriptorImpl();
+        assertNull(index.getByClazz(Gamma.class));
+        list.refresh(new ExtensionComponentSet() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Collection<ExtensionComponent<T>> find(Class<T> type) {
+                return type == Descriptor.class ? List.of((ExtensionComponent<T>) new ExtensionComponent<>(gamma)) : List.of();
+            }
+        });
+        assertSame(gamma, index.get(Gamma.class.getName()));
+        assertSame(gamma, index.getByClazz(Gamma.class));
+        assertSame(beta, index.getByClazz(Beta.class));
+    }
+
+    private static final class TestList extends ExtensionList<Descriptor> {
+        final List<ExtensionComponent<Descriptor>> discoverable = new ArrayList<>();
+
+        TestList(Hudson jenkins) {
+            super(jenkins, Descriptor.class);
+        }
+
+        @Override
+        protected List<ExtensionComponent<Descriptor>> load() {
+            return new ArrayList<>(discoverable);
+        }
+
+        @Override
+        protected Object getLoadLock() {
+            return this;
+        }
+    }
+
+    public static final class Alpha implements Describable<Alpha> {
+        @Override
+        public Descriptor<Alpha> getDescriptor() {
+            throw new UnsupportedOperationException();
+        }
+
+        public static final class DescriptorImpl extends Descriptor<Alpha> {}
+    }
+
+    public static final class Beta implements Describable<Beta> {
+        @Override
+        public Descriptor<Beta> getDescriptor() {
+            throw new UnsupportedOperationException();
+        }
+
+        public static final class DescriptorImpl extends Descriptor<Beta> {}
+    }
+
+    public static final class Gamma implements Describable<Gamma> {
+        @Override
+        public Descriptor<Gamma> getDescriptor() {
+            throw new UnsupportedOperationException();
+        }
+
+        public static final class DescriptorImpl extends Descriptor<Gamma> {}
+    }
+}
@@ -0,0 +1,53 @@
+package jenkins.model.lazy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class BoundedBuildCacheTest {
+
+    @Test
+    public void perJobLimit() {
+        BoundedBuildCache cache = new BoundedBuildCache(Long.MAX_VALUE, 2);
+        Object b1 = new Object();
+        Object b2 = new Object();
+        Object b3 = new Object();
+        BoundedBuildCache.Holder<Object> h1 = cache.make(b1);
+        cache.make(b2);
+        BoundedBuildCache.Holder<Object> h3 = cache.make(b3);
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getRejections());
+
+        // not cached, but still reachable
+        assertSame(b3, h3.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getRejections());
+
+        assertSame(b1, h1.get());
+        assertEquals(1, cache.getHits());
+
+        h1.invalidate();
+        assertEquals(1, cache.getSize());
+        assertSame(b3, h3.get());
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void jobsWithoutCachedBuildsAreForgotten() {
+        BoundedBuildCache cache = new BoundedBuildCache(Long.MAX_VALUE, 2);
+        BoundedBuildCache.Holder<Object> h1 = cache.make(new Object());
+        BoundedBuildCache.Holder<Object> h2 = cache.make(new Object());
+        assertEquals(1, cache.getJobs());
+        h1.invalidate();
+        assertEquals(1, cache.getJobs());
+        h2.invalidate();
+        assertEquals(0, cache.getJobs());
+
+        cache.make(new Object());
+        cache.make(new Object());
+        cache.invalidateJob("");
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getJobs());
+    }
+}
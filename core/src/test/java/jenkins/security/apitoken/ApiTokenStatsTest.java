@@ -337,6 +337,33 @@ public class ApiTokenStatsTest {
         }
     }
 
+    @Test
+    public void deferredSave() throws Exception {
+        final String ID = UUID.randomUUID().toString();
+
+        ApiTokenPropertyConfiguration mockConfig = mock(ApiTokenPropertyConfiguration.class);
+        try (MockedStatic<ApiTokenPropertyConfiguration> mocked = mockStatic(ApiTokenPropertyConfiguration.class)) {
+            mocked.when(ApiTokenPropertyConfiguration::get).thenReturn(mockConfig);
+            Mockito.when(mockConfig.isUsageStatisticsEnabled()).thenReturn(true);
+
+            ApiTokenStats.SAVE_DELAY_SECONDS = 3600;
+            try {
+                ApiTokenStats tokenStats = createFromFile(tmp.getRoot());
+                tokenStats.updateUsageForId(ID);
+                tokenStats.updateUsageForId(ID);
+                assertEquals(2, tokenStats.findTokenStatsById(ID).getUseCounter());
+
+                // nothing written yet
+                assertEquals(0, createFromFile(tmp.getRoot()).findTokenStatsById(ID).getUseCounter());
+
+                ApiTokenStats.flushAll();
+                assertEquals(2, createFromFile(tmp.getRoot()).findTokenStatsById(ID).getUseCounter());
+            } finally {
+                ApiTokenStats.SAVE_DELAY_SECONDS = 0;
+            }
+        }
+    }
+
     private ApiTokenStats createFromFile(File file) {
         ApiTokenStats result = ApiTokenStats.internalLoad(file);
         if (result == null) {
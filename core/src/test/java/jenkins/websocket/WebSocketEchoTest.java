@@ -0,0 +1,101 @@
+package jenkins.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class WebSocketEchoTest {
+
+    private static final int SIZE = 1024 * 1024;
+
+    @Test
+    void stopsReadingWhileResponsesArePending() throws Exception {
+        BlockingQueue<CompletableFuture<Void>> writes = new LinkedBlockingQueue<>();
+        AtomicLong written = new AtomicLong();
+        WebSocketEcho.Session session = new WebSocketEcho.Session();
+        session.handler = new Provider.Handler() {
+            @Override
+            public Future<Void> sendBinary(ByteBuffer data) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void sendBinary(ByteBuffer partialByte, boolean isLast) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Void> sendBinaryBatch(List<ByteBuffer> data) {
+                for (ByteBuffer b : data) {
+                    while (b.hasRemaining()) {
+                        assertEquals('A', b.get());
+                        written.incrementAndGet();
+                    }
+                }
+                // written only once the test lets it
+                CompletableFuture<Void> f = new CompletableFuture<>();
+                writes.add(f);
+                return f;
+            }
+
+            @Override
+            public Future<Void> sendText(String text) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Future<Void> sendPing(ByteBuffer applicationData) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        int messages = 10;
+        AtomicInteger received = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            byte[] payload = new byte[SIZE];
+            Arrays.fill(payload, (byte) 'a');
+            try {
+                for (int i = 0; i < messages; i++) {
+                    session.binary(ByteBuffer.wrap(payload));
+                    received.incrementAndGet();
+                }
+            } catch (Exception x) {
+                throw new AssertionError(x);
+            }
+        }, "WebSocket reader");
+        reader.start();
+
+        // 4 MiB may be pending; the message which goes beyond that is the last one read
+        CompletableFuture<Void> first = writes.poll(1, TimeUnit.MINUTES);
+        while (reader.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(reader.isAlive());
+            Thread.sleep(10);
+        }
+        assertEquals(5, received.get());
+
+        first.complete(null);
+        while (reader.isAlive() || !writes.isEmpty()) {
+            CompletableFuture<Void> f = writes.poll(100, TimeUnit.MILLISECONDS);
+            if (f != null) {
+                f.complete(null);
+            }
+        }
+        assertEquals(messages, received.get());
+        assertEquals((long) messages * SIZE, written.get());
+    }
+}
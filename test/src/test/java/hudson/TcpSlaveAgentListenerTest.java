@@ -3,10 +3,21 @@ package hudson;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import jenkins.model.Jenkins;
 import org.htmlunit.Page;
 import org.htmlunit.TextPage;
@@ -48,4 +59,51 @@ public class TcpSlaveAgentListenerTest {
         Page page = wc.getPage(new URI("http://localhost:" + p + "/xxx").toURL());
         assertEquals(HttpURLConnection.HTTP_NOT_FOUND, page.getWebResponse().getStatusCode());
     }
+
+    @Test
+    public void fragmentedHeader() throws Exception {
+        r.getInstance().setSlaveAgentPort(0);
+        TcpSlaveAgentListener listener = r.jenkins.getTcpSlaveAgentListener();
+        long accepted = listener.getAcceptedConnections();
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        new DataOutputStream(header).writeUTF("Protocol:Ping");
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), listener.getPort())) {
+            s.setSoTimeout(10_000);
+            OutputStream out = s.getOutputStream();
+            // the header is read without blocking, so it may arrive in pieces
+            for (byte b : header.toByteArray()) {
+                out.write(b);
+                out.flush();
+                Thread.sleep(10);
+            }
+            InputStream in = s.getInputStream();
+            assertArrayEquals("Ping\n".getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+        assertTrue(listener.getAcceptedConnections() > accepted);
+    }
+
+    @Test
+    public void idleHttpClientsDoNotBlockAgents() throws Exception {
+        r.getInstance().setSlaveAgentPort(0);
+        TcpSlaveAgentListener listener = r.jenkins.getTcpSlaveAgentListener();
+        List<Socket> idle = new ArrayList<>();
+        try {
+            // more clients than handler threads, none of which ever closes its connection
+            for (int i = 0; i < 32; i++) {
+                Socket s = new Socket(InetAddress.getLoopbackAddress(), listener.getPort());
+                idle.add(s);
+                s.setSoTimeout(10_000);
+                s.getOutputStream().write("GET / HTTP/1.0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                s.getOutputStream().flush();
+                assertThat(new String(s.getInputStream().readAllBytes(), StandardCharsets.UTF_8), containsString(Jenkins.VERSION));
+            }
+            Socket ping = new Socket(InetAddress.getLoopbackAddress(), listener.getPort());
+            ping.setSoTimeout(10_000);
+            assertTrue(new TcpSlaveAgentListener.PingAgentProtocol().connect(ping));
+        } finally {
+            for (Socket s : idle) {
+                s.close();
+            }
+        }
+    }
 }
@@ -173,6 +173,30 @@ public class ListViewTest {
         assertEquals(new HashSet<TopLevelItem>(Arrays.asList(p1, p2)), new HashSet<>(v.getItems()));
     }
 
+    @Test public void includeRegexMatchesAreMemoizedPerItem() throws Exception {
+        MockFolder top = j.createFolder("top");
+        FreeStyleProject a1 = top.createProject(FreeStyleProject.class, "a1");
+        FreeStyleProject a2 = top.createProject(FreeStyleProject.class, "a2");
+        top.createProject(FreeStyleProject.class, "b1");
+        MockFolder sub = top.createProject(MockFolder.class, "sub");
+        FreeStyleProject a3 = sub.createProject(FreeStyleProject.class, "a3");
+        ListView v = new ListView("v", top);
+        v.setRecurse(true);
+        v.setIncludeRegex("(sub/)?a.*");
+        top.addView(v);
+        assertThat(v.getItems(), containsInAnyOrder(a1, a2, a3));
+        assertEquals(Set.of("a1", "a2", "b1", "sub", "sub/a3"), v.getMemoizedIncludeMatches());
+
+        a1.renameTo("c1");
+        assertEquals("only the renamed item is forgotten", Set.of("a2", "b1", "sub", "sub/a3"), v.getMemoizedIncludeMatches());
+        assertThat(v.getItems(), containsInAnyOrder(a2, a3));
+        assertEquals(Set.of("a2", "b1", "c1", "sub", "sub/a3"), v.getMemoizedIncludeMatches());
+
+        sub.delete();
+        assertEquals("a deleted folder is forgotten with its contents", Set.of("a2", "b1", "c1"), v.getMemoizedIncludeMatches());
+        assertThat(v.getItems(), containsInAnyOrder(a2));
+    }
+
     @Issue("JENKINS-23893")
     @Test public void renameJobContainedInTopLevelView() throws Exception {
         ListView view = new ListView("view", j.jenkins);
@@ -0,0 +1,163 @@
+package hudson.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hudson.security.ACL;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class UpdateCenterDownloadTest {
+
+    @Rule public JenkinsRule j = new JenkinsRule();
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final byte[] content = new byte[100_000];
+
+    private final List<String> ranges = new ArrayList<>();
+
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        new Random(42).nextBytes(content);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/flaky.hpi", this::serveFlaky);
+        server.createContext("/slow.hpi", this::serveSlow);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    /**
+     * Drops the connection halfway through the first response, and honors range requests afterwards.
+     */
+    private void serveFlaky(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        synchronized (ranges) {
+            ranges.add(String.valueOf(range));
+        }
+        try (OutputStream os = exchange.getResponseBody()) {
+            if (range == null) {
+                exchange.sendResponseHeaders(200, content.length);
+                os.write(content, 0, content.length / 2);
+                os.flush();
+                // closing with fewer bytes than announced aborts the connection
+                return;
+            }
+            int from = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + (content.length - 1) + "/" + content.length);
+            exchange.sendResponseHeaders(206, content.length - from);
+            os.write(content, from, content.length - from);
+        } catch (IOException e) {
+            // expected for the aborted response
+        }
+    }
+
+    /**
+     * Sends the first half of the content, then the rest once {@link #release} is counted down.
+     */
+    private void serveSlow(HttpExchange exchange) throws IOException {
+        try (OutputStream os = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(200, content.length);
+            os.write(content, 0, content.length / 2);
+            os.flush();
+            if (release.await(1, TimeUnit.MINUTES)) {
+                os.write(content, content.length / 2, content.length - content.length / 2);
+            }
+        } catch (IOException | InterruptedException e) {
+            // the client may give up
+        }
+    }
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private UpdateCenter.DownloadJob job(String name, File dst, IOException failure) {
+        return j.jenkins.getUpdateCenter().new DownloadJob(null, ACL.SYSTEM2) {
+            @Override
+            protected URL getURL() throws MalformedURLException {
+                return new URL("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/" + name + ".hpi");
+            }
+
+            @Override
+            protected File getDestination() {
+                return dst;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            protected void onSuccess() {
+            }
+
+            @Override
+            protected void _run() throws IOException, InstallationStatus {
+                if (failure != null) {
+                    throw failure;
+                }
+                super._run();
+            }
+        };
+    }
+
+    @Test
+    public void discardsPrefetchedDownloadWhenJobFails() throws Exception {
+        File dst = new File(tmp.getRoot(), "slow.hpi");
+        File partial = new File(dst.getPath() + ".tmp");
+        UpdateCenter.DownloadJob job = job("slow", dst, new IOException("failing before the download is needed"));
+        job.prefetch();
+        while (partial.length() == 0) {
+            Thread.sleep(100);
+        }
+        assertThat("a prefetch does not report progress for a pending job", job.status, instanceOf(UpdateCenter.DownloadJob.Pending.class));
+
+        job.run();
+        assertThat(job.status, instanceOf(UpdateCenter.DownloadJob.Failure.class));
+        release.countDown();
+        while (partial.exists()) {
+            Thread.sleep(100);
+        }
+        assertThat("the cancelled prefetch does not overwrite the failure", job.status, instanceOf(UpdateCenter.DownloadJob.Failure.class));
+        assertFalse(dst.exists());
+    }
+
+    @Test
+    public void resumesInterruptedDownload() throws Exception {
+        UpdateCenter.DownloadJob job = job("flaky", new File(tmp.getRoot(), "flaky.hpi"), null);
+        File downloaded = new UpdateCenter.UpdateCenterConfiguration().download(job, job.getURL());
+        assertArrayEquals(content, Files.readAllBytes(downloaded.toPath()));
+        assertEquals(List.of("null", "bytes=" + downloaded.length() / 2 + "-"), ranges);
+        assertEquals(Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content)), job.getComputedSHA256());
+    }
+}
@@ -780,6 +780,43 @@ public class UserTest {
         assertThat(failingResources, empty());
     }
 
+    @Test
+    public void scanFailuresAreReportedWhetherLoadingSeriallyOrInParallel() throws Exception {
+        int scanThreads = User.AllUsers.SCAN_THREADS;
+        User.getById("alice", true).save();
+        User.getById("bob", true).save();
+        try {
+            FailingUserProperty.DescriptorImpl.failFor = "bob";
+            for (int threads : new int[] {1, 4}) {
+                User.AllUsers.SCAN_THREADS = threads;
+                IllegalStateException e = assertThrows("with " + threads + " thread(s)", IllegalStateException.class, User::reload);
+                assertEquals("cannot load bob", e.getMessage());
+            }
+            FailingUserProperty.DescriptorImpl.failFor = null;
+            User.reload();
+            assertNotNull(User.getById("bob", false));
+        } finally {
+            FailingUserProperty.DescriptorImpl.failFor = null;
+            User.AllUsers.SCAN_THREADS = scanThreads;
+        }
+    }
+
+    public static class FailingUserProperty extends UserProperty {
+
+        @TestExtension("scanFailuresAreReportedWhetherLoadingSeriallyOrInParallel")
+        public static class DescriptorImpl extends UserPropertyDescriptor {
+            static volatile String failFor;
+
+            @Override
+            public UserProperty newInstance(User user) {
+                if (user.getId().equals(failFor)) {
+                    throw new IllegalStateException("cannot load " + failFor);
+                }
+                return null;
+            }
+        }
+    }
+
     @Test
     public void legacyCallerGetsUserMayOrMayNotExistException() {
         final SecurityRealm realm = new NonEnumeratingAcegiSecurityRealm();
@@ -0,0 +1,35 @@
+package hudson.node_monitors;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import hudson.model.Computer;
+import hudson.node_monitors.DiskSpaceMonitorDescriptor.DiskSpace;
+import hudson.slaves.DumbSlave;
+import hudson.slaves.SlaveComputer;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class NodeMonitorBatchTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void monitorsShareRound() throws Exception {
+        DumbSlave s = j.createOnlineSlave();
+        SlaveComputer c = s.getComputer();
+
+        Map<Computer, String> arch = j.jenkins.getDescriptorByType(ArchitectureMonitor.DescriptorImpl.class).monitor();
+        assertNotNull(arch.get(c));
+        List<NodeMonitorBatch.Sample> series = NodeMonitorBatch.get().getSeries(c);
+        assertTrue(series.get(series.size() - 1).millis() >= 0);
+
+        // collected in the same round
+        Map<Computer, DiskSpace> temp = j.jenkins.getDescriptorByType(TemporarySpaceMonitor.DescriptorImpl.class).monitor();
+        assertTrue(temp.get(c).size > 0);
+    }
+}
@@ -1,16 +1,24 @@
 package hudson.node_monitors;
 
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import hudson.model.Computer;
 import hudson.model.ComputerSet;
 import hudson.model.Slave;
 import hudson.model.User;
+import hudson.remoting.Channel;
 import hudson.slaves.DumbSlave;
 import hudson.slaves.OfflineCause;
+import hudson.slaves.PingScheduler;
 import hudson.slaves.SlaveComputer;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.InboundAgentRule;
@@ -68,4 +76,22 @@ public class ResponseTimeMonitorTest {
             assertEquals(originalOfflineCause, c.getOfflineCause());
         }
     }
+
+    @Test
+    public void pingsOfTheChannelAreShown() throws Exception {
+        DumbSlave s = j.createOnlineSlave();
+        Channel channel = (Channel) s.getChannel();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> PingScheduler.get().getRoundTrips(channel).pings() > 0);
+
+        ResponseTimeMonitor rtm = ComputerSet.getMonitors().get(ResponseTimeMonitor.class);
+        rtm.triggerUpdate().join();
+        ResponseTimeMonitor.Data data = (ResponseTimeMonitor.Data) rtm.data(s.toComputer());
+        ResponseTimeMonitor.PingStatistics pings = data.getPings();
+        assertNotNull(pings);
+        assertTrue(pings.getCount() > 0);
+        assertEquals(0, pings.getFailures());
+        assertThat(pings.getMedian(), lessThanOrEqualTo(pings.getMaximum()));
+
+        assertThat(j.createWebClient().goTo("computer/").getWebResponse().getContentAsString(), containsString("Round trip of recent pings"));
+    }
 }
@@ -0,0 +1,35 @@
+package hudson.slaves;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import hudson.remoting.Channel;
+import hudson.remoting.PingThread;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class PingSchedulerTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void roundTrips() throws Exception {
+        DumbSlave s = j.createOnlineSlave();
+        Channel channel = (Channel) s.getChannel();
+
+        // pinged right away
+        await().atMost(10, TimeUnit.SECONDS).until(() -> PingScheduler.get().getRoundTrips(channel).pings() > 0);
+        PingScheduler.RoundTrips roundTrips = PingScheduler.get().getRoundTrips(channel);
+        assertEquals(0, roundTrips.failures());
+        assertNotNull(roundTrips.percentile(0.5));
+        assertFalse(Thread.getAllStackTraces().keySet().stream().anyMatch(t -> t instanceof PingThread));
+
+        j.disconnectSlave(s);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> PingScheduler.get().getRoundTrips(channel) == null);
+    }
+}
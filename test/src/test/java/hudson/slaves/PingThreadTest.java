@@ -29,6 +29,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeFalse;
 
 import hudson.Functions;
@@ -36,9 +37,7 @@ import hudson.Platform;
 import hudson.model.Computer;
 import hudson.remoting.Channel;
 import hudson.remoting.ChannelClosedException;
-import hudson.remoting.PingThread;
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -67,13 +66,7 @@ public class PingThreadTest {
         Channel channel = (Channel) slave.getChannel();
         long pid = channel.call(new GetPid());
 
-        PingThread pingThread = null;
-        for (Thread it : Thread.getAllStackTraces().keySet()) {
-            if (it instanceof PingThread && it.getName().endsWith(channel.toString())) {
-                pingThread = (PingThread) it;
-            }
-        }
-        assertNotNull(pingThread);
+        assertNotNull(PingScheduler.get().getRoundTrips(channel));
 
         /*
          * Simulate lost connection by sending a STOP signal. We use the STOP signal rather than the
@@ -84,10 +77,8 @@ public class PingThreadTest {
          */
         kill(pid, "-STOP", 'T');
         try {
-            // ... do not wait for Ping Thread to notice
-            Method onDead = PingThread.class.getDeclaredMethod("onDead", Throwable.class);
-            onDead.setAccessible(true);
-            onDead.invoke(pingThread, new TimeoutException("No ping"));
+            // ... do not wait for the ping to time out
+            assertTrue(PingScheduler.get().fail(channel, new TimeoutException("No ping")));
 
             /*
              * Channel termination happens asynchronously, so wait for the asynchronous activity to
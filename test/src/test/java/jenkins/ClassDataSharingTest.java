@@ -0,0 +1,63 @@
+package jenkins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class ClassDataSharingTest {
+
+    @Rule
+    public JenkinsRule r = new JenkinsRule();
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String DIR = ClassDataSharing.class.getName() + ".dir";
+
+    private File dir;
+
+    @Before
+    public void setDir() throws Exception {
+        dir = tmp.newFolder("cds");
+        System.setProperty(DIR, dir.getPath());
+    }
+
+    @After
+    public void clearDir() {
+        System.clearProperty(DIR);
+    }
+
+    @Test
+    public void archiveIsDeletedWhenPluginsChange() throws Exception {
+        File archive = ClassDataSharing.getArchive();
+        Files.writeString(archive.toPath(), "stale");
+        File digest = new File(dir, "plugins.digest");
+        Files.writeString(digest.toPath(), "other plugins");
+        Files.writeString(new File(dir, "timings.properties").toPath(), "withoutArchive=1\nwithArchive=0\n");
+        ClassDataSharing.checkPlugins();
+        assertFalse(archive.exists());
+        assertNotEquals("other plugins", Files.readString(digest.toPath(), StandardCharsets.UTF_8));
+        assertEquals("measurements with other plugins are discarded", -1, ClassDataSharing.getStartupCpuMillisSaved());
+
+        ClassDataSharing.checkPlugins();
+        assertTrue("CPU time is recorded for the same plugins", ClassDataSharing.getStartupCpuMillisWithoutArchive() > 0);
+    }
+
+    @Test
+    public void failuresDoNotAbortStartup() throws Exception {
+        // a directory where the digest is expected cannot be written
+        assertTrue(new File(dir, "plugins.digest").mkdir());
+        ClassDataSharing.checkPlugins();
+    }
+}
@@ -0,0 +1,121 @@
+package jenkins.agents;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Computer;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.slaves.ComputerListener;
+import hudson.slaves.DumbSlave;
+import hudson.slaves.OfflineCause;
+import hudson.slaves.SlaveComputer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+
+public class ComputerListenerDispatcherTest {
+
+    @Rule
+    public JenkinsRule r = new JenkinsRule();
+
+    private final long waitMillis = ComputerListenerDispatcher.WAIT_MILLIS;
+
+    @After
+    public void restore() {
+        ComputerListenerDispatcher.WAIT_MILLIS = waitMillis;
+    }
+
+    @Test
+    public void slowListenerDoesNotHoldUpLaunch() throws Exception {
+        ComputerListenerDispatcher.WAIT_MILLIS = 100;
+        SlowListener slow = r.jenkins.getExtensionList(ComputerListener.class).get(SlowListener.class);
+        DumbSlave agent = r.createOnlineSlave();
+        assertEquals("agent came online while the listener was still busy", 1, slow.release.getCount());
+        agent.toComputer().disconnect(null).get();
+        slow.release.countDown();
+        assertTrue(slow.offline.await(1, TimeUnit.MINUTES));
+        assertThat("events of a computer are processed in order", slow.events, contains("onOnline", "onOffline"));
+        assertThat(ComputerListenerDispatcher.get().getTimings(), hasKey(SlowListener.class.getName() + "#onOnline"));
+    }
+
+    @TestExtension("slowListenerDoesNotHoldUpLaunch")
+    public static final class SlowListener extends ComputerListener {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch offline = new CountDownLatch(1);
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onOnline(Computer c, TaskListener listener) throws InterruptedException {
+            if (c instanceof SlaveComputer) {
+                assertTrue(release.await(1, TimeUnit.MINUTES));
+                events.add("onOnline");
+            }
+        }
+
+        @Override
+        public void onOffline(@NonNull Computer c, OfflineCause cause) {
+            if (c instanceof SlaveComputer) {
+                events.add("onOffline");
+                offline.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void eventsFiredByListenersAreProcessedRightAway() throws Exception {
+        DumbSlave agent = r.createOnlineSlave();
+        Computer c = agent.toComputer();
+        c.setTemporaryOfflineCause(new OfflineCause.ByCLI("test"));
+        Nesting nesting = r.jenkins.getExtensionList(ComputerListener.class).get(Nesting.class);
+        assertTrue(nesting.done);
+        assertFalse(c.isTemporarilyOffline());
+    }
+
+    @Test
+    public void eventsFiredWithQueueLockHeldAreNotAwaited() throws Exception {
+        ComputerListenerDispatcher.WAIT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+        NeedsQueueLock listener = r.jenkins.getExtensionList(ComputerListener.class).get(NeedsQueueLock.class);
+        long start = System.nanoTime();
+        Queue.withLock(() -> ComputerListenerDispatcher.get().fireConfigurationChange());
+        assertThat("did not wait for the listener", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), lessThan(10L));
+        assertTrue(listener.done.await(1, TimeUnit.MINUTES));
+    }
+
+    @TestExtension("eventsFiredWithQueueLockHeldAreNotAwaited")
+    public static final class NeedsQueueLock extends ComputerListener {
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onConfigurationChange() {
+            Queue.withLock(done::countDown);
+        }
+    }
+
+    @TestExtension("eventsFiredByListenersAreProcessedRightAway")
+    public static final class Nesting extends ComputerListener {
+        volatile boolean done;
+
+        @Override
+        public void onTemporarilyOffline(Computer c, OfflineCause cause) {
+            c.setTemporaryOfflineCause(null);
+        }
+
+        @Override
+        public void onTemporarilyOnline(Computer c) {
+            done = true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package jenkins.agents;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import hudson.model.Computer;
+import hudson.model.FreeStyleProject;
+import hudson.model.TaskListener;
+import hudson.remoting.Channel;
+import hudson.remoting.Which;
+import hudson.slaves.DumbSlave;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class JarProvisioningTest {
+
+    @Rule
+    public JenkinsRule r = new JenkinsRule();
+
+    private final boolean provisionNewAgents = JarProvisioning.PROVISION_NEW_AGENTS;
+
+    @After
+    public void restore() {
+        JarProvisioning.PROVISION_NEW_AGENTS = provisionNewAgents;
+    }
+
+    @Test
+    public void provisionsOnlyChangedJars() throws Exception {
+        JarProvisioning p = JarProvisioning.get();
+        long agentsProvisioned = p.getAgentsProvisioned();
+        DumbSlave agent = r.createOnlineSlave();
+        await().until(p::getAgentsProvisioned, n -> n > agentsProvisioned);
+
+        // added to the manifest since the agent was last provisioned
+        p.record(Which.jarFile(IOUtils.class));
+        long provisioned = p.getJarsProvisioned();
+        reconnect(agent, p);
+        assertTrue(p.getJarsProvisioned() > provisioned);
+        provisioned = p.getJarsProvisioned();
+        reconnect(agent, p);
+        assertEquals("nothing changed since the agent was last provisioned", provisioned, p.getJarsProvisioned());
+
+        long firstBuilds = p.getFirstBuilds();
+        FreeStyleProject project = r.createFreeStyleProject();
+        project.setAssignedNode(agent);
+        r.buildAndAssertSuccess(project);
+        assertEquals(firstBuilds + 1, p.getFirstBuilds());
+        assertNotNull(p.getMeanTimeToFirstBuild());
+        r.buildAndAssertSuccess(project);
+        assertEquals("only the first build after connecting counts", firstBuilds + 1, p.getFirstBuilds());
+    }
+
+    @Test
+    public void newAgentsAreOnlyProvisionedIfEnabled() throws Exception {
+        JarProvisioning p = JarProvisioning.get();
+        p.record(Which.jarFile(IOUtils.class));
+        long agentsProvisioned = p.getAgentsProvisioned();
+        DumbSlave agent = r.createOnlineSlave();
+        await().until(p::getAgentsProvisioned, n -> n > agentsProvisioned);
+        Channel channel = (Channel) agent.getChannel();
+        assertEquals("jars are loaded on demand by default", 0, p.provision("new-agent", channel, TaskListener.NULL));
+        assertEquals("now known to be up to date", 0, p.provision("new-agent", channel, TaskListener.NULL));
+
+        JarProvisioning.PROVISION_NEW_AGENTS = true;
+        assertTrue("gets the whole manifest", p.provision("other-new-agent", channel, TaskListener.NULL) > 0);
+    }
+
+    @Test
+    public void provisioningSurvivesRestart() throws Exception {
+        JarProvisioning p = JarProvisioning.get();
+        long agentsProvisioned = p.getAgentsProvisioned();
+        DumbSlave agent = r.createOnlineSlave();
+        await().until(p::getAgentsProvisioned, n -> n > agentsProvisioned);
+        p.record(Which.jarFile(IOUtils.class));
+        p.save();
+
+        // as loaded after a restart
+        JarProvisioning reloaded = new JarProvisioning();
+        Channel channel = (Channel) agent.getChannel();
+        assertTrue("the agent gets what was added since", reloaded.provision(agent.getNodeName(), channel, TaskListener.NULL) > 0);
+        reloaded.save();
+        reloaded = new JarProvisioning();
+        assertEquals("the agent is known to be up to date", 0, reloaded.provision(agent.getNodeName(), channel, TaskListener.NULL));
+
+        DumbSlave other = r.createOnlineSlave();
+        p.provision(agent.getNodeName(), channel, TaskListener.NULL);
+        r.jenkins.removeNode(agent);
+        p.save();
+        reloaded = new JarProvisioning();
+        JarProvisioning.PROVISION_NEW_AGENTS = true;
+        assertTrue("deleted agents are forgotten", reloaded.provision(agent.getNodeName(), (Channel) other.getChannel(), TaskListener.NULL) > 0);
+    }
+
+    private void reconnect(DumbSlave agent, JarProvisioning p) throws Exception {
+        long agentsProvisioned = p.getAgentsProvisioned();
+        Computer c = agent.toComputer();
+        c.disconnect(null).get();
+        c.connect(false).get();
+        r.waitOnline(agent);
+        await().until(p::getAgentsProvisioned, n -> n > agentsProvisioned);
+    }
+}
@@ -0,0 +1,157 @@
+package jenkins.agents;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.slaves.DumbSlave;
+import hudson.slaves.JNLPLauncher;
+import hudson.slaves.SlaveComputer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class LaunchSchedulerTest {
+
+    @Rule
+    public JenkinsRule r = new JenkinsRule();
+
+    private final int maxConcurrent = LaunchScheduler.MAX_CONCURRENT;
+    private final int launchesPerSecond = LaunchScheduler.LAUNCHES_PER_SECOND;
+    private final int slotTimeoutSeconds = LaunchScheduler.SLOT_TIMEOUT_SECONDS;
+
+    @Before
+    public void unpaced() {
+        LaunchScheduler.LAUNCHES_PER_SECOND = 0;
+    }
+
+    @After
+    public void restore() {
+        LaunchScheduler.MAX_CONCURRENT = maxConcurrent;
+        LaunchScheduler.LAUNCHES_PER_SECOND = launchesPerSecond;
+        LaunchScheduler.SLOT_TIMEOUT_SECONDS = slotTimeoutSeconds;
+    }
+
+    @Test
+    public void limitsConcurrentLaunches() throws Exception {
+        LaunchScheduler.MAX_CONCURRENT = 2;
+        LaunchScheduler s = new LaunchScheduler();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<?>> launches = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            launches.add(s.submit(computer("agent" + i, null), false, () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return release.await(1, TimeUnit.MINUTES);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }));
+        }
+        await().until(running::get, n -> n == 2);
+        assertEquals(2, s.getConnecting());
+        assertEquals(3, s.getPending());
+        release.countDown();
+        for (Future<?> launch : launches) {
+            launch.get(1, TimeUnit.MINUTES);
+        }
+        assertEquals(2, peak.get());
+        await().until(s::getConnecting, n -> n == 0);
+        assertEquals(0, s.getPending());
+    }
+
+    @Test
+    public void hungLaunchesReleaseTheirSlot() throws Exception {
+        LaunchScheduler.MAX_CONCURRENT = 1;
+        LaunchScheduler.SLOT_TIMEOUT_SECONDS = 1;
+        LaunchScheduler s = new LaunchScheduler();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> hung = s.submit(computer("hung", null), false, () -> release.await(1, TimeUnit.MINUTES));
+        Future<?> next = s.submit(computer("next", null), false, () -> null);
+        assertEquals(1, s.getPending());
+        // starts once the hung launch no longer holds the only slot
+        next.get(1, TimeUnit.MINUTES);
+        assertFalse(hung.isDone());
+        await().until(s::getConnecting, n -> n == 0);
+
+        release.countDown();
+        hung.get(1, TimeUnit.MINUTES);
+        Thread.sleep(100);
+        assertEquals("the slot is not released twice", 0, s.getConnecting());
+    }
+
+    @Test
+    public void failedLaunchesBackOffUnlessUserInitiated() throws Exception {
+        LaunchScheduler s = new LaunchScheduler();
+        // the mock never has a channel, so every launch fails
+        SlaveComputer c = computer("flaky", null);
+        s.submit(c, false, () -> null).get(1, TimeUnit.MINUTES);
+        await().until(s::getFailed, n -> n == 1);
+
+        // waits at least half of the 2 second backoff
+        Future<?> retry = s.submit(c, false, () -> null);
+        Thread.sleep(500);
+        assertFalse(retry.isDone());
+        assertEquals(1, s.getPending());
+        retry.get(1, TimeUnit.MINUTES);
+        await().until(s::getFailed, n -> n == 2);
+
+        // would wait at least 2 seconds if it were not requested by a user
+        s.submit(c, true, () -> null).get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void agentsAbleToRunBuildableItemsLaunchFirst() throws Exception {
+        LaunchScheduler.MAX_CONCURRENT = 1;
+        FreeStyleProject p = r.createFreeStyleProject();
+        p.setAssignedLabel(Label.get("wanted"));
+        p.scheduleBuild2(0);
+        await().until(() -> {
+            r.jenkins.getQueue().maintain();
+            return r.jenkins.getQueue().getBuildableItems().size() == 1;
+        });
+
+        DumbSlave other = new DumbSlave("other", r.jenkins.getRootDir().getPath(), new JNLPLauncher());
+        other.setMode(Node.Mode.EXCLUSIVE);
+        DumbSlave wanted = new DumbSlave("wanted-agent", r.jenkins.getRootDir().getPath(), new JNLPLauncher());
+        wanted.setLabelString("wanted");
+
+        LaunchScheduler s = new LaunchScheduler();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        Future<?> busy = s.submit(computer("busy", null), false, () -> release.await(1, TimeUnit.MINUTES));
+        Future<?> first = s.submit(computer("other", other), false, () -> order.add("other"));
+        Future<?> second = s.submit(computer("wanted-agent", wanted), false, () -> order.add("wanted-agent"));
+        assertEquals(2, s.getPending());
+        release.countDown();
+        busy.get(1, TimeUnit.MINUTES);
+        first.get(1, TimeUnit.MINUTES);
+        second.get(1, TimeUnit.MINUTES);
+        assertThat(order, contains("wanted-agent", "other"));
+    }
+
+    private static SlaveComputer computer(String name, DumbSlave node) {
+        SlaveComputer c = mock(SlaveComputer.class);
+        when(c.getName()).thenReturn(name);
+        when(c.getNode()).thenReturn(node);
+        return c;
+    }
+}
@@ -24,15 +24,20 @@
 
 package jenkins.model;
 
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -41,17 +46,26 @@ import static org.junit.Assert.assertThrows;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.ExtensionList;
 import hudson.XmlFile;
+import hudson.model.Computer;
 import hudson.model.Descriptor;
+import hudson.model.Executor;
 import hudson.model.Failure;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
 import hudson.model.Node;
+import hudson.model.Result;
 import hudson.model.Saveable;
 import hudson.model.Slave;
 import hudson.model.listeners.SaveableListener;
 import hudson.slaves.ComputerLauncher;
 import hudson.slaves.DumbSlave;
+import hudson.slaves.EphemeralNode;
+import hudson.slaves.JNLPLauncher;
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeMatcher;
@@ -59,6 +73,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.Issue;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.SleepBuilder;
 import org.jvnet.hudson.test.TestExtension;
 import org.jvnet.hudson.test.recipes.LocalData;
 
@@ -168,6 +183,54 @@ public class NodesTest {
         assertNotNull(r.jenkins.getNode("foo"));
     }
 
+    @Test
+    public void nodeAddedAgainGetsNewComputer() throws Exception {
+        DumbSlave agent = r.createOnlineSlave();
+        String name = agent.getNodeName();
+        FreeStyleProject p = r.createFreeStyleProject();
+        p.setAssignedNode(agent);
+        p.getBuildersList().add(new SleepBuilder(Long.MAX_VALUE));
+        FreeStyleBuild b = p.scheduleBuild2(0).waitForStart();
+        Computer old = agent.toComputer();
+
+        // the computer of the removed node is kept until its build is over
+        r.jenkins.removeNode(agent);
+        assertThat(r.jenkins.getComputer(name), sameInstance(old));
+
+        Node added = r.createSlave(name, null, null);
+        Computer c = added.toComputer();
+        assertNotNull(c);
+        assertNotSame(old, c);
+        assertThat(c.getNode(), sameInstance(added));
+        assertEquals(1, c.getNumExecutors());
+        assertEquals(0, old.getNumExecutors());
+        assertThat("the build of the removed node is still listed", Arrays.asList(r.jenkins.getComputers()), hasItems(old, c));
+        assertThat(r.jenkins.getComputer(name), sameInstance(c));
+
+        Executor e = b.getExecutor();
+        assertNotNull(e);
+        e.interrupt();
+        r.assertBuildStatus(Result.ABORTED, r.waitForCompletion(b));
+        await().until(() -> old.getExecutors().isEmpty());
+        assertThat("removing the old computer leaves the new one", r.jenkins.getComputer(name), sameInstance(c));
+        assertThat(Arrays.asList(r.jenkins.getComputers()), not(hasItem(old)));
+    }
+
+    @Test
+    public void buildOfNodeAddedAgainIsInterruptedOnCleanUp() throws Exception {
+        DumbSlave agent = r.createOnlineSlave();
+        String name = agent.getNodeName();
+        FreeStyleProject p = r.createFreeStyleProject();
+        p.setAssignedNode(agent);
+        p.getBuildersList().add(new SleepBuilder(Long.MAX_VALUE));
+        FreeStyleBuild b = p.scheduleBuild2(0).waitForStart();
+        r.jenkins.removeNode(agent);
+        r.createSlave(name, null, null);
+
+        r.jenkins.cleanUp();
+        r.assertBuildStatus(Result.ABORTED, r.waitForCompletion(b));
+    }
+
     private static class InvalidNode extends Slave {
         // JEP-200 whitelist changes prevent this field (and thus instances of this class) from being serialized.
         private ClassLoader cl = InvalidNode.class.getClassLoader();
@@ -177,6 +240,36 @@ public class NodesTest {
         }
     }
 
+    @Test
+    public void ephemeralNodeIsNotPersisted() throws Exception {
+        Node agent = r.createSlave("agent", "", null);
+        Computer c = agent.toComputer();
+        TransientNode node = new TransientNode("transient", "temp", new JNLPLauncher());
+        r.jenkins.addNode(node);
+        assertNotNull(node.toComputer());
+        assertFalse(new File(r.jenkins.getNodesObject().getRootDir(), "transient").exists());
+        assertThat("the computers of other nodes are left alone", agent.toComputer(), sameInstance(c));
+        TransientNode replacement = new TransientNode("transient", "temp", new JNLPLauncher());
+        Computer transientComputer = node.toComputer();
+        r.jenkins.addNode(replacement);
+        assertThat("the computer is reused", replacement.toComputer(), sameInstance(transientComputer));
+        r.jenkins.removeNode(replacement);
+        assertNull(r.jenkins.getNode("transient"));
+        assertFalse(new File(r.jenkins.getNodesObject().getRootDir(), "transient").exists());
+        assertThat(agent.toComputer(), sameInstance(c));
+    }
+
+    private static class TransientNode extends Slave implements EphemeralNode {
+        TransientNode(String name, String remoteFS, ComputerLauncher launcher) throws Descriptor.FormException, IOException {
+            super(name, remoteFS, launcher);
+        }
+
+        @Override
+        public Node asNode() {
+            return this;
+        }
+    }
+
     @Test
     @Issue("SECURITY-2424")
     public void cannotCreateNodeWithTrailingDot_withoutOtherNode() throws Exception {
@@ -0,0 +1,130 @@
+package jenkins.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import hudson.util.DaemonThreadFactory;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares platform and virtual threads running many tasks blocking at the same time,
+ * as {@link hudson.model.Computer#threadPoolForRemoting} does with many agents.
+ * Allocation is reported by the GC profiler, and the peak number of platform threads by an auxiliary counter.
+ * On Java 17 both variants use platform threads.
+ */
+public class VirtualThreadsBenchmarkTest {
+    @Test
+    public void runBenchmark() throws Exception {
+        // run the minimum possible number of iterations
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .mode(Mode.AverageTime)
+                .forks(1)
+                .result("jmh-report.json")
+                .resultFormat(ResultFormatType.JSON)
+                .operationsPerInvocation(1)
+                .threads(1)
+                .warmupForks(0)
+                .warmupIterations(0)
+                .measurementBatchSize(1)
+                .measurementIterations(1)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true)
+                .include(VirtualThreadsBenchmarkTest.class.getName() + ".*");
+        Collection<RunResult> results = new Runner(options.build()).run();
+        assertTrue(Files.exists(Paths.get("jmh-report.json")));
+
+        Map<String, Double> peaks = new HashMap<>();
+        for (RunResult result : results) {
+            peaks.put(result.getParams().getParam("threads"), result.getSecondaryResults().get("peakPlatformThreads").getScore());
+        }
+        assertEquals(2, peaks.size());
+        if (VirtualThreads.lookup() != null) {
+            assertThat("virtual threads share a few carrier threads", peaks.get("virtual"), lessThan(peaks.get("platform")));
+        }
+    }
+
+    private static final int TASKS = 2000;
+
+    @JmhBenchmark
+    public static class BlockingTasksBenchmark {
+        public static class StateImpl extends JmhBenchmarkState {
+            @Param({"platform", "virtual"})
+            public String threads;
+
+            ExecutorService executor;
+
+            @Override
+            public void setup() throws Exception {
+                ThreadFactory virtual = VirtualThreads.lookup();
+                executor = threads.equals("virtual") && virtual != null
+                        ? VirtualThreads.newThreadPerTaskExecutor(virtual)
+                        : Executors.newCachedThreadPool(new DaemonThreadFactory());
+                ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            }
+
+            @Override
+            public void tearDown() {
+                executor.shutdownNow();
+            }
+        }
+
+        /**
+         * Reported next to the average time of {@link #blockingTasks}.
+         */
+        @State(Scope.Thread)
+        @AuxCounters(AuxCounters.Type.EVENTS)
+        public static class Counters {
+            /**
+             * Peak number of live platform threads; virtual threads are not counted.
+             */
+            public long peakPlatformThreads;
+        }
+
+        @Benchmark
+        public void blockingTasks(StateImpl state, Counters counters, Blackhole blackhole) throws Exception {
+            List<Future<?>> futures = new ArrayList<>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                futures.add(state.executor.submit(() -> {
+                    // stands for a read from an agent
+                    Thread.sleep(10);
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                blackhole.consume(f.get());
+            }
+            counters.peakPlatformThreads = Math.max(counters.peakPlatformThreads, ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package jenkins.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import hudson.model.InvisibleAction;
+import hudson.model.RootAction;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.HttpResponse;
+
+/**
+ * Measures the throughput of {@link WebSocketEcho}, which queues its responses,
+ * against an echo which waits for each response to be written, as agent connections used to.
+ * As this transfers a few hundred megabytes, it only runs with {@code -Djenkins.websocket.benchmark=true}.
+ */
+public class WebSocketEchoBenchmarkTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private static final int MESSAGES = 20_000;
+    private static final int SIZE = 8 * 1024;
+
+    @Test
+    public void throughput() throws Exception {
+        assumeTrue("set jenkins.websocket.benchmark to run", Boolean.getBoolean("jenkins.websocket.benchmark"));
+        // warm up both
+        echo("wsecho-waiting", MESSAGES / 10);
+        echo("wsecho", MESSAGES / 10);
+        double waiting = echo("wsecho-waiting", MESSAGES);
+        double queued = echo("wsecho", MESSAGES);
+        LOGGER.info(() -> String.format("echo of %d messages of %d bytes: waiting %.1f MB/s, queued %.1f MB/s", MESSAGES, SIZE, waiting, queued));
+    }
+
+    /**
+     * @return throughput in megabytes per second
+     */
+    private double echo(String path, int messages) throws Exception {
+        long expected = (long) messages * SIZE;
+        AtomicLong received = new AtomicLong();
+        AtomicLong mismatches = new AtomicLong();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        WebSocket.Listener listener = new WebSocket.Listener() {
+            @Override
+            public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+                while (data.hasRemaining()) {
+                    if (data.get() != 'A') {
+                        mismatches.incrementAndGet();
+                    }
+                    received.incrementAndGet();
+                }
+                if (received.get() >= expected) {
+                    done.complete(null);
+                }
+                webSocket.request(1);
+                return null;
+            }
+
+            @Override
+            public void onError(WebSocket webSocket, Throwable error) {
+                done.completeExceptionally(error);
+            }
+        };
+        URI uri = URI.create(j.getURL().toString().replaceFirst("^http", "ws") + path + "/");
+        WebSocket ws = HttpClient.newHttpClient().newWebSocketBuilder().buildAsync(uri, listener).get(1, TimeUnit.MINUTES);
+        byte[] payload = new byte[SIZE];
+        Arrays.fill(payload, (byte) 'a');
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            ws.sendBinary(ByteBuffer.wrap(payload), true).get(1, TimeUnit.MINUTES);
+        }
+        done.get(5, TimeUnit.MINUTES);
+        long nanos = System.nanoTime() - start;
+        ws.sendClose(WebSocket.NORMAL_CLOSURE, "").get(1, TimeUnit.MINUTES);
+        assertEquals(expected, received.get());
+        assertEquals(0, mismatches.get());
+        return expected / 1e6 / (nanos / 1e9);
+    }
+
+    @TestExtension("throughput")
+    public static class WaitingEcho extends InvisibleAction implements RootAction {
+        @Override
+        public String getUrlName() {
+            return "wsecho-waiting";
+        }
+
+        public HttpResponse doIndex() {
+            return WebSockets.upgrade(new WebSocketSession() {
+                @Override
+                protected void binary(byte[] payload, int offset, int len) throws IOException {
+                    ByteBuffer data = ByteBuffer.allocate(len);
+                    for (int i = 0; i < len; i++) {
+                        byte b = payload[offset + i];
+                        if (b >= 'a' && b <= 'z') {
+                            b += 'A' - 'a';
+                        }
+                        data.put(i, b);
+                    }
+                    try {
+                        sendBinary(data).get(1, TimeUnit.MINUTES);
+                    } catch (Exception x) {
+                        throw new IOException(x);
+                    }
+                }
+            });
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(WebSocketEchoBenchmarkTest.class.getName());
+}
@@ -29,10 +29,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import org.eclipse.jetty.ee9.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.ee9.websocket.api.Session;
-import org.eclipse.jetty.ee9.websocket.api.WebSocketListener;
+import org.eclipse.jetty.ee9.websocket.api.StatusCode;
+import org.eclipse.jetty.ee9.websocket.api.WebSocketPartialListener;
 import org.eclipse.jetty.ee9.websocket.api.WriteCallback;
 import org.eclipse.jetty.ee9.websocket.server.JettyServerUpgradeRequest;
 import org.eclipse.jetty.ee9.websocket.server.JettyServerUpgradeResponse;
@@ -96,6 +99,19 @@ public class Jetty12EE9Provider implements Provider {
                 session().getRemote().sendPartialBytes(partialByte, isLast);
             }
 
+            @Override
+            public CompletableFuture<Void> sendBinaryBatch(List<ByteBuffer> data) throws IOException {
+                RemoteEndpoint remote = session().getRemote();
+                CompletableFuture<?>[] written = new CompletableFuture<?>[data.size()];
+                for (int i = 0; i < written.length; i++) {
+                    CompletableFuture<Void> f = new CompletableFuture<>();
+                    // queued frames are gathered into a single write by the frame flusher
+                    remote.sendBytes(data.get(i), new WriteCallbackImpl(f));
+                    written[i] = f;
+                }
+                return CompletableFuture.allOf(written);
+            }
+
             @Override
             public Future<Void> sendText(String text) throws IOException {
                 CompletableFuture<Void> f = new CompletableFuture<>();
@@ -148,15 +164,74 @@ public class Jetty12EE9Provider implements Provider {
         if (listener == null) {
             throw new IllegalStateException("missing listener attribute");
         }
-        return new WebSocketListener() {
+        return new WebSocketPartialListener() {
+            private Session session;
+            // aggregate fragmented messages only
+            private ByteBuffer binary;
+            private StringBuilder text;
+            private boolean discard;
+
             @Override
-            public void onWebSocketBinary(byte[] payload, int offset, int length) {
-                listener.onWebSocketBinary(payload, offset, length);
+            public void onWebSocketPartialBinary(ByteBuffer payload, boolean fin) {
+                if (discard) {
+                    return;
+                }
+                if (binary == null && fin) {
+                    listener.onWebSocketBinary(payload);
+                    return;
+                }
+                long size = (binary == null ? 0 : binary.position()) + payload.remaining();
+                if (tooLarge(size, session.getMaxBinaryMessageSize())) {
+                    binary = null;
+                    return;
+                }
+                if (binary == null) {
+                    binary = ByteBuffer.allocate(Math.max(1024, 2 * payload.remaining()));
+                } else if (binary.remaining() < payload.remaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate((int) Math.max(size, 2L * binary.capacity()));
+                    binary.flip();
+                    larger.put(binary);
+                    binary = larger;
+                }
+                binary.put(payload);
+                if (fin) {
+                    ByteBuffer message = binary.flip();
+                    binary = null;
+                    listener.onWebSocketBinary(message);
+                }
             }
 
             @Override
-            public void onWebSocketText(String message) {
-                listener.onWebSocketText(message);
+            public void onWebSocketPartialText(String payload, boolean fin) {
+                if (discard) {
+                    return;
+                }
+                if (text == null && fin) {
+                    listener.onWebSocketText(payload);
+                    return;
+                }
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                text.append(payload);
+                if (tooLarge(text.length(), session.getMaxTextMessageSize())) {
+                    text = null;
+                    return;
+                }
+                if (fin) {
+                    String message = text.toString();
+                    text = null;
+                    listener.onWebSocketText(message);
+                }
+            }
+
+            private boolean tooLarge(long size, long max) {
+                if (max > 0 && size > max) {
+                    discard = true;
+                    session.close(StatusCode.MESSAGE_TOO_LARGE, "Message size [" + size + "] exceeds maximum size [" + max + "]");
+                    return true;
+                }
+                return false;
             }
 
             @Override
@@ -166,6 +241,7 @@ public class Jetty12EE9Provider implements Provider {
 
             @Override
             public void onWebSocketConnect(Session session) {
+                this.session = session;
                 listener.onWebSocketConnect(session);
             }
 
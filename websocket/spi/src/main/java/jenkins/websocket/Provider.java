@@ -28,6 +28,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 /**
@@ -57,6 +59,12 @@ interface Provider {
 
         void onWebSocketBinary(byte[] payload, int offset, int length);
 
+        /**
+         * Receives a complete binary message without copying it where possible.
+         * @param payload only valid until this method returns
+         */
+        void onWebSocketBinary(ByteBuffer payload);
+
         void onWebSocketText(String message);
 
     }
@@ -67,6 +75,14 @@ interface Provider {
 
         void sendBinary(ByteBuffer partialByte, boolean isLast) throws IOException;
 
+        /**
+         * Sends binary messages in order without waiting for them to be written,
+         * so that they may be written together.
+         * The buffers must not be modified until the result completes.
+         * @return completes once all messages were written
+         */
+        CompletableFuture<Void> sendBinaryBatch(List<ByteBuffer> data) throws IOException;
+
         Future<Void> sendText(String text) throws IOException;
 
         Future<Void> sendPing(ByteBuffer applicationData) throws IOException;